@@ -0,0 +1,162 @@
+/* Copyright (c) 2009-2023 jMonkeyEngine.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package e.g.jme3hudl;
+
+import com.jme3.math.Vector3f;
+import com.jme3.scene.Node;
+import com.simsilica.lemur.Container;
+import com.simsilica.lemur.core.GuiControl;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Comprueba que una pasada de diseño de {@link GroupLayout} en estado estable
+ * no asigna memoria propia.
+ * <p>
+ * Lemur asigna vectores en <code>GuiControl.setSize()</code>; ese coste se mide aparte con un
+ * contenedor equivalente que usa {@link NullLayout} y se descuenta. Lo que
+ * queda es la memoria asignada por el propio diseño, que debe ser cero.
+ * </p>
+ * <p>
+ * Ejecutar con: <code>gradle allocationCheck</code>
+ * </p>
+ *
+ * @author wil
+ */
+public final class AllocationCheck {
+
+    private static final int WARMUP = 20_000;
+    private static final int PASSES = 2_000;
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private AllocationCheck() {
+    }
+
+    private static long allocated() {
+        return THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    /**
+     * Mide los bytes por pasada de <code>pass</code>.
+     */
+    private static double measure(Runnable pass) {
+        for (int i = 0; i < WARMUP; i++) {
+            pass.run();
+        }
+        long start = allocated();
+        for (int i = 0; i < PASSES; i++) {
+            pass.run();
+        }
+        return (allocated() - start) / (double) PASSES;
+    }
+
+    /**
+     * Formulario donde cada fila es un grupo secuencial con un hueco elástico,
+     * estirado por un panel más ancho; obliga a repartir el espacio sobrante
+     * entre resortes (<code>setValidSizeNotPreferred</code>).
+     */
+    private static LayoutFixtures.LayoutFactory stretchedForm() {
+        return (List<Node> children) -> {
+            Container c = new LayoutFixtures.BareContainer();
+            GroupLayout layout = new GroupLayout(c);
+            c.setLayout(layout);
+            GroupLayout.ParallelGroup columns = layout.createParallelGroup();
+            GroupLayout.SequentialGroup rows = layout.createSequentialGroup();
+            for (int i = 0; i + 1 < children.size(); i += 2) {
+                Node left = children.get(i);
+                Node right = children.get(i + 1);
+                columns.addGroup(layout.createSequentialGroup()
+                        .addComponent(left, 10, GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE)
+                        .addGap(0, 10, Short.MAX_VALUE)
+                        .addComponent(right));
+                rows.addGroup(layout.createParallelGroup()
+                        .addComponent(left)
+                        .addComponent(right));
+            }
+            Node wide = new LayoutFixtures.BarePanel(600, 10);
+            columns.addComponent(wide);
+            rows.addComponent(wide);
+            layout.setHorizontalGroup(columns);
+            layout.setVerticalGroup(rows);
+            return c;
+        };
+    }
+
+    private static double check(int childCount, boolean autopadding) {
+        return check("GroupLayout", LayoutFixtures.tree(childCount, 1, LayoutFixtures.groupLayout(autopadding, false)),
+                childCount, autopadding);
+    }
+
+    private static double check(String name, final Container root, int childCount, boolean autopadding) {
+        final GuiControl rootControl = root.getControl(GuiControl.class);
+        final Vector3f size = root.getPreferredSize().addLocal(50, 50, 0);
+        rootControl.setSize(size);
+
+        // Mismo número de hojas, sin cálculos de diseño.
+        final List<GuiControl> leaves = new ArrayList<>();
+        for (Node n : LayoutFixtures.<GroupLayout>layoutOf(root).getChildren()) {
+            leaves.add(n.getControl(GuiControl.class));
+        }
+        final GuiControl floorControl = new LayoutFixtures.BareContainer().getControl(GuiControl.class);
+        final Vector3f leafSize = new Vector3f(10, 10, 0);
+
+        double layout = measure(() -> rootControl.setSize(size));
+        double floor = measure(() -> {
+            floorControl.setSize(size);
+            for (int i = 0; i < leaves.size(); i++) {
+                leaves.get(i).setSize(leafSize);
+            }
+        });
+        double own = layout - floor;
+        System.out.printf("%s children=%d autopadding=%b: %.1f B/op (Lemur %.1f B/op, layout %.1f B/op)%n",
+                name, childCount, autopadding, layout, floor, own);
+        return own;
+    }
+
+    public static void main(String[] args) {
+        double worst = 0;
+        for (int count : new int[] {10, 100, 300}) {
+            for (boolean autopadding : new boolean[] {false, true}) {
+                worst = Math.max(worst, check(count, autopadding));
+            }
+            worst = Math.max(worst, check("Stretched GroupLayout",
+                    LayoutFixtures.tree(count, 1, stretchedForm()), count, false));
+        }
+        if (worst > 0.5) {
+            throw new AssertionError("GroupLayout allocates " + worst + " B/op in steady state");
+        }
+    }
+}
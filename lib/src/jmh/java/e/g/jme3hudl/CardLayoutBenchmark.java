@@ -0,0 +1,101 @@
+/* Copyright (c) 2009-2023 jMonkeyEngine.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package e.g.jme3hudl;
+
+import com.simsilica.lemur.Container;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mide el coste de cambiar de tarjeta en una barra de pestañas con
+ * {@link CardLayout}, sin incluir la pasada de diseño, según el número de
+ * páginas.
+ * <p>
+ * Ejecutar con: <code>gradle jmh -PjmhInclude=CardLayoutBenchmark</code>
+ * </p>
+ *
+ * @author wil
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CardLayoutBenchmark {
+
+    @Param({"10", "1000"})
+    public int cardCount;
+
+    private CardLayout layout;
+    private String[] names;
+    private int probe;
+
+    @Setup
+    public void setUp() {
+        Container root = new LayoutFixtures.BareContainer();
+        layout = new CardLayout();
+        root.setLayout(layout);
+        names = new String[cardCount];
+        for (int i = 0; i < cardCount; i++) {
+            names[i] = "page" + i;
+            layout.addLayoutComponent(LayoutFixtures.leaf(i), names[i]);
+        }
+        layout.first();
+    }
+
+    @Benchmark
+    public int show() {
+        // Salta a páginas repartidas por toda la barra.
+        probe = (probe + 7919) % cardCount;
+        layout.show(names[probe]);
+        return probe;
+    }
+
+    @Benchmark
+    public CardLayout next() {
+        layout.next();
+        return layout;
+    }
+}
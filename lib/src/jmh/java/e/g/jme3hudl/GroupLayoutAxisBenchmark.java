@@ -0,0 +1,107 @@
+/* Copyright (c) 2009-2023 jMonkeyEngine.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package e.g.jme3hudl;
+
+import com.jme3.math.Vector3f;
+import com.simsilica.lemur.Container;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara una pasada completa de {@link GroupLayout} sobre un formulario de
+ * dos columnas con los ejes resueltos uno detrás de otro o en paralelo
+ * ({@link GroupLayout#setAxisPool(ForkJoinPool)}), para situar el número de
+ * componentes a partir del cual el reparto compensa en cada máquina (con un
+ * solo núcleo nunca compensa) y ajustar
+ * {@link GroupLayout#setParallelThreshold(int)}.
+ * <p>
+ * Ejecutar con: <code>gradle jmh -PjmhInclude=GroupLayoutAxisBenchmark</code>
+ * </p>
+ *
+ * @author wil
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GroupLayoutAxisBenchmark {
+
+    @Param({"20", "200", "1000", "2000", "6000"})
+    public int childCount;
+
+    @Param({"false", "true"})
+    public boolean parallel;
+
+    private Container root;
+    private GroupLayout layout;
+    private final Vector3f size = new Vector3f();
+
+    @Setup
+    public void setUp() {
+        root = LayoutFixtures.tree(childCount, 1, LayoutFixtures.groupLayout(true, false));
+        layout = LayoutFixtures.layoutOf(root);
+        if (parallel) {
+            layout.setAxisPool(ForkJoinPool.commonPool());
+            layout.setParallelThreshold(0);
+        }
+        size.set(root.getPreferredSize()).addLocal(50, 50, 0);
+        LayoutFixtures.layout(root, size);
+    }
+
+    @Benchmark
+    public Vector3f preferredSize() {
+        layout.invalidate();
+        return root.getPreferredSize();
+    }
+
+    @Benchmark
+    public Vector3f reshape() {
+        layout.invalidate();
+        LayoutFixtures.layout(root, size);
+        return root.getSize();
+    }
+}
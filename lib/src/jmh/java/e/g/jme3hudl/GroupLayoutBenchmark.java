@@ -0,0 +1,177 @@
+/* Copyright (c) 2009-2023 jMonkeyEngine.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package e.g.jme3hudl;
+
+import com.jme3.math.Vector3f;
+import com.jme3.scene.Node;
+import com.jme3.scene.Spatial;
+import com.simsilica.lemur.Container;
+import com.simsilica.lemur.core.GuiControl;
+import com.simsilica.lemur.core.GuiLayout;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mide el coste de <code>calculatePreferredSize</code> y <code>reshape</code>
+ * del diseño {@link GroupLayout}, y el de quitar un hijo de la raíz, que
+ * obliga a reconstruir el relleno automático.
+ * <p>
+ * Ejecutar con: <code>gradle jmh -PjmhInclude=GroupLayoutBenchmark</code>
+ * </p>
+ *
+ * @author wil
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GroupLayoutBenchmark {
+
+    @Param({"10", "100", "300"})
+    public int childCount;
+
+    @Param({"1", "3"})
+    public int depth;
+
+    @Param({"false", "true"})
+    public boolean autopadding;
+
+    @Param({"false", "true"})
+    public boolean linked;
+
+    /** Resolver aplanado o recorrido de objetos Spring (por defecto). */
+    @Param({"false", "true"})
+    public boolean flattened;
+
+    private Container root;
+    private final List<GroupLayout> layouts = new ArrayList<>();
+    private final Vector3f size = new Vector3f();
+
+    @Setup
+    public void setUp() {
+        root = LayoutFixtures.tree(childCount, depth, LayoutFixtures.groupLayout(autopadding, linked));
+        collect(root);
+        size.set(root.getPreferredSize()).addLocal(50, 50, 0);
+        LayoutFixtures.layout(root, size);
+    }
+    
+    /**
+     * Árbol recién diseñado para cada invocación de {@link #removeChild}.
+     */
+    @State(Scope.Thread)
+    public static class Removal {
+        Container root;
+        Node child;
+        final Vector3f size = new Vector3f();
+
+        @Setup(Level.Invocation)
+        public void setUp(GroupLayoutBenchmark b) {
+            root = LayoutFixtures.tree(b.childCount, b.depth, 
+                    LayoutFixtures.groupLayout(b.autopadding, b.linked));
+            GroupLayout layout = LayoutFixtures.layoutOf(root);
+            layout.setFlattenedSolver(b.flattened);
+            size.set(root.getPreferredSize()).addLocal(50, 50, 0);
+            LayoutFixtures.layout(root, size);
+            Object[] children = layout.getChildren().toArray();
+            child = (Node) children[children.length / 2];
+        }
+    }
+
+    private void collect(Spatial s) {
+        GuiControl gc = s.getControl(GuiControl.class);
+        if (gc != null) {
+            GuiLayout layout = gc.getLayout();
+            if (layout instanceof GroupLayout) {
+                ((GroupLayout) layout).setFlattenedSolver(flattened);
+                layouts.add((GroupLayout) layout);
+            }
+        }
+        if (s instanceof Node) {
+            for (Spatial child : ((Node) s).getChildren()) {
+                collect(child);
+            }
+        }
+    }
+
+    /**
+     * Invalida todos los diseños del árbol, obligando a resolver de nuevo los
+     * resortes en la siguiente pasada.
+     */
+    private void invalidateAll() {
+        for (int i = 0; i < layouts.size(); i++) {
+            layouts.get(i).invalidate();
+        }
+    }
+
+    @Benchmark
+    public Vector3f preferredSize() {
+        invalidateAll();
+        return root.getPreferredSize();
+    }
+
+    @Benchmark
+    public Vector3f reshape() {
+        invalidateAll();
+        LayoutFixtures.layout(root, size);
+        return root.getSize();
+    }
+
+    @Benchmark
+    public Vector3f removeChild(Removal removal) {
+        removal.root.getLayout().removeChild(removal.child);
+        LayoutFixtures.layout(removal.root, removal.size);
+        return removal.root.getSize();
+    }
+
+    @Benchmark
+    public Vector3f reshapeValid() {
+        LayoutFixtures.layout(root, size);
+        return root.getSize();
+    }
+}
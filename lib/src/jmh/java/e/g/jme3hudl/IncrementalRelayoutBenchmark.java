@@ -0,0 +1,128 @@
+/* Copyright (c) 2009-2023 jMonkeyEngine.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package e.g.jme3hudl;
+
+import com.jme3.math.Vector3f;
+import com.simsilica.lemur.Container;
+import com.simsilica.lemur.Panel;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara el coste de recalcular el tamaño preferido de un
+ * {@link GroupLayout} tras cambiar un único componente, usando
+ * {@link GroupLayout#invalidateComponent(com.jme3.scene.Node)} frente a una
+ * invalidación completa de los diseños desde la hoja hasta la raíz.
+ * <p>
+ * Ejecutar con: <code>gradle jmh -PjmhInclude=IncrementalRelayoutBenchmark</code>
+ * </p>
+ *
+ * @author wil
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IncrementalRelayoutBenchmark {
+
+    @Param({"50", "300", "1000"})
+    public int childCount;
+
+    @Param({"1", "3"})
+    public int depth;
+
+    private Container root;
+    private GroupLayout layout;
+    private final List<GroupLayout> path = new ArrayList<>();
+    private Panel changed;
+    private final Vector3f small = new Vector3f(40, 20, 0);
+    private final Vector3f large = new Vector3f(80, 30, 0);
+    private boolean toggle;
+
+    @Setup
+    public void setUp() {
+        root = LayoutFixtures.tree(childCount, depth, LayoutFixtures.groupLayout(false, false));
+        
+        // Desciende por el primer hijo hasta llegar a una hoja.
+        Container parent = root;
+        while (true) {
+            GroupLayout gl = LayoutFixtures.layoutOf(parent);
+            path.add(gl);
+            Panel first = (Panel) gl.getChildren().iterator().next();
+            if (first instanceof Container) {
+                parent = (Container) first;
+            } else {
+                layout = gl;
+                changed = first;
+                break;
+            }
+        }
+        root.getPreferredSize();
+    }
+
+    private void change() {
+        toggle = !toggle;
+        changed.setPreferredSize(toggle ? large : small);
+    }
+
+    @Benchmark
+    public Vector3f incremental() {
+        change();
+        layout.invalidateComponent(changed);
+        return root.getPreferredSize();
+    }
+
+    @Benchmark
+    public Vector3f fullInvalidate() {
+        change();
+        for (int i = 0; i < path.size(); i++) {
+            path.get(i).invalidate();
+        }
+        return root.getPreferredSize();
+    }
+}
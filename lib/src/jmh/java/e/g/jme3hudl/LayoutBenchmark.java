@@ -0,0 +1,112 @@
+/* Copyright (c) 2009-2023 jMonkeyEngine.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package e.g.jme3hudl;
+
+import com.jme3.math.Vector3f;
+import com.simsilica.lemur.Container;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mide el coste de <code>calculatePreferredSize</code> y <code>reshape</code>
+ * de los diseños {@link FlowLayout}, {@link CardLayout} y
+ * {@link ControlLayout}.
+ * <p>
+ * Ejecutar con: <code>gradle jmh -PjmhInclude=LayoutBenchmark</code>
+ * </p>
+ *
+ * @author wil
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LayoutBenchmark {
+
+    @Param({"flow", "card", "control"})
+    public String layout;
+
+    @Param({"10", "100", "1000"})
+    public int childCount;
+
+    @Param({"1", "3"})
+    public int depth;
+
+    private Container root;
+    private final Vector3f size = new Vector3f();
+
+    @Setup
+    public void setUp() {
+        LayoutFixtures.LayoutFactory factory;
+        switch (layout) {
+            case "flow":
+                factory = LayoutFixtures.flowLayout();
+                break;
+            case "card":
+                factory = LayoutFixtures.cardLayout();
+                break;
+            case "control":
+                factory = LayoutFixtures.controlLayout();
+                break;
+            default:
+                throw new IllegalArgumentException(layout);
+        }
+        root = LayoutFixtures.tree(childCount, depth, factory);
+        size.set(1280, 720, 0);
+        LayoutFixtures.layout(root, size);
+    }
+
+    @Benchmark
+    public Vector3f preferredSize() {
+        return root.getPreferredSize();
+    }
+
+    @Benchmark
+    public Vector3f reshape() {
+        LayoutFixtures.layout(root, size);
+        return root.getSize();
+    }
+}
@@ -0,0 +1,113 @@
+/* Copyright (c) 2009-2023 jMonkeyEngine.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package e.g.jme3hudl;
+
+import com.jme3.math.Vector3f;
+import com.jme3.scene.Node;
+import com.jme3.scene.Spatial;
+import com.simsilica.lemur.Container;
+import com.simsilica.lemur.core.AbstractGuiControlListener;
+import com.simsilica.lemur.core.GuiControl;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Instala un {@link LayoutHistogram} sobre árboles anidados de cada diseño,
+ * comprueba que el número de pasadas coincide con el que ve Lemur y vuelca
+ * el histograma.
+ * <p>
+ * Ejecutar con: <code>gradle metricsCheck</code>
+ * </p>
+ *
+ * @author wil
+ */
+public final class LayoutMetricsCheck {
+
+    private static final int PASSES = 50;
+
+    private LayoutMetricsCheck() {
+    }
+
+    /**
+     * Cuenta las llamadas a reshape de cada contenedor desde Lemur.
+     */
+    private static void listen(Spatial spatial, final Map<Spatial, int[]> counts) {
+        if (!(spatial instanceof Container)) {
+            return;
+        }
+        final int[] count = new int[1];
+        counts.put(spatial, count);
+        spatial.getControl(GuiControl.class).addListener(new AbstractGuiControlListener() {
+            @Override
+            public void reshape(GuiControl source, Vector3f pos, Vector3f size) {
+                count[0]++;
+            }
+        });
+        for (Spatial child : ((Node) spatial).getChildren()) {
+            listen(child, counts);
+        }
+    }
+
+    private static void check(String name, LayoutFixtures.LayoutFactory factory, LayoutHistogram histogram) {
+        Container root = LayoutFixtures.tree(500, 3, factory);
+        root.setName(name);
+        Map<Spatial, int[]> counts = new IdentityHashMap<>();
+        listen(root, counts);
+
+        Vector3f size = root.getPreferredSize().addLocal(50, 50, 0);
+        for (int i = 0; i < PASSES; i++) {
+            LayoutFixtures.layout(root, size);
+        }
+        for (Map.Entry<Spatial, int[]> e : counts.entrySet()) {
+            long reported = histogram.getCalls((Node) e.getKey(), LayoutMetrics.RESHAPE);
+            if (reported != e.getValue()[0]) {
+                throw new AssertionError(name + ": " + reported + " reshape passes reported, "
+                        + e.getValue()[0] + " seen by Lemur");
+            }
+        }
+    }
+
+    public static void main(String[] args) {
+        LayoutHistogram histogram = new LayoutHistogram();
+        LayoutMonitor.setMetrics(histogram);
+        try {
+            check("group", LayoutFixtures.groupLayout(true, false), histogram);
+            check("flow", LayoutFixtures.flowLayout(), histogram);
+            check("card", LayoutFixtures.cardLayout(), histogram);
+            check("control", LayoutFixtures.controlLayout(), histogram);
+        } finally {
+            LayoutMonitor.setMetrics(null);
+        }
+        histogram.dump(System.out, 12);
+    }
+}
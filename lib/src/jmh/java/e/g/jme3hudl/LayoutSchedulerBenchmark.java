@@ -0,0 +1,119 @@
+/* Copyright (c) 2009-2023 jMonkeyEngine.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package e.g.jme3hudl;
+
+import com.jme3.math.Vector3f;
+import com.jme3.scene.Node;
+import com.jme3.scene.Spatial;
+import com.simsilica.lemur.Container;
+import com.simsilica.lemur.core.GuiControl;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compara una pasada completa sobre un HUD con contenedores hermanos de
+ * distintos diseños hecha por Lemur en un solo hilo o con
+ * {@link LayoutScheduler} sobre el <code>ForkJoinPool</code> común.
+ * <p>
+ * Ejecutar con: <code>gradle jmh -PjmhInclude=LayoutSchedulerBenchmark</code>
+ * </p>
+ *
+ * @author wil
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LayoutSchedulerBenchmark {
+
+    @Param({"400", "4000"})
+    public int childCount;
+
+    @Param({"false", "true"})
+    public boolean scheduled;
+
+    private Container root;
+    private LayoutScheduler scheduler;
+    private final List<GroupLayout> layouts = new ArrayList<>();
+    private final Vector3f size = new Vector3f();
+
+    @Setup
+    public void setUp() {
+        root = LayoutFixtures.tree(childCount, 3, LayoutFixtures.hud());
+        scheduler = new LayoutScheduler(ForkJoinPool.commonPool());
+        collect(root);
+        size.set(root.getPreferredSize()).addLocal(50, 50, 0);
+        LayoutFixtures.layout(root, size);
+    }
+
+    private void collect(Spatial s) {
+        GuiControl gc = s.getControl(GuiControl.class);
+        if (gc != null && gc.getLayout() instanceof GroupLayout) {
+            layouts.add((GroupLayout) gc.getLayout());
+        }
+        if (s instanceof Node) {
+            for (Spatial child : ((Node) s).getChildren()) {
+                collect(child);
+            }
+        }
+    }
+
+    @Benchmark
+    public Vector3f layout() {
+        for (int i = 0; i < layouts.size(); i++) {
+            layouts.get(i).invalidate();
+        }
+        if (scheduled) {
+            scheduler.layout(root, size);
+        } else {
+            LayoutFixtures.layout(root, size);
+        }
+        return root.getSize();
+    }
+}
@@ -0,0 +1,107 @@
+/* Copyright (c) 2009-2023 jMonkeyEngine.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package e.g.jme3hudl;
+
+import com.jme3.scene.Node;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mide el coste de resolver los huecos de un formulario grande con el
+ * {@link LayoutStyle} por defecto, directamente o a través de
+ * {@link CachingLayoutStyle}.
+ * <p>
+ * Ejecutar con: <code>gradle jmh -PjmhInclude=LayoutStyleBenchmark</code>
+ * </p>
+ *
+ * @author wil
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LayoutStyleBenchmark {
+
+    /** Número de huecos resueltos en cada invocación. */
+    @Param({"300"})
+    public int gapCount;
+
+    @Param({"false", "true"})
+    public boolean cached;
+
+    private LayoutStyle style;
+    private Node[] components;
+    private final Node parent = new LayoutFixtures.BareContainer();
+
+    @Setup
+    public void setUp() {
+        style = cached ? new CachingLayoutStyle(LayoutStyle.getInstance()) : LayoutStyle.getInstance();
+        // Etiquetas y campos de distintas clases, como en un formulario.
+        components = new Node[gapCount + 1];
+        for (int i = 0; i < components.length; i++) {
+            components[i] = (i % 3 == 0) ? new LayoutFixtures.BareContainer() : LayoutFixtures.leaf(i);
+        }
+    }
+
+    @Benchmark
+    public int preferredGaps() {
+        int sum = 0;
+        for (int i = 0; i < gapCount; i++) {
+            sum += style.getPreferredGap(components[i], components[i + 1],
+                    LayoutStyle.ComponentPlacement.RELATED, Jme3HudlConstants.SOUTH, parent);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public int containerGaps() {
+        int sum = 0;
+        for (int i = 0; i < gapCount; i++) {
+            sum += style.getContainerGap(components[i], Jme3HudlConstants.WEST, parent);
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,140 @@
+/* Copyright (c) 2009-2023 jMonkeyEngine.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package e.g.jme3hudl;
+
+import com.jme3.math.Vector3f;
+import com.simsilica.lemur.Container;
+import com.simsilica.lemur.Panel;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mide el coste de diseñar un inventario con {@link FlowLayout} mientras se
+ * desplaza, con el modo virtual activado o no, el de localizar el hijo
+ * bajo el cursor con el índice de filas y el de los rediseños incrementales
+ * (añadir un hijo al final, cambiar el tamaño de uno intermedio).
+ * <p>
+ * Ejecutar con: <code>gradle jmh -PjmhInclude=VirtualFlowBenchmark</code>
+ * </p>
+ *
+ * @author wil
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class VirtualFlowBenchmark {
+
+    @Param({"1000", "10000"})
+    public int tileCount;
+
+    @Param({"false", "true"})
+    public boolean virtualized;
+
+    private final Vector3f size = new Vector3f(800, 600, 0);
+    private Container root;
+    private FlowLayout layout;
+    private float scroll;
+    private int probe;
+    private Panel appended, middle;
+    private final Vector3f narrow = new Vector3f(40, 20, 0);
+    private final Vector3f wide = new Vector3f(50, 20, 0);
+
+    @Setup
+    public void setUp() {
+        root = LayoutFixtures.tree(tileCount, 1, LayoutFixtures.flowLayout());
+        layout = LayoutFixtures.layoutOf(root);
+        if (virtualized) {
+            layout.setViewport(0, 0, size.x, size.y);
+        }
+        LayoutFixtures.layout(root, size);
+        appended = LayoutFixtures.leaf(tileCount);
+        middle = (Panel) root.getLayout().getChildren().toArray()[tileCount / 2];
+    }
+
+    @Benchmark
+    public float scroll() {
+        scroll += 37;
+        if (scroll > layout.getContentHeight() - size.y) {
+            scroll = 0;
+        }
+        if (virtualized) {
+            layout.setViewport(0, scroll, size.x, size.y);
+        }
+        LayoutFixtures.layout(root, size);
+        return layout.getContentHeight();
+    }
+
+    @Benchmark
+    public float append() {
+        // Añade un hijo al final y lo quita en la siguiente invocación.
+        if (appended.getParent() == null) {
+            root.addChild(appended);
+        } else {
+            root.removeChild(appended);
+        }
+        LayoutFixtures.layout(root, size);
+        return layout.getContentHeight();
+    }
+
+    @Benchmark
+    public float resize() {
+        middle.setPreferredSize(middle.getPreferredSize().x == narrow.x ? wide : narrow);
+        if (middle.getParent() == null) {
+            layout.invalidateComponent(middle);
+        }
+        LayoutFixtures.layout(root, size);
+        return layout.getContentHeight();
+    }
+
+    @Benchmark
+    public Object childAt() {
+        probe = probe * 1103515245 + 12345;
+        float x = (probe >>> 8) % (int) size.x;
+        float y = (probe >>> 4) % (int) layout.getContentHeight();
+        return layout.childAt(x, y);
+    }
+}
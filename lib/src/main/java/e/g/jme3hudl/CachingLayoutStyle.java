@@ -0,0 +1,182 @@
+/* Copyright (c) 2009-2023 jMonkeyEngine.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package e.g.jme3hudl;
+
+import com.jme3.scene.Node;
+import e.g.jme3hudl.LayoutStyle.ComponentPlacement;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Un <code>CachingLayoutStyle</code> decora otro {@link LayoutStyle} y
+ * memoriza sus respuestas.
+ * <p>
+ * Los huecos entre componentes se guardan por pareja de clases,
+ * {@link ComponentPlacement} y posición, y los huecos con el borde del
+ * contenedor por clase y posición; tras la primera consulta, cada hueco
+ * es una búsqueda en una tabla, sin volver a validar los argumentos. Por
+ * ello el estilo decorado solo debe depender de esos datos, y no del
+ * estado de cada componente ni del contenedor padre, como ocurre con
+ * {@link LayoutStyle#getInstance()}.
+ * </p>
+ * <p>
+ * Está pensado para estilos cuyas consultas son costosas, y se asigna con
+ * {@link GroupLayout#setLayoutStyle(LayoutStyle)}:
+ * </p>
+ * <pre><code>
+ * layout.setLayoutStyle(new CachingLayoutStyle(myStyle));
+ * </code></pre>
+ * <p>
+ * El estilo por defecto no lo necesita: responde con unas pocas
+ * comparaciones, más rápido que cualquier búsqueda en una tabla, y
+ * {@link GroupLayout} ya guarda el hueco resuelto de cada pareja de
+ * componentes entre pasadas. Es seguro usarlo desde varios hilos.
+ * </p>
+ * 
+ * @author wil
+ * @version 1.0-SNAPSHOT
+ * 
+ * @since 1.0.0
+ */
+public final class CachingLayoutStyle extends LayoutStyle {
+    
+    /** Número de posiciones: NORTH, EAST, SOUTH y WEST. */
+    private static final int POSITIONS = 4;
+    
+    /** Estilo decorado. */
+    private final LayoutStyle style;
+    
+    /*
+        Huecos memorizados. Cada tabla se indexa por placement y posición (o
+        solo por posición); null indica que aún no se ha consultado, de modo
+        que cualquier respuesta del estilo decorado, incluso -1, se memoriza.
+    */
+    private final Map<Class<?>, Map<Class<?>, Integer[]>> preferredGaps = new ConcurrentHashMap<>();
+    private final Map<Class<?>, Integer[]> containerGaps = new ConcurrentHashMap<>();
+    
+    /**
+     * Crea un decorador que memoriza las respuestas del estilo dado.
+     * @param style estilo a decorar.
+     */
+    public CachingLayoutStyle(LayoutStyle style) {
+        if (style == null) {
+            throw new IllegalArgumentException("LayoutStyle cannot be null");
+        }
+        this.style = style;
+    }
+    
+    /**
+     * Devuelve el estilo decorado.
+     * @return estilo.
+     */
+    public LayoutStyle getStyle() {
+        return style;
+    }
+    
+    /**
+     * Descarta todos los huecos memorizados, por ejemplo si cambiaron las
+     * reglas del estilo decorado. Los {@link GroupLayout} que lo usan
+     * guardan sus propios huecos resueltos, así que también deben volver a
+     * asignar el estilo con {@link GroupLayout#setLayoutStyle(LayoutStyle)}.
+     */
+    public void clear() {
+        preferredGaps.clear();
+        containerGaps.clear();
+    }
+
+    /**
+     * (non-JavaDoc)
+     * @see LayoutStyle#getPreferredGap(com.jme3.scene.Node, com.jme3.scene.Node, e.g.jme3hudl.LayoutStyle.ComponentPlacement, int, com.jme3.scene.Node) 
+     */
+    @Override
+    public int getPreferredGap(Node component1, Node component2, ComponentPlacement type, 
+                                int position, Node parent) {
+        int index = positionIndex(position);
+        if (component1 == null || component2 == null || type == null || index < 0) {
+            // El estilo decorado se encarga de rechazar los argumentos.
+            return style.getPreferredGap(component1, component2, type, position, parent);
+        }
+        Map<Class<?>, Integer[]> targets = preferredGaps.get(component1.getClass());
+        if (targets == null) {
+            targets = preferredGaps.computeIfAbsent(component1.getClass(), k -> new ConcurrentHashMap<>());
+        }
+        Integer[] gaps = targets.get(component2.getClass());
+        if (gaps == null) {
+            gaps = targets.computeIfAbsent(component2.getClass(), 
+                    k -> new Integer[ComponentPlacement.values().length * POSITIONS]);
+        }
+        int slot = type.ordinal() * POSITIONS + index;
+        Integer gap = gaps[slot];
+        if (gap == null) {
+            gap = style.getPreferredGap(component1, component2, type, position, parent);
+            gaps[slot] = gap;
+        }
+        return gap;
+    }
+
+    /**
+     * (non-JavaDoc)
+     * @see LayoutStyle#getContainerGap(com.jme3.scene.Node, int, com.jme3.scene.Node) 
+     */
+    @Override
+    public int getContainerGap(Node component, int position, Node parent) {
+        int index = positionIndex(position);
+        if (component == null || index < 0) {
+            return style.getContainerGap(component, position, parent);
+        }
+        Integer[] gaps = containerGaps.get(component.getClass());
+        if (gaps == null) {
+            gaps = containerGaps.computeIfAbsent(component.getClass(), k -> new Integer[POSITIONS]);
+        }
+        Integer gap = gaps[index];
+        if (gap == null) {
+            gap = style.getContainerGap(component, position, parent);
+            gaps[index] = gap;
+        }
+        return gap;
+    }
+    
+    /*
+     * Convierte NORTH, EAST, SOUTH y WEST en un índice de 0 a 3, o -1 si la
+     * posición no es válida.
+     */
+    private static int positionIndex(int position) {
+        switch (position) {
+            case Jme3HudlConstants.NORTH: return 0;
+            case Jme3HudlConstants.EAST:  return 1;
+            case Jme3HudlConstants.SOUTH: return 2;
+            case Jme3HudlConstants.WEST:  return 3;
+            default: return -1;
+        }
+    }
+}
@@ -33,16 +33,27 @@ package e.g.jme3hudl;
 
 import com.jme3.math.Vector3f;
 import com.jme3.scene.Node;
+import com.jme3.scene.Spatial;
 import com.simsilica.lemur.Insets3f;
 import com.simsilica.lemur.Panel;
+import com.simsilica.lemur.component.ColoredComponent;
 import com.simsilica.lemur.component.AbstractGuiComponent;
+import com.simsilica.lemur.core.GuiComponent;
 import com.simsilica.lemur.core.GuiControl;
 import com.simsilica.lemur.core.GuiLayout;
+import com.simsilica.lemur.core.GuiUpdateListener;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+import java.util.logging.Level;
 import java.util.logging.Logger;
 
 /**
@@ -69,13 +80,34 @@ import java.util.logging.Logger;
  * asociar un identificador de cadena con una tarjeta determinada para acceso 
  * aleatorio rápido.
  * </p>
+ * <p>
+ * Las tarjetas pesadas se pueden registrar con {@link #addLayoutSupplier}: el
+ * componente se construye la primera vez que se muestra y, si se supera el
+ * presupuesto de {@link #setCardBudget(int)}, se descartan las tarjetas
+ * mostradas hace más tiempo, que se vuelven a construir cuando hagan falta.
+ * Solo se diseña la tarjeta visible; las ocultas aportan al tamaño preferido
+ * el que tenían la última vez que se midieron.
+ * </p>
+ * <p>
+ * Con {@link #setPreloadExecutors(Executor, Executor)} estas tarjetas se
+ * pueden construir de antemano en un hilo de trabajo ({@link #preload},
+ * {@link #preloadNext()}, {@link #preloadPrevious()}); el componente se
+ * entrega al hilo de renderizado, que es el único que lo adjunta.
+ * </p>
+ * <p>
+ * Los cambios de tarjeta se pueden animar con 
+ * {@link #setTransition(Transition, float)}. La animación se actualiza en
+ * cada fotograma moviendo y atenuando las dos tarjetas, sin volver a diseñar
+ * el contenedor, y se da por terminada si un fotograma supera el 
+ * presupuesto de {@link #setTransitionBudget(float)}.
+ * </p>
  * 
  * @author wil
  * @version 1.0-SNAPSHOT
  * 
  * @since 1.0.0
  */
-public class CardLayout extends AbstractGuiComponent implements GuiLayout {
+public class CardLayout extends AbstractGuiComponent implements TwoPhaseLayout {
 
     /** Logger de la clase {@link CardLayout}. */
     private static final Logger LOG = Logger.getLogger(CardLayout.class.getName());
@@ -86,18 +118,140 @@ public class CardLayout extends AbstractGuiComponent implements GuiLayout {
      */
     private final List<Card> cs = new ArrayList<>();
     
+    /** Tarjetas por nombre. */
+    private final Map<String, Card> names = new HashMap<>();
+    
+    /** Tarjetas por componente construido. */
+    private final Map<Node, Card> nodes = new IdentityHashMap<>();
+    
+    /** Tarjeta adjunta al contenedor, o {@code null}. */
+    private Card shown;
+    
     /**
      * Un par de Componente y Cadena que representa su nombre.
      */
     class Card {
         public String name;
+        
+        /** Componente, o {@code null} si aún no se ha construido. */
         public Node comp;
+        
+        /** Constructor del componente, o {@code null} si no se puede descartar. */
+        Supplier<? extends Node> supplier;
+        
+        /** Tamaños (min/pref/max) de la tarjeta, leídos una vez por pasada. */
+        SizeHints hints;
+        
+        /** Último tamaño preferido medido. */
+        final Vector3f preferredSize = new Vector3f();
+        boolean measured;
+        
+        /** Orden en que se mostró por última vez. */
+        long lastShown;
+        
+        /** Posición de la tarjeta en el diseño. */
+        int index;
+        
+        /** Precarga en curso, o {@code null}; se descarta si cambia. */
+        Object preload;
+        
+        /** Si el componente se precargó y aún no se ha mostrado. */
+        boolean preloaded;
+        
         public Card(String cardName, Node cardComponent) {
             name = cardName;
             comp = cardComponent;
+            hints = new SizeHints(cardComponent);
+        }
+        
+        Card(String cardName, Supplier<? extends Node> cardSupplier) {
+            name = cardName;
+            supplier = cardSupplier;
         }
+        
+        /**
+         * Determina si el componente de la tarjeta está adjunto.
+         * @return boolean
+         */
+        boolean isShowing() {
+            return this == shown && comp != null && comp.getParent() != null;
+        }
+    }
+    
+    /**
+     * Transiciones entre tarjetas.
+     */
+    public static enum Transition {
+        /** Cambio inmediato. */
+        NONE,
+        /** La nueva tarjeta empuja a la anterior en horizontal. */
+        SLIDE,
+        /** La tarjeta anterior se desvanece y luego aparece la nueva. */
+        FADE,
+        /** Ambas tarjetas se funden a la vez. */
+        CROSS_DISSOLVE;
     }
     
+    /** Vector reutilizado para asignar el tamaño de cada tarjeta. */
+    private final Vector3f cardSize = new Vector3f();
+    
+    /** Esquina de las tarjetas y ancho del área, calculados en reshape. */
+    private final Vector3f cardOrigin = new Vector3f();
+    private float cardWidth;
+    
+    /**
+     * Esquina de las tarjetas y ancho del área de la última llamada a
+     * {@link #compute}; solo {@link #reshape} los pasa a {@link #cardOrigin}
+     * y {@link #cardWidth}.
+     */
+    private final Vector3f passOrigin = new Vector3f();
+    private float passWidth;
+    
+    /** Límites calculados en reshape, antes de aplicarlos. */
+    private final LayoutResult result = new LayoutResult();
+    
+    /** Transición de los cambios de tarjeta. */
+    private Transition transition = Transition.NONE;
+    
+    /** Duración de las transiciones, en segundos. */
+    private float transitionTime = 0.25F;
+    
+    /** Tiempo máximo por fotograma de una transición, en segundos. */
+    private float transitionBudget = 0.004F;
+    
+    /** Tarjeta que sale durante una transición, o {@code null}. */
+    private Card leaving;
+    private float elapsed;
+    private float direction;
+    
+    /**
+     * Componentes con color de las dos tarjetas y su opacidad original, 
+     * reunidos al empezar un fundido: <code>[0, fadingIn)</code> son de la 
+     * tarjeta que sale y <code>[fadingIn, fadingCount)</code> de la que entra.
+     */
+    private ColoredComponent[] fading = new ColoredComponent[16];
+    private float[] fadingAlpha = new float[16];
+    private int fadingIn;
+    private int fadingCount;
+    
+    /** Avanza la transición en cada fotograma del contenedor. */
+    private final GuiUpdateListener animator = (GuiControl source, float tpf) -> step(tpf);
+    
+    /** Número máximo de tarjetas construidas con un {@link Supplier}. */
+    private int cardBudget = Integer.MAX_VALUE;
+    
+    /** Contador de tarjetas mostradas, para descartar las más antiguas. */
+    private long showCount;
+    
+    /** Número de tarjetas construidas con un {@link Supplier}. */
+    private int resident;
+    
+    /** Hilo de trabajo para precargar tarjetas, o {@code null}. */
+    private Executor preloadWorker;
+    
+    /** Cola del hilo de renderizado, p. ej. <code>app::enqueue</code>. */
+    private Executor renderThread;
+    
     /**
      * Índice del componente actualmente mostrado por {@link CardLayout}.
      */
@@ -145,6 +299,13 @@ public class CardLayout extends AbstractGuiComponent implements GuiLayout {
      */
     @Override
     public void calculatePreferredSize(Vector3f size) {       
+        LayoutMetrics metrics = LayoutMonitor.getMetrics();
+        long startTime = 0, bytes = 0;
+        if (metrics != null) {
+            bytes = LayoutMonitor.allocatedBytes();
+            startTime = System.nanoTime();
+        }
+        
         Insets3f insets = ((Panel) getNode()).getInsets();
         if (insets == null) {
             insets = new Insets3f(new Vector3f(), new Vector3f());
@@ -153,15 +314,24 @@ public class CardLayout extends AbstractGuiComponent implements GuiLayout {
         float w = 0,
               h = 0, 
               z = 0;
+        int measured = 0;
 
         for (Card c : cs) {
-            Panel comp = (Panel) c.comp;
-            Vector3f d = comp.getPreferredSize();
+            // Solo se mide la tarjeta visible y las que nunca se midieron.
+            if (c.comp != null && (!c.measured || c == shown)) {
+                c.preferredSize.set(c.hints.update().getPreferredSize());
+                c.measured = true;
+                measured++;
+            }
+            if (!c.measured) {
+                continue;
+            }
+            Vector3f d = c.preferredSize;
             if (d.x > w) {
                 w = d.x;
             }
             if (d.y > h) {
-                h = d.z;
+                h = d.y;
             }
             if (d.z > z) {
                 z = d.z;
@@ -170,6 +340,21 @@ public class CardLayout extends AbstractGuiComponent implements GuiLayout {
         size.set(insets.min.x + insets.max.x + w + gap.x*2,
                  insets.min.y + insets.max.y + h + gap.y*2, 
                  insets.min.z + insets.max.z + z + gap.z*2);
+        
+        if (metrics != null) {
+            metrics.layoutPass(getNode(), this, LayoutMetrics.PREFERRED_SIZE,
+                    System.nanoTime() - startTime, LayoutMonitor.allocatedSince(bytes),
+                    cs.size(), 0, cs.size() - measured, measured);
+        }
+    }
+
+    /**
+     * (non-JavaDoc)
+     * @see LayoutBatch
+     */
+    @Override
+    protected void invalidate() {
+        LayoutBatch.invalidate(getGuiControl());
     }
 
     /**
@@ -180,31 +365,284 @@ public class CardLayout extends AbstractGuiComponent implements GuiLayout {
      */
     @Override
     public void reshape(Vector3f pos, Vector3f size) {
+        LayoutMetrics metrics = LayoutMonitor.getMetrics();
+        long startTime = 0, bytes = 0;
+        if (metrics != null) {
+            bytes = LayoutMonitor.allocatedBytes();
+            startTime = System.nanoTime();
+        }
+        
+        int ncomponents = cs.size();
+        if ((shown == null || !shown.isShowing()) && ncomponents > 0) {
+            if (currentCard < 0 || currentCard >= ncomponents) {
+                currentCard = 0;
+            }
+            Card c = cs.get(currentCard);
+            getNode().attachChild(component(c));
+            shown = c;
+        }
+        
+        try {
+            compute(size, result);
+            cardOrigin.set(passOrigin);
+            cardWidth = passWidth;
+            result.commit();
+        } finally {
+            result.clear();
+        }
+        if (leaving != null && transition != Transition.SLIDE) {
+            // El deslizamiento ya está en el resultado; el fundido no.
+            pose(elapsed / transitionTime);
+        }
+        
+        // Los límites de las tarjetas se reutilizan de calculatePreferredSize.
+        if (metrics != null) {
+            metrics.layoutPass(getNode(), this, LayoutMetrics.RESHAPE,
+                    System.nanoTime() - startTime, LayoutMonitor.allocatedSince(bytes),
+                    ncomponents, 0, ncomponents, 0);
+        }
+    }
+
+    /**
+     * (non-JavaDoc)
+     * <p>
+     * Solo se añaden la tarjeta visible y la que sale durante una
+     * transición. Si la tarjeta actual aún no está adjunta, se añade la que
+     * adjuntaría {@link #reshape}, salvo que sea perezosa y no se haya
+     * construido todavía: solo se construye al mostrarla.
+     * </p>
+     * @param size tamaño del contenedor, el que recibe <code>reshape</code>.
+     * @param store resultado donde se añaden los límites.
+     * @see TwoPhaseLayout#compute(com.jme3.math.Vector3f, e.g.jme3hudl.LayoutResult) 
+     */
+    @Override
+    public void compute(Vector3f size, LayoutResult store) {
         Insets3f insets = ((Panel) getNode()).getInsets();
         if (insets == null) {
             insets = new Insets3f(new Vector3f(), new Vector3f());
         }
         
-        int ncomponents = cs.size();        
-        boolean currentFound = false;
+        passOrigin.set(gap.x + insets.min.x, -(gap.y + insets.min.y), gap.z + insets.min.z);
+        passWidth = size.x - (gap.x * 2 + insets.min.x + insets.max.x);
         
-        Panel comp;
-        for (Card c : cs) {
-            comp = (Panel) c.comp;
-            
-            comp.setLocalTranslation(gap.x + insets.min.x, -(gap.y + insets.min.y), gap.z + insets.min.z);
-            comp.setSize(new Vector3f(size.x - (gap.x * 2 + insets.min.x + insets.max.x),
-                                      size.y - (gap.y * 2 + insets.min.y + insets.max.y),
-                                      size.z - (gap.z * 2 + insets.min.z + insets.max.z)));
-            if (comp.getParent() != null) {
-                currentFound = true;
+        Card c = shown;
+        if (c == null || !c.isShowing()) {
+            int ncomponents = cs.size();
+            if (ncomponents == 0) {
+                return;
+            }
+            c = cs.get((currentCard < 0 || currentCard >= ncomponents) ? 0 : currentCard);
+            if (c.comp == null) {
+                return;
             }
         }
-        
-        if (!currentFound && ncomponents > 0) {
-            comp = (Panel) (cs.get(0)).comp;
-            getNode().attachChild(comp);
+        int in = place(c, insets, size, store);
+        if (leaving != null) {
+            int out = place(leaving, insets, size, store);
+            if (transition == Transition.SLIDE) {
+                float e = ease(elapsed / transitionTime);
+                store.setTranslation(in, slideX(e, true, passOrigin, passWidth), passOrigin.y, passOrigin.z);
+                store.setTranslation(out, slideX(e, false, passOrigin, passWidth), passOrigin.y, passOrigin.z);
+            }
+        }
+    }
+
+    /**
+     * Añade la posición y el tamaño de una tarjeta: ocupa todo el espacio
+     * disponible, salvo que declare sus propios límites; éstos se leyeron 
+     * en la última llamada a calculatePreferredSize.
+     * 
+     * @param c tarjeta.
+     * @param insets márgenes del contenedor.
+     * @param size tamaño del contenedor.
+     * @param store resultado donde se añaden los límites.
+     * @return índice de la tarjeta en el resultado.
+     */
+    private int place(Card c, Insets3f insets, Vector3f size, LayoutResult store) {
+        if (!c.measured) {
+            c.preferredSize.set(c.hints.update().getPreferredSize());
+            c.measured = true;
+        }
+        Vector3f d = cardSize.set(size.x - (gap.x * 2 + insets.min.x + insets.max.x),
+                                  size.y - (gap.y * 2 + insets.min.y + insets.max.y),
+                                  size.z - (gap.z * 2 + insets.min.z + insets.max.z));
+        if (c.hints.hasMaximumSize()) {
+            d.minLocal(c.hints.getMaximumSize());
+        }
+        if (c.hints.hasMinimumSize()) {
+            d.maxLocal(c.hints.getMinimumSize());
+        }
+
+        return store.add(c.hints.getControl(), passOrigin.x, passOrigin.y, passOrigin.z, d.x, d.y, d.z);
+    }
+    
+    /**
+     * Establece la transición de los cambios de tarjeta.
+     * 
+     * @param transition tipo de transición.
+     * @param seconds duración en segundos (no negativa).
+     */
+    public void setTransition(Transition transition, float seconds) {
+        if (transition == null || seconds < 0) {
+            throw new IllegalArgumentException("Invalid transition: " + transition + ", " + seconds);
+        }
+        finishTransition();
+        this.transition = transition;
+        this.transitionTime = seconds;
+    }
+
+    /**
+     * Devuelve la transición de los cambios de tarjeta.
+     * @return tipo de transición.
+     */
+    public Transition getTransition() {
+        return transition;
+    }
+
+    /**
+     * Establece el tiempo máximo que puede ocupar una transición en un 
+     * fotograma. Si se supera, la transición termina de inmediato.
+     * 
+     * @param seconds tiempo en segundos (mayor que cero).
+     */
+    public void setTransitionBudget(float seconds) {
+        if (!(seconds > 0)) {
+            throw new IllegalArgumentException("Invalid transition budget: " + seconds);
+        }
+        this.transitionBudget = seconds;
+    }
+
+    /**
+     * Determina si hay una transición en curso.
+     * @return boolean
+     */
+    public boolean isTransitioning() {
+        return leaving != null;
+    }
+    
+    /**
+     * Avanza la transición en curso.
+     * @param tpf duración del fotograma.
+     */
+    private void step(float tpf) {
+        if (leaving == null) {
+            return;
+        }
+        long startTime = System.nanoTime();
+        elapsed += tpf;
+        if (elapsed >= transitionTime) {
+            finishTransition();
+            return;
+        }
+        pose(elapsed / transitionTime);
+        if (System.nanoTime() - startTime > transitionBudget * 1e9F) {
+            finishTransition();
+        }
+    }
+    
+    /**
+     * Coloca las dos tarjetas de la transición en curso.
+     * @param t progreso de la transición, entre 0 y 1.
+     */
+    private void pose(float t) {
+        float e = ease(t);
+        switch (transition) {
+            case SLIDE:
+                shown.comp.setLocalTranslation(slideX(e, true, cardOrigin, cardWidth), cardOrigin.y, cardOrigin.z);
+                leaving.comp.setLocalTranslation(slideX(e, false, cardOrigin, cardWidth), cardOrigin.y, cardOrigin.z);
+                break;
+            case FADE:
+                fade(Math.max(0, 1 - 2 * e), Math.max(0, 2 * e - 1));
+                break;
+            case CROSS_DISSOLVE:
+                fade(1 - e, e);
+                break;
+            default:
+                break;
+        }
+    }
+    
+    /**
+     * Suaviza el progreso de una transición.
+     * @param t progreso, entre 0 y 1.
+     * @return progreso suavizado.
+     */
+    private static float ease(float t) {
+        return t * t * (3 - 2 * t);
+    }
+    
+    /**
+     * Devuelve la posición x de una tarjeta durante un deslizamiento.
+     * @param e progreso suavizado.
+     * @param in <code>true</code> para la tarjeta que entra.
+     * @param origin esquina de las tarjetas.
+     * @param width ancho del área de las tarjetas.
+     * @return posición x.
+     */
+    private float slideX(float e, boolean in, Vector3f origin, float width) {
+        return in ? origin.x + direction * width * (1 - e)
+                  : origin.x - direction * width * e;
+    }
+    
+    /**
+     * Aplica la opacidad de un fundido sin recorrer la escena.
+     * 
+     * @param out factor de la tarjeta que sale.
+     * @param in factor de la tarjeta que entra.
+     */
+    private void fade(float out, float in) {
+        for (int i = 0; i < fadingCount; i++) {
+            fading[i].setAlpha(fadingAlpha[i] * (i < fadingIn ? out : in));
+        }
+    }
+    
+    /**
+     * Reúne los componentes con color de una tarjeta.
+     * @param s nodo de la tarjeta.
+     */
+    private void collectColors(Spatial s) {
+        GuiControl control = s.getControl(GuiControl.class);
+        if (control != null) {
+            List<GuiComponent> components = control.getComponents();
+            for (int i = 0; i < components.size(); i++) {
+                GuiComponent c = components.get(i);
+                if (c instanceof ColoredComponent) {
+                    if (fadingCount == fading.length) {
+                        fading = Arrays.copyOf(fading, fadingCount * 2);
+                        fadingAlpha = Arrays.copyOf(fadingAlpha, fadingCount * 2);
+                    }
+                    fading[fadingCount] = (ColoredComponent) c;
+                    fadingAlpha[fadingCount++] = ((ColoredComponent) c).getAlpha();
+                }
+            }
+        }
+        if (s instanceof Node) {
+            Node n = (Node) s;
+            for (int i = 0; i < n.getQuantity(); i++) {
+                collectColors(n.getChild(i));
+            }
+        }
+    }
+    
+    /**
+     * Termina la transición en curso: quita la tarjeta que sale y deja la 
+     * nueva en su posición y opacidad finales.
+     */
+    private void finishTransition() {
+        if (leaving == null) {
+            return;
+        }
+        Node out = leaving.comp;
+        fade(1, 1);
+        Arrays.fill(fading, 0, fadingCount, null);
+        fadingCount = 0;
+        if (shown != null && shown.isShowing()) {
+            shown.comp.setLocalTranslation(cardOrigin);
         }
+        leaving = null;
+        flag = true;
+        out.removeFromParent();
+        flag = false;
     }
 
     /**
@@ -236,22 +674,299 @@ public class CardLayout extends AbstractGuiComponent implements GuiLayout {
      * @param name nombre clave(unico).
      */
     public <T extends Node> void addLayoutComponent(T comp, String name) {
-        if (cs.isEmpty() && isAttached()) {
+        finishTransition();
+        Card c = names.get(name);
+        if (c != null) {
+            if (c.isShowing()) {
+                c.comp.removeFromParent();
+                shown = null;
+            }
+            release(c);
+            c.comp = comp;
+            c.measured = false;
+            if (c.hints == null) {
+                c.hints = new SizeHints(comp);
+            } else {
+                c.hints.setComponent(comp);
+            }
+            nodes.put(comp, c);
+            return;
+        }
+        c = new Card(name, comp);
+        add(c);
+        nodes.put(comp, c);
+        if (cs.size() == 1 && isAttached()) {
             getNode().attachChild(comp);
+            shown = c;
         }
-        for (Card c : cs) {
-            if (c.name.equals(name)) {
-                if (c.comp.getParent() != null) {
-                    c.comp.removeFromParent();
-                }
-                c.comp = comp;
-                return;
+        invalidate();
+    }
+    
+    /**
+     * Registra una nueva tarjeta al final del diseño.
+     * @param card tarjeta.
+     */
+    private void add(Card card) {
+        card.index = cs.size();
+        cs.add(card);
+        names.put(card.name, card);
+    }
+    
+    /**
+     * Olvida el componente construido de una tarjeta.
+     * @param card tarjeta.
+     */
+    private void release(Card card) {
+        if (card.comp != null) {
+            nodes.remove(card.comp);
+            if (card.supplier != null) {
+                resident--;
+            }
+        }
+        card.comp = null;
+        card.hints = null;
+        card.supplier = null;
+        card.preload = null;
+        card.preloaded = false;
+    }
+    
+    /**
+     * Agrega una tarjeta cuyo componente se construye la primera vez que se
+     * muestra. Si se supera el presupuesto de {@link #setCardBudget(int)},
+     * el componente se puede descartar y volver a construir más tarde, por 
+     * lo que el {@link Supplier} debe poder llamarse varias veces.
+     * 
+     * @param supplier constructor del componente.
+     * @param name nombre clave(unico).
+     */
+    public void addLayoutSupplier(Supplier<? extends Node> supplier, String name) {
+        if (supplier == null) {
+            throw new IllegalArgumentException("Invalid card supplier.");
+        }
+        finishTransition();
+        Card card = names.get(name);
+        if (card != null) {
+            if (card.isShowing()) {
+                card.comp.removeFromParent();
+                shown = null;
             }
+            release(card);
+            card.supplier = supplier;
+            card.measured = false;
+            return;
+        }
+        card = new Card(name, supplier);
+        add(card);
+        if (cs.size() == 1 && isAttached()) {
+            getNode().attachChild(component(card));
+            shown = card;
         }
-        cs.add(new Card(name, comp));
         invalidate();
     }
     
+    /**
+     * Construye, si es necesario, el componente de una tarjeta y la marca
+     * como la mostrada más recientemente.
+     * 
+     * @param card tarjeta.
+     * @return componente.
+     */
+    private Node component(Card card) {
+        LayoutMetrics metrics = LayoutMonitor.getMetrics();
+        if (card.comp == null) {
+            long startTime = System.nanoTime();
+            Node comp = card.supplier.get();
+            if (comp == null || comp.getControl(GuiControl.class) == null) {
+                throw new IllegalStateException("Card '" + card.name + "' is not a GUI element.");
+            }
+            install(card, comp);
+            if (metrics != null) {
+                metrics.cardShown(getNode(), this, false, System.nanoTime() - startTime);
+            }
+        } else if (card.preloaded) {
+            card.preloaded = false;
+            if (metrics != null) {
+                metrics.cardShown(getNode(), this, true, 0);
+            }
+        }
+        card.lastShown = ++showCount;
+        evict();
+        return card.comp;
+    }
+    
+    /**
+     * Asigna el componente construido de una tarjeta.
+     * 
+     * @param card tarjeta.
+     * @param comp componente.
+     */
+    private void install(Card card, Node comp) {
+        card.comp = comp;
+        card.hints = new SizeHints(comp);
+        card.measured = false;
+        card.preload = null;
+        nodes.put(comp, card);
+        resident++;
+    }
+    
+    /**
+     * Establece los hilos con los que se precargan las tarjetas construidas
+     * con un {@link Supplier}: el constructor se ejecuta en 
+     * <code>worker</code> y el componente se entrega mediante
+     * <code>renderThread</code>, p. ej. <code>app::enqueue</code>.
+     * <p>
+     * El {@link Supplier} no debe modificar la escena, ya que se ejecuta 
+     * fuera del hilo de renderizado.
+     * </p>
+     * 
+     * @param worker hilo de trabajo, o {@code null} para desactivar la precarga.
+     * @param renderThread cola del hilo de renderizado.
+     */
+    public void setPreloadExecutors(Executor worker, Executor renderThread) {
+        if (worker != null && renderThread == null) {
+            throw new IllegalArgumentException("Invalid render thread executor.");
+        }
+        this.preloadWorker = worker;
+        this.renderThread = renderThread;
+    }
+    
+    /**
+     * Precarga una tarjeta, si se construye con un {@link Supplier} y aún
+     * no está en memoria. Si se muestra antes de que termine, se construye
+     * en el hilo de renderizado y el resultado de la precarga se descarta.
+     * 
+     * @param name nombre clave de la tarjeta.
+     * @see #setPreloadExecutors(Executor, Executor) 
+     */
+    public void preload(String name) {
+        Card card = names.get(name);
+        if (card == null || preloadWorker == null || card.supplier == null
+                || card.comp != null || card.preload != null) {
+            return;
+        }
+        final Object token = new Object();
+        final Supplier<? extends Node> supplier = card.supplier;
+        final Executor target = renderThread;
+        card.preload = token;
+        preloadWorker.execute(() -> {
+            Node comp = null;
+            RuntimeException error = null;
+            try {
+                comp = supplier.get();
+            } catch (RuntimeException e) {
+                error = e;
+            }
+            final Node result = comp;
+            final RuntimeException failure = error;
+            target.execute(() -> preloaded(card, token, result, failure));
+        });
+    }
+    
+    /**
+     * Recibe, en el hilo de renderizado, el resultado de una precarga.
+     */
+    private void preloaded(Card card, Object token, Node comp, RuntimeException error) {
+        if (card.preload != token || names.get(card.name) != card) {
+            return;
+        }
+        card.preload = null;
+        if (error != null) {
+            String msg = "Card '" + card.name + "' could not be preloaded: the supplier failed.";
+            LOG.log(Level.WARNING, msg, error);
+            return;
+        }
+        if (comp == null || comp.getControl(GuiControl.class) == null) {
+            LOG.log(Level.WARNING, "Card ''{0}'' could not be preloaded: the supplier did not return a GUI element.", card.name);
+            return;
+        }
+        if (card.comp == null) {
+            install(card, comp);
+            card.preloaded = true;
+            card.lastShown = ++showCount;
+            evict();
+        }
+    }
+    
+    /**
+     * Precarga la tarjeta que mostraría {@link #next()}.
+     */
+    public void preloadNext() {
+        if (!cs.isEmpty()) {
+            int i = (shown != null) ? shown.index + 1 : 0;
+            preload(cs.get(i % cs.size()).name);
+        }
+    }
+    
+    /**
+     * Precarga la tarjeta que mostraría {@link #previous()}.
+     */
+    public void preloadPrevious() {
+        if (!cs.isEmpty()) {
+            int i = (shown != null && shown.index > 0) ? shown.index - 1 : cs.size() - 1;
+            preload(cs.get(i).name);
+        }
+    }
+    
+    /**
+     * Descarta los componentes de las tarjetas construidas con un
+     * {@link Supplier} mostradas hace más tiempo, hasta respetar el
+     * presupuesto. La tarjeta visible nunca se descarta.
+     */
+    private void evict() {
+        while (resident > cardBudget) {
+            Card lru = null;
+            for (Card c : cs) {
+                if (c.supplier != null && c.comp != null && c.comp.getParent() == null
+                        && c.lastShown != showCount
+                        && (lru == null || c.lastShown < lru.lastShown)) {
+                    lru = c;
+                }
+            }
+            if (lru == null) {
+                break;
+            }
+            nodes.remove(lru.comp);
+            lru.comp = null;
+            lru.hints = null;
+            lru.preloaded = false;
+            resident--;
+        }
+    }
+    
+    /**
+     * Establece el número máximo de tarjetas construidas con un 
+     * {@link Supplier} que se mantienen en memoria.
+     * 
+     * @param budget número de tarjetas (mayor que cero).
+     */
+    public void setCardBudget(int budget) {
+        if (budget < 1) {
+            throw new IllegalArgumentException("Card budget must be positive.");
+        }
+        this.cardBudget = budget;
+        evict();
+    }
+
+    /**
+     * Devuelve el número máximo de tarjetas construidas con un
+     * {@link Supplier} que se mantienen en memoria.
+     * @return presupuesto.
+     */
+    public int getCardBudget() {
+        return cardBudget;
+    }
+    
+    /**
+     * Determina si el componente de una tarjeta está construido.
+     * 
+     * @param name nombre clave de la tarjeta.
+     * @return {@code true} si está en memoria.
+     */
+    public boolean isCardLoaded(String name) {
+        Card c = names.get(name);
+        return c != null && c.comp != null;
+    }
+    
     /**
      * (non-JavaDoc)
      * @param comp nodo
@@ -259,21 +974,69 @@ public class CardLayout extends AbstractGuiComponent implements GuiLayout {
      */
     @Override
     public void removeChild(Node comp) {
-        for (int i = 0; i < cs.size(); i++) {
-            if ((cs.get(i)).comp == comp) {
-                // si eliminamos el componente actual, deberíamos mostrar el siguiente
-                if ((comp.getParent() != null) && comp.removeFromParent()) {
-                    next();
-                }
-                
-                cs.remove(i);
-                
+        finishTransition();
+        Card card = comp == null ? null : nodes.get(comp);
+        if (card != null) {
+            int i = card.index;
+            boolean showing = card.isShowing();
+            if (showing) {
+                flag = true;
+                comp.removeFromParent();
+                flag = false;
+                shown = null;
+            }
+            if (card.supplier != null) {
+                resident--;
+            }
+            nodes.remove(comp);
+            names.remove(card.name);
+            cs.remove(i);
+            for (int j = i; j < cs.size(); j++) {
+                cs.get(j).index = j;
+            }
+            
+            // si eliminamos el componente actual, deberíamos mostrar el siguiente
+            if (showing && !cs.isEmpty()) {
+                showCard(i % cs.size());
+            } else if (currentCard > i) {
                 // tarjeta actual correcta si es necesario
-                if (currentCard > i) {
-                    currentCard--;
-                }
-                break;
+                currentCard--;
+            }
+        }
+        invalidate();
+    }
+    
+    /**
+     * Cambia la tarjeta adjunta al contenedor.
+     * @param index índice de la nueva tarjeta.
+     */
+    private void showCard(int index) {
+        Card next = cs.get(index);
+        currentCard = index;
+        if (next.isShowing()) {
+            return;
+        }
+        finishTransition();
+        if (shown != null && shown.isShowing()) {
+            if (transition != Transition.NONE && transitionTime > 0 && isAttached()) {
+                leaving = shown;
+            } else {
+                flag = true;
+                shown.comp.removeFromParent();
+                flag = false;
+            }
+        }
+        getNode().attachChild(component(next));
+        shown = next;
+        if (leaving != null) {
+            elapsed = 0;
+            direction = (next.index > leaving.index) ? 1 : -1;
+            if (transition != Transition.SLIDE) {
+                collectColors(leaving.comp);
+                fadingIn = fadingCount;
+                collectColors(next.comp);
             }
+            pose(0);
         }
         invalidate();
     }
@@ -286,20 +1049,11 @@ public class CardLayout extends AbstractGuiComponent implements GuiLayout {
      * @see CardLayout#previous() 
      */
     public void next() {
-        for (int i = 0; i < cs.size(); i++) {
-            Node comp = (cs.get(i)).comp;
-            if (comp.getParent() != null) {
-                flag = true;
-                comp.removeFromParent();
-                currentCard = (i + 1) % cs.size();
-                comp = (cs.get(currentCard)).comp;
-                getNode().attachChild(comp);
-                invalidate();
-                flag = false;
-                return;
-            }
+        if (shown != null && shown.isShowing()) {
+            showCard((shown.index + 1) % cs.size());
+        } else {
+            showDefaultComponent();
         }
-        showDefaultComponent();
     }
     
     /**
@@ -310,20 +1064,12 @@ public class CardLayout extends AbstractGuiComponent implements GuiLayout {
      * @see CardLayout#next() 
      */
     public void previous() {
-        for (int i = 0; i < cs.size(); i++) {
-            Node comp = (cs.get(i)).comp;
-            if (comp.getParent() != null) {
-                flag = true;
-                comp.removeFromParent();
-                currentCard = ((i > 0) ? i-1 : cs.size()-1);
-                comp = (cs.get(currentCard)).comp;
-                getNode().attachChild(comp);
-                invalidate();
-                flag = false;
-                return;
-            }
+        if (shown != null && shown.isShowing()) {
+            int i = shown.index;
+            showCard((i > 0) ? i-1 : cs.size()-1);
+        } else {
+            showDefaultComponent();
         }
-        showDefaultComponent();
     }
     
     /**
@@ -332,9 +1078,7 @@ public class CardLayout extends AbstractGuiComponent implements GuiLayout {
      */
     void showDefaultComponent() {
         if (!cs.isEmpty()) {
-            currentCard = 0;
-            getNode().attachChild((cs.get(0)).comp);
-            invalidate();
+            showCard(0);
         }
     }
 
@@ -343,20 +1087,8 @@ public class CardLayout extends AbstractGuiComponent implements GuiLayout {
      * @see CardLayout#last() 
      */
     public void first() {
-        int ncomponents = cs.size();
-        for (Card c : cs) {
-            Node comp = c.comp;
-            if (comp.getParent() != null) {
-                flag = true;
-                comp.removeFromParent();
-                break;
-            }
-        }
-        flag = false;
-        if (ncomponents > 0) {
-            currentCard = 0;
-            getNode().attachChild(cs.get(currentCard).comp);
-            invalidate();
+        if (!cs.isEmpty()) {
+            showCard(0);
         }
     }
 
@@ -365,20 +1097,8 @@ public class CardLayout extends AbstractGuiComponent implements GuiLayout {
      * @see CardLayout#first() 
      */
     public void last() {
-        int ncomponents = cs.size();
-        for (Card c : cs) {
-            Node comp = c.comp;
-            if (comp.getParent() != null) {
-                flag = true;
-                comp.removeFromParent();
-                break;
-            }
-        }
-        flag = false;
-        if (ncomponents > 0) {
-            currentCard = ncomponents - 1;
-            getNode().attachChild(cs.get(currentCard).comp);
-            invalidate();
+        if (!cs.isEmpty()) {
+            showCard(cs.size() - 1);
         }
     }
 
@@ -393,28 +1113,9 @@ public class CardLayout extends AbstractGuiComponent implements GuiLayout {
      * @see CardLayout#addLayoutComponent(com.jme3.scene.Node, java.lang.String) 
      */
     public void show(String name) {
-        Node next = null;
-        int ncomponents = cs.size();
-        for (int i = 0; i < ncomponents; i++) {
-            Card card = cs.get(i);
-            if (card.name.equals(name)) {
-                next = card.comp;
-                currentCard = i;
-                break;
-            }
-        }
-        if ((next != null) && (next.getParent() == null)) {
-            for (int i = 0; i < ncomponents; i++) {
-                Node comp = cs.get(i).comp;
-                if (comp.getParent() != null) {
-                    flag = true;
-                    comp.removeFromParent();
-                    break;
-                }
-            }
-            flag = false;
-            getNode().attachChild(next);
-            invalidate();
+        Card next = names.get(name);
+        if (next != null) {
+            showCard(next.index);
         }
     }
 
@@ -434,7 +1135,9 @@ public class CardLayout extends AbstractGuiComponent implements GuiLayout {
     public Collection<Node> getLayoutChildren() {
         List<Node> children = new ArrayList<>();
         for (final Card card : this.cs) {
-            children.add(card.comp);
+            if (card.comp != null) {
+                children.add(card.comp);
+            }
         }
         return children;
     }
@@ -446,11 +1149,14 @@ public class CardLayout extends AbstractGuiComponent implements GuiLayout {
      */
     @Override
     public void detach(GuiControl parent) {
+        finishTransition();
+        parent.removeUpdateListener(animator);
         super.detach(parent);
         Collection<Node> copy = new ArrayList<>(getLayoutChildren());    
         for( Node n : copy ) {
             n.removeFromParent();
         }
+        shown = null;
     }
 
     /**
@@ -461,6 +1167,7 @@ public class CardLayout extends AbstractGuiComponent implements GuiLayout {
     @Override
     public void attach(GuiControl parent) {
         super.attach(parent);
+        parent.addUpdateListener(animator);
         if (currentCard >= 0 && currentCard < cs.size()) {
             Card card = cs.get(currentCard);
             show(card.name);
@@ -491,11 +1198,18 @@ public class CardLayout extends AbstractGuiComponent implements GuiLayout {
      */
     @Override
     public void clearChildren() {
+        finishTransition();
         for (int i = 0; i < cs.size(); i++) {
-            (cs.get(i)).comp.removeFromParent();
+            if ((cs.get(i)).comp != null) {
+                (cs.get(i)).comp.removeFromParent();
+            }
             cs.remove(i);
             i--;
         }
+        names.clear();
+        nodes.clear();
+        shown = null;
+        resident = 0;
         currentCard = 0;
         invalidate();
     }
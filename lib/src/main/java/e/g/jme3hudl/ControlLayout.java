@@ -33,6 +33,7 @@ package e.g.jme3hudl;
 
 import com.jme3.math.Vector3f;
 import com.jme3.scene.Node;
+import com.jme3.util.SafeArrayList;
 import com.simsilica.lemur.Label;
 import com.simsilica.lemur.component.AbstractGuiComponent;
 import com.simsilica.lemur.core.GuiControl;
@@ -91,7 +92,7 @@ import java.util.logging.Logger;
  * 
  * @since 1.0.0
  */
-public class ControlLayout extends AbstractGuiComponent implements GuiLayout {
+public class ControlLayout extends AbstractGuiComponent implements TwoPhaseLayout {
     
     /**
      * Método encargado de centrar un componete en la resolución definida.
@@ -362,6 +363,26 @@ public class ControlLayout extends AbstractGuiComponent implements GuiLayout {
         /** Control grafíco a gestionar. */
         private final GuiControl gc;
         
+        /** Tamaño preferido leído en la última pasada. */
+        private final Vector3f pref = new Vector3f();
+        
+        /** Si calculatePreferredSize leyó {@link #pref} desde el último reshape. */
+        private boolean fresh;
+        
+        /** Tamaño y posición asignados en el último reshape. */
+        private final Vector3f size = new Vector3f();
+        private final Vector3f position = new Vector3f();
+        
+        /** Datos con los que se calcularon el tamaño y la posición. */
+        private boolean valid;
+        private long scaleVersion;
+        private final Vector3f lastPref = new Vector3f();
+        private final Vector3f lastParentSize = new Vector3f();
+        private final Vector3f lastOffset = new Vector3f();
+        private boolean lastParentLock;
+        private boolean lastLockscaling;
+        private Alignment lastAlignment;
+        
         /**
          * Constructor de la clase interna <code>Control</code>.
          * @param gc contro de la interfaz de usuario.
@@ -384,140 +405,79 @@ public class ControlLayout extends AbstractGuiComponent implements GuiLayout {
         }
         
         /**
-         * Método encargado de redimensionar y posicionar los componentes
+         * Método encargado de calcular el tamaño y la posición del componente
          * según sus propiedades establecidas.
+         * <p>
+         * Si no cambió ninguno de los datos de los que dependen (factor de
+         * escala, atributos, tamaño preferido, tamaño del contenedor), se
+         * reutilizan el tamaño y la posición de la pasada anterior. Se
+         * añaden al resultado igualmente, ya que Lemur no avisa al diseño
+         * si cambió algún descendiente del componente.
+         * </p>
+         * 
+         * @param store resultado donde se añaden el tamaño y la posición.
+         * @return <code>true</code> si se reutilizó la pasada anterior.
          */
-        void resize() {
-            Vector3f mySize = new Vector3f();
-            Vector3f prefSize = gc.getPreferredSize();
+        boolean resize(LayoutResult store) {
+            Vector3f prefSize = fresh ? pref : pref.set(gc.getPreferredSize());
+            fresh = false;
+            final Vector3f parentSize = passParentSize;
             
-            final Vector3f fac = rootPane.getScaleFactor();
+            if (valid && scaleVersion == passVersion && passVersion >= 0
+                    && lastParentLock == passLockscaling
+                    && lastLockscaling == attributes.lockscaling
+                    && lastAlignment == attributes.alignment
+                    && lastOffset.equals(attributes.originalPos)
+                    && lastPref.equals(prefSize)
+                    && lastParentSize.equals(parentSize)) {
+                store.add(gc, position.x, position.y, position.z, size.x, size.y, size.z);
+                return true;
+            }
+            
+            final Vector3f fac = passScale;
+            Vector3f mySize = size;
             mySize.x = attributes.lockscaling ? prefSize.x * fac.y : prefSize.x * fac.x;
             mySize.y = prefSize.y * fac.y;
             mySize.z = prefSize.z * fac.z;
-            
-            // establecemos las nuevas caracteristicas
-            // sobre el control del componente.
-            gc.setSize(mySize);
-
-            // centramos este componente hijo en el contenedor padre.
-            final Node nodeControl    = gc.getNode();
-            final Vector3f parentSize = getParentSize();
 
-            nodeControl.setLocalTranslation(parentSize.x / 2.0F, -parentSize.y / 2.0F, parentSize.z / 2.0F);
-            nodeControl.move(-mySize.x * 0.5F, mySize.y * 0.5F, -mySize.z * 0.5F);
-
-            // Calculamos la nueva posición según el diseño.
-            nodeControl.move(calculatePosition());
+            // centramos este componente hijo en el contenedor padre y 
+            // calculamos la nueva posición según el diseño.
+            position.set(parentSize.x / 2.0F, -parentSize.y / 2.0F, parentSize.z / 2.0F);
+            position.addLocal(-mySize.x * 0.5F, mySize.y * 0.5F, -mySize.z * 0.5F);
+            calculatePosition(position);
+            store.add(gc, position.x, position.y, position.z, mySize.x, mySize.y, mySize.z);
+            
+            valid = true;
+            scaleVersion = passVersion;
+            lastParentLock = passLockscaling;
+            lastLockscaling = attributes.lockscaling;
+            lastAlignment = attributes.alignment;
+            lastOffset.set(attributes.originalPos);
+            lastPref.set(prefSize);
+            lastParentSize.set(parentSize);
+            return false;
         }
         
         /**
-         * Calcula la posición del componente.
-         * @return nueva posición.
+         * Suma a <code>store</code> el desplazamiento del componente según
+         * su alineamiento, a partir de los coeficientes de
+         * {@link #ANCHOR_X} y {@link #ANCHOR_Y}.
+         * @param store vector donde se acumula la posición.
          */
-        final Vector3f calculatePosition() {
-            float width  = gc.getSize().x,
-                  height = gc.getSize().y;
-
+        final void calculatePosition(Vector3f store) {
+            final Vector3f mySize = size;
             final Vector3f myPos = attributes.originalPos;
-            final Vector3f fac = rootPane.getScaleFactor();
+            final Vector3f parentSize = passParentSize;
+            final int i = attributes.alignment.ordinal();
             
-            float offsetX = myPos.getX();
-            float offsetY = myPos.getY();
-
-            float xPos, yPos, zPos = myPos.z * fac.z;
-            switch (attributes.alignment) {
-                case Center:
-                    if ( hasParentAndLockscaling() ) {
-                        xPos = (offsetX * fac.y);
-                        yPos = (offsetY * fac.y);
-                    } else {
-                        xPos = (offsetX * fac.x);
-                        yPos = (offsetY * fac.y);
-                    }
-                    return new Vector3f(xPos, yPos, zPos);
-                case CenterBottom:
-                    if ( hasParentAndLockscaling() ) {
-                        xPos = offsetX * fac.y;
-                        yPos = -(getParentSize().y * 0.5f) + (height * 0.5f) + (offsetY * fac.y);
-                    } else {
-                        xPos = offsetX * fac.x;
-                        yPos = -(getParentSize().y * 0.5f) + (height * 0.5f) + (offsetY * fac.y);
-                    }
-                    return new Vector3f(xPos, yPos, zPos);
-                case CenterTop:
-                    if ( hasParentAndLockscaling() ) {
-                        xPos = offsetX * fac.y;
-                        yPos = (getParentSize().y * 0.5f) - (height * 0.5f) - (offsetY * fac.y);
-                    } else {
-                        xPos = offsetX * fac.x;
-                        yPos = (getParentSize().y * 0.5f) - (height * 0.5f) - (offsetY * fac.y);
-                    }
-                    return new Vector3f(xPos, yPos, zPos);
-                case LeftBottom:
-                    if ( hasParentAndLockscaling() ) {
-                        xPos = -(getParentSize().x * 0.5f) + (width * 0.5f) + offsetX * fac.y;
-                        yPos = -(getParentSize().y * 0.5f) + (height * 0.5f) + (offsetY * fac.y);
-                    } else {
-                        xPos = -(getParentSize().x * 0.5f) + (width * 0.5f) + offsetX * fac.x;
-                        yPos = -(getParentSize().y * 0.5f) + (height * 0.5f) + (offsetY * fac.y);
-                    }
-                    return new Vector3f(xPos, yPos, zPos);
-                case LeftCenter:
-                    if ( hasParentAndLockscaling() ) {
-                        xPos = -(getParentSize().x * 0.5f) + (width * 0.5f) + offsetX * fac.y;
-                        yPos = (offsetY * fac.y);
-                    } else {
-                        xPos = -(getParentSize().x * 0.5f) + (width * 0.5f) + offsetX * fac.x;
-                        yPos = (offsetY * fac.y);
-                    }
-                    return new Vector3f(xPos, yPos, zPos);
-                case LeftTop:
-                    if ( hasParentAndLockscaling() ) {
-                        xPos = -(getParentSize().x * 0.5f) + (width * 0.5f) + offsetX * fac.y;
-                        yPos = (getParentSize().y * 0.5f) - (height * 0.5f) - (offsetY * fac.y);
-                    } else {
-                        xPos = -(getParentSize().x * 0.5f) + (width * 0.5f) + offsetX * fac.x;
-                        yPos = (getParentSize().y * 0.5f) - (height * 0.5f) - (offsetY * fac.y);
-                    }
-                    return new Vector3f(xPos, yPos, zPos);
-                case RightBottom:
-                    if ( hasParentAndLockscaling() ) {
-                        xPos = (getParentSize().x * 0.5f) - (width * 0.5f) - (offsetX * fac.y);
-                        yPos = -(getParentSize().y * 0.5f) + (height * 0.5f) + (offsetY * fac.y);
-                    } else {
-                        xPos = (getParentSize().x * 0.5f) - (width * 0.5f) - (offsetX * fac.x);
-                        yPos = -(getParentSize().y * 0.5f) + (height * 0.5f) + (offsetY * fac.y);
-                    }
-                    return new Vector3f(xPos, yPos, zPos);
-                case RightCenter:
-                    if ( hasParentAndLockscaling() ) {
-                        xPos = (getParentSize().x * 0.5f) - (width * 0.5f) - (offsetX * fac.y);
-                        yPos = (offsetY * fac.y);
-                    } else {
-                        xPos = (getParentSize().x * 0.5f) - (width * 0.5f) - (offsetX * fac.x);
-                        yPos = (offsetY * fac.y);
-                    }
-                    return new Vector3f(xPos, yPos, zPos);
-                case RightTop:
-                    if ( hasParentAndLockscaling() ) {
-                        xPos = (getParentSize().x * 0.5f) - (width * 0.5f) - (offsetX * fac.y);
-                        yPos = (getParentSize().y * 0.5f) - (height * 0.5f) - (offsetY * fac.y);
-                    } else {
-                        xPos = (getParentSize().x * 0.5f) - (width * 0.5f) - (offsetX * fac.x);
-                        yPos = (getParentSize().y* 0.5f) - (height * 0.5f) - (offsetY * fac.y);
-                    }
-                    return new Vector3f(xPos, yPos, zPos);
-                default:
-                    throw new AssertionError();
-            }
-        }
-        
-        /*
-            Getter.
-        */
-        private Vector3f getParentSize() {
-            return getGuiControl().getSize();
+            float ax = ANCHOR_X[i],
+                  ay = ANCHOR_Y[i];
+            
+            // Pegado a un borde, el desplazamiento se aleja de él.
+            float xPos = ax * ((parentSize.x - mySize.x) * 0.5f) + OFFSET_X[i] * (myPos.x * passOffsetScale),
+                  yPos = ay * ((parentSize.y - mySize.y) * 0.5f) + OFFSET_Y[i] * (myPos.y * passScale.y),
+                  zPos = myPos.z * passScale.z;
+            store.addLocal(xPos, yPos, zPos);
         }
     }
 
@@ -525,36 +485,227 @@ public class ControlLayout extends AbstractGuiComponent implements GuiLayout {
      * Clase interna que implementa la interfaz {@link RootPane}.
      */
     private static 
-    final class CanvasLayer implements RootPane {    
+    final class CanvasLayer extends AbstractRootPane {    
         public Vector3f window;
         public Vector3f resolution;
+        
+        /** Factor de escala y datos con los que se calculó. */
+        private final Vector3f scale = new Vector3f();
+        private final Vector3f lastWindow = new Vector3f();
+        private final Vector3f lastResolution = new Vector3f();
+        private long version = -1;
+        
         public CanvasLayer() {
-        }        
-        @Override
-        public Vector3f getScaleFactor() {
+        }
+        
+        /**
+         * Vuelve a calcular el factor de escala si cambió la ventana o la
+         * resolución.
+         * @return <code>true</code> si se recalculó.
+         */
+        private boolean refresh() {
+            if (version >= 0 && lastWindow.equals(window) && lastResolution.equals(resolution)) {
+                return false;
+            }
             float rx = resolution.x == 0 ? 0 : window.x / resolution.x,
                   ry = resolution.y == 0 ? 0 : window.y / resolution.y,
                   rz = resolution.z == 0 ? 0 : resolution.z / window.z;
-            return new Vector3f(rx, ry, rz);
+            scale.set(rx, ry, rz);
+            lastWindow.set(window);
+            lastResolution.set(resolution);
+            version++;
+            return true;
+        }
+        
+        @Override
+        public Vector3f getScaleFactor() {
+            refresh();
+            return scale;
+        }
+        @Override
+        public long getVersion() {
+            refresh();
+            return version;
+        }
+        @Override
+        public void setWindow(Vector3f window) {
+            if (window == null) {
+                throw new IllegalArgumentException("Window size cannot be null");
+            }
+            this.window.set(window);
+            if (refresh()) {
+                fireScaleChanged();
+            }
+        }
+        @Override
+        public void setResolution(Vector3f resolution) {
+            if (resolution == null) {
+                throw new IllegalArgumentException("Resolution cannot be null");
+            }
+            this.resolution.set(resolution);
+            if (refresh()) {
+                fireScaleChanged();
+            }
         }
         @Override public Vector3f getWindow() { return window; }
         @Override public Vector3f getResolution() { return resolution; }
     }
     
+    /**
+     * Un <code>RootPaneListener</code> recibe los cambios del factor de
+     * escala de un {@link RootPane}.
+     */
+    public interface RootPaneListener {
+        
+        /**
+         * Se invoca cuando cambia la ventana o la resolución del 
+         * {@link RootPane}, y con ello su factor de escala.
+         * @param source root-pane que cambió.
+         */
+        void scaleChanged(RootPane source);
+    }
+    
     /**
      * Un <code>RootPane</code> se encarga de listar los métodos encargados
      * de gestionar el factor de escala para los componentes del diseño
      * {@link ControlLayout}.
+     * <p>
+     * Cada {@link ControlLayout} conectado a la escena se registra como
+     * {@link RootPaneListener} de su <code>RootPane</code>; al cambiar el
+     * tamaño de la ventana con {@link #setWindow(Vector3f)} solo se vuelven
+     * a diseñar esos árboles, y no toda la interfaz. Las implementaciones
+     * pueden extender {@link AbstractRootPane}, que ya gestiona los oyentes.
+     * </p>
      */
     public interface RootPane {
+        
+        /**
+         * Devuelve el factor de escala. El vector puede ser compartido y no
+         * se debe modificar.
+         * @return factor de escala.
+         */
         Vector3f getScaleFactor();
         Vector3f getWindow();        
         Vector3f getResolution();
+        
+        /**
+         * Devuelve la versión del factor de escala, que cambia cada vez que
+         * éste se vuelve a calcular. Un valor negativo indica que no se 
+         * lleva la cuenta, por lo que el factor se lee en cada pasada.
+         * @return versión del factor de escala.
+         */
+        default long getVersion() {
+            return -1;
+        }
+        
+        /**
+         * Cambia el tamaño de la ventana y avisa a los oyentes si con ello
+         * cambia el factor de escala.
+         * @param window nuevo tamaño de la ventana.
+         */
+        void setWindow(Vector3f window);
+        
+        /**
+         * Cambia la resolución ideal y avisa a los oyentes si con ello
+         * cambia el factor de escala.
+         * @param resolution nueva resolución.
+         */
+        void setResolution(Vector3f resolution);
+        
+        /**
+         * Agrega un oyente de los cambios del factor de escala.
+         * @param l oyente.
+         */
+        void addRootPaneListener(RootPaneListener l);
+        
+        /**
+         * Elimina un oyente agregado con 
+         * {@link #addRootPaneListener(RootPaneListener)}.
+         * @param l oyente.
+         */
+        void removeRootPaneListener(RootPaneListener l);
+    }
+    
+    /**
+     * Clase base para implementar un {@link RootPane}: guarda los oyentes y
+     * los avisa con {@link #fireScaleChanged()}, que las subclases invocan
+     * cuando cambia su factor de escala.
+     */
+    public static abstract class AbstractRootPane implements RootPane {
+        
+        /** Oyentes a los que se avisa cuando cambia el factor de escala. */
+        private final SafeArrayList<RootPaneListener> listeners = new SafeArrayList<>(RootPaneListener.class);
+        
+        /**
+         * Avisa a los oyentes de que cambió el factor de escala. Las
+         * invalidaciones que provoquen se agrupan en un solo lote.
+         */
+        protected void fireScaleChanged() {
+            if (listeners.isEmpty()) {
+                return;
+            }
+            LayoutBatch batch = LayoutBatch.begin();
+            try {
+                for (final RootPaneListener l : listeners.getArray()) {
+                    l.scaleChanged(this);
+                }
+            } finally {
+                batch.end();
+            }
+        }
+        
+        /**
+         * (non-JavaDoc)
+         * @see RootPane#addRootPaneListener(e.g.jme3hudl.ControlLayout.RootPaneListener) 
+         */
+        @Override
+        public void addRootPaneListener(RootPaneListener l) {
+            if (l == null) {
+                throw new IllegalArgumentException("Listener cannot be null");
+            }
+            if (!listeners.contains(l)) {
+                listeners.add(l);
+            }
+        }
+        
+        /**
+         * (non-JavaDoc)
+         * @see RootPane#removeRootPaneListener(e.g.jme3hudl.ControlLayout.RootPaneListener) 
+         */
+        @Override
+        public void removeRootPaneListener(RootPaneListener l) {
+            listeners.remove(l);
+        }
     }
 
     /** {@link RootPane} de este {@link ControlLayout}. */
     private final RootPane rootPane;
     
+    /** Factor de escala, versión y escala cerrada del padre, leídos una vez por pasada. */
+    private Vector3f passScale;
+    private long passVersion;
+    private boolean passLockscaling;
+    
+    /** Tamaño del contenedor y escala de los desplazamientos horizontales en la pasada. */
+    private Vector3f passParentSize;
+    private float passOffsetScale;
+    
+    /** Límites calculados en reshape, antes de aplicarlos. */
+    private final LayoutResult result = new LayoutResult();
+    
+    /*
+        Coeficientes de cada Alignment, en el orden de sus constantes: el 
+        ancla en el contenedor (-1 izquierda/abajo, 0 centro, 1 derecha/arriba)
+        y el sentido en que se aplica el desplazamiento.
+                                              C  CT  CB  RC  RT  RB  LC  LT  LB */
+    private static final float[] ANCHOR_X = { 0,  0,  0,  1,  1,  1, -1, -1, -1 };
+    private static final float[] ANCHOR_Y = { 0,  1, -1,  0,  1, -1,  0,  1, -1 };
+    private static final float[] OFFSET_X = { 1,  1,  1, -1, -1, -1,  1,  1,  1 };
+    private static final float[] OFFSET_Y = { 1, -1,  1,  1, -1,  1,  1, -1,  1 };
+    
+    /** Oyente registrado en el {@link RootPane} mientras el diseño está conectado. */
+    private final RootPaneListener scaleListener = source -> rescale();
+    
     /**
      * Constructor de la clase <code>ControlLayout</code>.
      * @param rootPane root-pane para este diseño.
@@ -578,24 +729,38 @@ public class ControlLayout extends AbstractGuiComponent implements GuiLayout {
      */
     @Override
     public void calculatePreferredSize(Vector3f size) {
+        LayoutMetrics metrics = LayoutMonitor.getMetrics();
+        long startTime = 0, bytes = 0;
+        if (metrics != null) {
+            bytes = LayoutMonitor.allocatedBytes();
+            startTime = System.nanoTime();
+        }
+        
         float w = 0,
               h = 0, 
               z = 0;
 
         for (final Map.Entry<Node, Control> entry : children.entrySet()) {
             Control c = entry.getValue();
-            Vector3f d = c.gc.getPreferredSize();
+            Vector3f d = c.pref.set(c.gc.getPreferredSize());
+            c.fresh = true;
             if (d.x > w) {
                 w = d.x;
             }
             if (d.y > h) {
-                h = d.z;
+                h = d.y;
             }
             if (d.z > z) {
                 z = d.z;
             }
         }
         size.set(w, h, z);
+        
+        if (metrics != null) {
+            metrics.layoutPass(getNode(), this, LayoutMetrics.PREFERRED_SIZE,
+                    System.nanoTime() - startTime, LayoutMonitor.allocatedSince(bytes),
+                    children.size(), 0, 0, children.size());
+        }
     }
 
     /**
@@ -613,8 +778,9 @@ public class ControlLayout extends AbstractGuiComponent implements GuiLayout {
             return false;
         }
         
-        if ( useParentControlLayout(node.getControl(GuiControl.class)) ) {
-            ControlLayout layout = node.getControl(GuiControl.class).getLayout();
+        final GuiControl parent = node.getControl(GuiControl.class);
+        if ( useParentControlLayout(parent) ) {
+            ControlLayout layout = parent.getLayout();
             return layout.isLockscalingChild(this.getNode());
         }
         return false;
@@ -638,6 +804,48 @@ public class ControlLayout extends AbstractGuiComponent implements GuiLayout {
         return false;
     }
     
+    /**
+     * Vuelve a diseñar los componentes tras un cambio del factor de escala.
+     * <p>
+     * Si algún antecesor utiliza un {@link ControlLayout} con el mismo
+     * {@link RootPane}, no se hace nada: su pasada ya redimensiona este
+     * contenedor. Si el contenedor es la raíz de la interfaz, toma de nuevo
+     * su tamaño preferido, igual que al revalidarse en Lemur; de lo
+     * contrario conserva su tamaño y solo se vuelven a colocar sus hijos.
+     * </p>
+     */
+    private void rescale() {
+        final GuiControl gc = getGuiControl();
+        if (gc == null) {
+            return;
+        }
+        Node parent = getNode().getParent();
+        GuiControl parentControl = parent == null ? null : parent.getControl(GuiControl.class);
+        if (parentControl == null) {
+            gc.setSize(gc.getPreferredSize());
+            return;
+        }
+        while (parentControl != null) {
+            GuiLayout layout = parentControl.getLayout();
+            if (layout instanceof ControlLayout 
+                    && ((ControlLayout) layout).rootPane == rootPane) {
+                return;
+            }
+            parent = parent.getParent();
+            parentControl = parent == null ? null : parent.getControl(GuiControl.class);
+        }
+        gc.setSize(gc.getSize());
+    }
+    
+    /**
+     * (non-JavaDoc)
+     * @see LayoutBatch
+     */
+    @Override
+    protected void invalidate() {
+        LayoutBatch.invalidate(getGuiControl());
+    }
+
     /**
      * (non-JavaDoc)
      * @param pos vector-3f
@@ -646,13 +854,62 @@ public class ControlLayout extends AbstractGuiComponent implements GuiLayout {
      */
     @Override
     public void reshape(Vector3f pos, Vector3f size) {
+        LayoutMetrics metrics = LayoutMonitor.getMetrics();
+        long startTime = 0, bytes = 0;
+        if (metrics != null) {
+            bytes = LayoutMonitor.allocatedBytes();
+            startTime = System.nanoTime();
+        }
+        
+        int reused;
+        try {
+            reused = compute0(getGuiControl().getSize(), result);
+            result.commit();
+        } finally {
+            result.clear();
+        }
+        
+        if (metrics != null) {
+            metrics.layoutPass(getNode(), this, LayoutMetrics.RESHAPE,
+                    System.nanoTime() - startTime, LayoutMonitor.allocatedSince(bytes),
+                    children.size(), 0, reused, children.size() - reused);
+        }
+    }
+
+    /**
+     * (non-JavaDoc)
+     * @param size tamaño del contenedor, incluidos sus márgenes (el de su
+     * <code>GuiControl</code>).
+     * @param store resultado donde se añaden los límites.
+     * @see TwoPhaseLayout#compute(com.jme3.math.Vector3f, e.g.jme3hudl.LayoutResult) 
+     */
+    @Override
+    public void compute(Vector3f size, LayoutResult store) {
+        compute0(size, store);
+    }
+
+    /*
+     * Calcula los límites de los hijos y devuelve cuántos reutilizaron los
+     * de la pasada anterior.
+     */
+    private int compute0(Vector3f size, LayoutResult store) {
+        passScale = rootPane.getScaleFactor();
+        passVersion = rootPane.getVersion();
+        passLockscaling = hasParentAndLockscaling();
+        passParentSize = size;
+        passOffsetScale = passLockscaling ? passScale.y : passScale.x;
+        
+        int reused = 0;
         for (final Map.Entry<Node, Control> entry : children.entrySet()) {
             if ( entry.getValue() == null ) 
                 continue;
             
             Control control = entry.getValue();
-            control.resize();
+            if (control.resize(store)) {
+                reused++;
+            }
         }
+        return reused;
     }
 
     /**
@@ -713,14 +970,14 @@ public class ControlLayout extends AbstractGuiComponent implements GuiLayout {
             case ALIGNMENT:
                 if (value instanceof Alignment) {
                     cl.attributes.setAlignment((Alignment) value);
-                    cl.gc.invalidate();
+                    LayoutBatch.invalidate(cl.gc);
                     return true;
                 }
                 return true;
             case DEPTH_POSITION:
                 if (value instanceof Number) {
                     cl.attributes.originalPos.setZ(((Number) value).floatValue());
-                    cl.gc.invalidate();
+                    LayoutBatch.invalidate(cl.gc);
                     return true;
                 }
                 return false;
@@ -734,14 +991,14 @@ public class ControlLayout extends AbstractGuiComponent implements GuiLayout {
             case LOCK_SCALING:
                 if (value instanceof Boolean) {
                     cl.attributes.setLockscaling((Boolean)value);
-                    cl.gc.invalidate();
+                    LayoutBatch.invalidate(cl.gc);
                     return true;
                 }
                 return false;
             case POSITION:
                 if (value instanceof Vector3f) {
                     cl.attributes.setOriginalPos((Vector3f) value);
-                    cl.gc.invalidate();
+                    LayoutBatch.invalidate(cl.gc);
                     return true;
                 }
                 return false;
@@ -825,6 +1082,9 @@ public class ControlLayout extends AbstractGuiComponent implements GuiLayout {
     @Override
     public void detach(GuiControl parent) {
         super.detach(parent);
+        if ( rootPane != null ) {
+            rootPane.removeRootPaneListener(scaleListener);
+        }
         Collection<Node> copy = new ArrayList<>(getChildren());    
         for( Node n : copy ) {
             n.removeFromParent();
@@ -842,6 +1102,9 @@ public class ControlLayout extends AbstractGuiComponent implements GuiLayout {
         for ( Node n : getChildren()) {
             getNode().attachChild(n);
         }
+        if ( rootPane != null ) {
+            rootPane.addRootPaneListener(scaleListener);
+        }
     }
 
     /**
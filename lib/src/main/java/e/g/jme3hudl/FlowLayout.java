@@ -40,6 +40,7 @@ import com.simsilica.lemur.core.GuiControl;
 import com.simsilica.lemur.core.GuiLayout;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
@@ -62,6 +63,24 @@ import java.util.List;
  * </p>
  * <p>
  * Un diseño de flujo permite que cada componente asuma su tamaño natural (preferido).
+ * Un componente más ancho que el contenedor se encoge hasta su tamaño mínimo
+ * (ver {@link SizeHints}).
+ * </p>
+ * <p>
+ * Para contenedores con miles de hijos (inventarios, galerías) se puede
+ * activar el modo virtual con {@link #setViewport(float, float, float, float)}:
+ * los saltos de fila se calculan con los tamaños en caché y solo se adjuntan
+ * al contenedor los hijos que intersecan la ventana visible. Los hijos que
+ * salen de ella se separan del nodo pero se conservan, junto con sus tamaños,
+ * para volver a adjuntarlos sin medirlos de nuevo.
+ * </p>
+ * <p>
+ * El rediseño es incremental: cada pasada empieza en la fila del primer hijo
+ * que ha cambiado (tamaño, alta o baja) y termina en cuanto los saltos de
+ * fila vuelven a coincidir con los de la pasada anterior, de modo que añadir
+ * un hijo al final solo recoloca la última fila. Aun así, cada pasada
+ * asigna su tamaño a todos los hijos adjuntos: Lemur solo vuelve a diseñar
+ * un contenedor anidado cuando su padre se lo asigna.
  * </p>
  * 
  * @author wil
@@ -69,7 +88,7 @@ import java.util.List;
  * 
  * @since 1.0.0
  */
-public class FlowLayout extends AbstractGuiComponent implements GuiLayout {
+public class FlowLayout extends AbstractGuiComponent implements TwoPhaseLayout {
     
     /**
      * Este valor indica que cada fila de componentes
@@ -110,6 +129,83 @@ public class FlowLayout extends AbstractGuiComponent implements GuiLayout {
     /** Lista de hijos que contiene el nodo padre. */
     private final List<Node> children = new ArrayList<>();
     
+    /**
+     * Estado de cada hijo, en el mismo orden que {@link #children}.
+     */
+    private final List<Tile> tiles = new ArrayList<>();
+    
+    /**
+     * Ventana visible del modo virtual, en coordenadas del contenedor: 
+     * {@code x} desde el borde izquierdo e {@code y} desde el borde superior
+     * hacia abajo.
+     */
+    private float viewX, viewY, viewWidth, viewHeight;
+    
+    /** {@code true} si el modo virtual está activo. */
+    private boolean virtualized;
+    
+    /** Altura del contenido tras la última pasada de diseño. */
+    private float contentHeight;
+    
+    /**
+     * Índice de filas de la última pasada de diseño: el primer hijo de cada
+     * fila, su coordenada superior y su altura. Solo son válidas las
+     * primeras {@link #rowCount} entradas.
+     */
+    private int[] rowStart = new int[8];
+    private float[] rowY = new float[8];
+    private float[] rowHeight = new float[8];
+    private int rowCount;
+    
+    /**
+     * Hijos que han cambiado desde la última pasada de diseño: el primero
+     * ({@code Integer.MAX_VALUE} si ninguno) y el siguiente al último
+     * ({@code Integer.MAX_VALUE} si cambió el número de hijos).
+     */
+    private int dirtyFrom = Integer.MAX_VALUE, dirtyEnd;
+    
+    /** Hijos cuyos tamaños se deben comprobar en el modo virtual. */
+    private final List<Tile> pending = new ArrayList<>();
+    
+    /** Geometría del contenedor en la última pasada de diseño. */
+    private float lastWidth, lastLeft, lastTop, lastZ;
+    
+    /** Ventana visible en la última pasada de diseño. */
+    private float lastViewX, lastViewY, lastViewWidth, lastViewHeight;
+    
+    /** Vector reutilizado para comparar el tamaño de cada hijo. */
+    private final Vector3f childSize = new Vector3f();
+    
+    /** Hijos medidos en la pasada actual. */
+    private int measured;
+    
+    /**
+     * Suma de los anchos preferidos y alturas máximas de los hijos en el
+     * modo virtual; ver {@link #updatePreferredSize()}.
+     */
+    private double prefWidth;
+    private float prefHeight, prefDepth;
+    private boolean prefValid;
+    
+    /**
+     * {@code true} mientras se separa un hijo fuera de la ventana visible;
+     * ver {@link #recycle(com.jme3.scene.Node)}.
+     */
+    private boolean recycling;
+    
+    /**
+     * Hijos que {@link #update} decidió adjuntar o separar en el modo
+     * virtual; se aplican en {@link #reshape}.
+     */
+    private final List<Node> attachQueue = new ArrayList<>();
+    private final List<Node> detachQueue = new ArrayList<>();
+    
+    /** Ancho del contenedor de la pasada en curso. */
+    private float passWidth;
+    
+    /** Límites calculados en reshape, antes de aplicarlos. */
+    private final LayoutResult result = new LayoutResult();
+    
     /**
      * {@code align} es la propiedad que determina cómo cada fila distribuye el 
      * espacio vacío.
@@ -175,6 +271,304 @@ public class FlowLayout extends AbstractGuiComponent implements GuiLayout {
         this.align = align;
         this.gap = gap;
     }
+    
+    /**
+     * Estado de un hijo: sus tamaños (min/pref/max), el tamaño que se le
+     * asigna en la pasada actual y si está visible en el modo virtual.
+     */
+    private static final class Tile {
+        /** Tamaños del hijo. */
+        final SizeHints hints;
+        /** Tamaño asignado en la pasada de diseño actual. */
+        final Vector3f size = new Vector3f();
+        /** Esquina superior izquierda asignada, en coordenadas de la ventana. */
+        float x, y;
+        /** Posición en {@link #children}, o {@code -1} si se eliminó. */
+        int index;
+        /** {@code true} si participaba en el flujo en la última pasada. */
+        boolean member;
+        /** Tamaño preferido sumado en {@link #prefWidth}. */
+        final Vector3f pref = new Vector3f();
+        /** {@code true} si {@link #pref} está sumado. */
+        boolean counted;
+        /** {@code true} si los tamaños en caché deben volver a leerse. */
+        boolean stale = true;
+        /** {@code true} si el hijo intersecaba la ventana visible. */
+        boolean shown;
+
+        Tile(Node node, int index) {
+            this.hints = new SizeHints(node);
+            this.index = index;
+        }
+    }
+    
+    /**
+     * Activa el modo virtual con la ventana visible indicada, en coordenadas
+     * del contenedor ({@code x} desde el borde izquierdo, {@code y} desde el
+     * borde superior hacia abajo).
+     * <p>
+     * En el modo virtual todos los hijos participan en el flujo, pero solo
+     * los que intersecan la ventana se adjuntan al contenedor. Los tamaños de
+     * los hijos separados se guardan en caché: si uno cambia mientras está
+     * fuera de la ventana, se debe llamar a {@link #invalidateComponent(Node)}.
+     * </p>
+     * 
+     * @param x coordenada izquierda de la ventana.
+     * @param y coordenada superior de la ventana.
+     * @param width ancho de la ventana.
+     * @param height alto de la ventana.
+     */
+    public void setViewport(float x, float y, float width, float height) {
+        if (width < 0 || height < 0) {
+            throw new IllegalArgumentException("Viewport size cannot be negative.");
+        }
+        if (virtualized && viewX == x && viewY == y && viewWidth == width && viewHeight == height) {
+            return;
+        }
+        if (!virtualized) {
+            // Todos los hijos deben separarse o volver a colocarse.
+            markDirty(0, Integer.MAX_VALUE);
+            prefValid = false;
+        }
+        viewX = x;
+        viewY = y;
+        viewWidth = width;
+        viewHeight = height;
+        virtualized = true;
+        invalidate();
+    }
+    
+    /**
+     * Desactiva el modo virtual y vuelve a adjuntar todos los hijos, en el
+     * orden del diseño.
+     */
+    public void clearViewport() {
+        if (!virtualized) {
+            return;
+        }
+        virtualized = false;
+        if (isAttached()) {
+            for (Node n : children) {
+                if (n.getParent() != null) {
+                    recycle(n);
+                }
+            }
+            for (Node n : children) {
+                getNode().attachChild(n);
+            }
+        }
+        markDirty(0, Integer.MAX_VALUE);
+        invalidate();
+    }
+
+    /**
+     * Determina si el modo virtual está activo.
+     * @return boolean
+     */
+    public boolean isVirtualized() {
+        return virtualized;
+    }
+
+    /**
+     * Devuelve la altura total del contenido tras la última pasada de
+     * diseño, incluidas las filas que quedan fuera de la ventana visible. 
+     * Sirve para dimensionar una barra de desplazamiento.
+     * 
+     * @return altura del contenido.
+     */
+    public float getContentHeight() {
+        return contentHeight;
+    }
+
+    /**
+     * Devuelve el número de filas de la última pasada de diseño.
+     * @return número de filas.
+     */
+    public int getRowCount() {
+        return rowCount;
+    }
+    
+    /**
+     * Devuelve la fila que contenía a un hijo en la última pasada de diseño,
+     * mediante una búsqueda binaria en el índice de filas.
+     * 
+     * @param index índice del hijo.
+     * @return índice de la fila, o {@code -1} si los hijos han cambiado desde
+     * la última pasada de diseño.
+     */
+    public int rowOf(int index) {
+        if (index < 0 || index >= children.size()) {
+            throw new IllegalArgumentException("Invalid child index: " + index);
+        }
+        if (rowCount == 0 || dirtyFrom != Integer.MAX_VALUE) {
+            return -1;
+        }
+        return findRow(index);
+    }
+    
+    /**
+     * Busca la última fila que empieza en el hijo indicado o antes.
+     */
+    private int findRow(int index) {
+        int lo = 0, hi = rowCount - 1;
+        while (lo < hi) {
+            int mid = (lo + hi + 1) >>> 1;
+            if (rowStart[mid] <= index) {
+                lo = mid;
+            } else {
+                hi = mid - 1;
+            }
+        }
+        return Math.max(lo, 0);
+    }
+    
+    /**
+     * Busca la primera fila que termina por debajo de la coordenada
+     * indicada.
+     */
+    private int firstRow(float y) {
+        int lo = 0, hi = rowCount;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (rowY[mid] + rowHeight[mid] <= y) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+    
+    /**
+     * Devuelve el hijo siguiente al último de una fila.
+     */
+    private int rowEnd(int row) {
+        return (row + 1 < rowCount) ? rowStart[row + 1] : children.size();
+    }
+    
+    /**
+     * Devuelve el desplazamiento vertical de la ventana visible que deja la
+     * fila de un hijo en el borde superior; pensado para 
+     * {@link #setViewport(float, float, float, float)}.
+     * 
+     * @param index índice del hijo.
+     * @return coordenada superior de la fila, o {@code 0} si los hijos han
+     * cambiado desde la última pasada de diseño.
+     */
+    public float scrollOffsetFor(int index) {
+        int row = rowOf(index);
+        return (row == -1) ? 0 : rowY[row];
+    }
+    
+    /**
+     * Devuelve el hijo que ocupa un punto, en las mismas coordenadas que la
+     * ventana visible ({@code x} desde el borde izquierdo, {@code y} desde el
+     * borde superior hacia abajo). La fila se localiza con una búsqueda
+     * binaria; dentro de ella se recorren sus hijos.
+     * <p>
+     * En el modo virtual también se encuentran los hijos separados.
+     * </p>
+     * 
+     * @param x coordenada horizontal.
+     * @param y coordenada vertical.
+     * @return hijo, o {@code null} si el punto cae en un hueco o si los
+     * hijos han cambiado desde la última pasada de diseño.
+     */
+    public Node childAt(float x, float y) {
+        if (dirtyFrom != Integer.MAX_VALUE) {
+            return null;
+        }
+        int lo = 0, hi = rowCount - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (y < rowY[mid]) {
+                hi = mid - 1;
+            } else if (y >= rowY[mid] + rowHeight[mid]) {
+                lo = mid + 1;
+            } else {
+                int end = rowEnd(mid);
+                for (int i = rowStart[mid]; i < end; i++) {
+                    Tile tile = tiles.get(i);
+                    if (tile.member 
+                            && x >= tile.x && x < tile.x + tile.size.x
+                            && y >= tile.y && y < tile.y + tile.size.y) {
+                        return children.get(i);
+                    }
+                }
+                return null;
+            }
+        }
+        return null;
+    }
+    
+    /**
+     * Añade una fila al índice.
+     */
+    private void addRow(int start, float y, float height) {
+        if (rowCount == rowStart.length) {
+            int n = rowCount * 2;
+            rowStart = Arrays.copyOf(rowStart, n);
+            rowY = Arrays.copyOf(rowY, n);
+            rowHeight = Arrays.copyOf(rowHeight, n);
+        }
+        rowStart[rowCount] = start;
+        rowY[rowCount] = y;
+        rowHeight[rowCount] = height;
+        rowCount++;
+    }
+    
+    /**
+     * Marca los tamaños en caché de un componente como obsoletos. Solo es
+     * necesario en el modo virtual, para hijos que cambian mientras están
+     * fuera de la ventana visible.
+     * 
+     * @param component componente hijo.
+     */
+    public void invalidateComponent(Node component) {
+        int index = children.indexOf(component);
+        if (index == -1) {
+            throw new IllegalArgumentException("Component is not a child of this layout.");
+        }
+        Tile tile = tiles.get(index);
+        tile.stale = true;
+        pending.add(tile);
+        invalidate();
+    }
+    
+    /**
+     * Amplía el intervalo de hijos que han cambiado.
+     */
+    private void markDirty(int from, int end) {
+        dirtyFrom = Math.min(dirtyFrom, from);
+        dirtyEnd = Math.max(dirtyEnd, end);
+    }
+    
+    /**
+     * Determina si un hijo participa en el flujo: en el modo virtual lo
+     * hacen todos; en otro caso, solo los que están adjuntos.
+     */
+    private boolean isMember(int index) {
+        return virtualized || children.get(index).getParent() != null;
+    }
+    
+    /**
+     * Determina si los tamaños de un hijo deben leerse de nuevo. En el modo
+     * virtual solo se leen los obsoletos y los adjuntos.
+     */
+    private boolean needsUpdate(Tile tile) {
+        return !virtualized || tile.stale || tile.hints.getComponent().getParent() != null;
+    }
+    
+    /**
+     * Devuelve los tamaños de un hijo, leyéndolos de nuevo si es necesario.
+     */
+    private SizeHints measure(Tile tile) {
+        if (needsUpdate(tile)) {
+            tile.hints.update();
+            tile.stale = false;
+        }
+        return tile.hints;
+    }
 
     /**
      * (non-JavaDoc)
@@ -183,18 +577,36 @@ public class FlowLayout extends AbstractGuiComponent implements GuiLayout {
      */
     @Override
     public void calculatePreferredSize(Vector3f size) {
+        LayoutMetrics metrics = LayoutMonitor.getMetrics();
+        long startTime = 0, bytes = 0;
+        if (metrics != null) {
+            bytes = LayoutMonitor.allocatedBytes();
+            startTime = System.nanoTime();
+        }
+        
         Vector3f dim = new Vector3f(0.0F, 0.0F, 0.0F);
         boolean firstVisibleComponent = true;
+        int visible = 0;
 
-        for (Node m : children) {
-            if (m.getParent() != null) {
-                Vector3f d = m.getControl(GuiControl.class).getPreferredSize();
-                dim.y = Math.max(dim.y, d.y);
-                dim.z = Math.max(dim.z, d.z);
-                if (firstVisibleComponent) {
-                    firstVisibleComponent = false;
-                } else {
-                    dim.x += gap.x;
+        if (virtualized) {
+            visible = updatePreferredSize();
+            dim.set((float) prefWidth, prefHeight, prefDepth);
+            if (!tiles.isEmpty()) {
+                dim.x += gap.x * (tiles.size() - 1);
+            }
+        } else {
+            for (int i = 0; i < children.size(); i++) {
+                if (isMember(i)) {
+                    Vector3f d = measure(tiles.get(i)).getPreferredSize();
+                    visible++;
+                    dim.y = Math.max(dim.y, d.y);
+                    dim.z = Math.max(dim.z, d.z);
+                    if (firstVisibleComponent) {
+                        firstVisibleComponent = false;
+                    } else {
+                        dim.x += gap.x;
+                    }
+                    dim.x += d.x;
                 }
             }
         }
@@ -208,11 +620,97 @@ public class FlowLayout extends AbstractGuiComponent implements GuiLayout {
         dim.y += insets.min.y + insets.max.y + gap.y*2;
         dim.z += insets.min.z + insets.max.z + gap.z*2;
         size.set(dim);
+        
+        if (metrics != null) {
+            metrics.layoutPass(getNode(), this, LayoutMetrics.PREFERRED_SIZE,
+                    System.nanoTime() - startTime, LayoutMonitor.allocatedSince(bytes),
+                    children.size(), 0, 0, visible);
+        }
+    }
+    
+    /**
+     * Actualiza la suma de los anchos preferidos y las alturas máximas en el
+     * modo virtual, leyendo solo los hijos pendientes y los visibles. Si
+     * encoge el hijo más alto, se vuelven a recorrer todos.
+     * 
+     * @return número de hijos leídos.
+     */
+    private int updatePreferredSize() {
+        int count = 0;
+        if (prefValid) {
+            for (int i = 0; i < pending.size(); i++) {
+                Tile tile = pending.get(i);
+                if (tile.index != -1) {
+                    countPreferredSize(tile);
+                    count++;
+                }
+            }
+            for (int r = firstRow(lastViewY - 1); r < rowCount && rowY[r] < lastViewY + lastViewHeight + 1; r++) {
+                for (int i = rowStart[r], end = rowEnd(r); i < end; i++) {
+                    if (tiles.get(i).shown) {
+                        countPreferredSize(tiles.get(i));
+                        count++;
+                    }
+                }
+            }
+        }
+        if (!prefValid) {
+            prefWidth = 0;
+            prefHeight = prefDepth = 0;
+            for (int i = 0; i < tiles.size(); i++) {
+                Tile tile = tiles.get(i);
+                Vector3f d = tile.pref.set(measure(tile).getPreferredSize());
+                prefWidth += d.x;
+                prefHeight = Math.max(prefHeight, d.y);
+                prefDepth = Math.max(prefDepth, d.z);
+                tile.counted = true;
+            }
+            prefValid = true;
+            count = tiles.size();
+        }
+        return count;
+    }
+    
+    /**
+     * Sustituye el tamaño preferido de un hijo en la suma de anchos y las
+     * alturas máximas.
+     */
+    private void countPreferredSize(Tile tile) {
+        Vector3f d = measure(tile).getPreferredSize();
+        Vector3f old = tile.pref;
+        if (tile.counted) {
+            if (d.equals(old)) {
+                return;
+            }
+            if (!uncountPreferredSize(tile)) {
+                return;
+            }
+        }
+        prefWidth += d.x;
+        prefHeight = Math.max(prefHeight, d.y);
+        prefDepth = Math.max(prefDepth, d.z);
+        old.set(d);
+        tile.counted = true;
+    }
+    
+    /**
+     * Resta el tamaño preferido de un hijo de la suma de anchos.
+     * 
+     * @return {@code false} si era el más alto o el más profundo; entonces
+     * hay que recalcular todo.
+     */
+    private boolean uncountPreferredSize(Tile tile) {
+        if (tile.pref.y >= prefHeight || tile.pref.z >= prefDepth) {
+            prefValid = false;
+            return false;
+        }
+        prefWidth -= tile.pref.x;
+        tile.counted = false;
+        return true;
     }
     
     /**
      * Centra los elementos en la fila especificada, si hay holgura.
-     * @param target el componente que necesita ser movido
      * @param x la coordenada {@code x}.
      * @param y la coordenada {@code y}.
      * @param z la coordenada {@code z}.
@@ -222,40 +720,146 @@ public class FlowLayout extends AbstractGuiComponent implements GuiLayout {
      * @param rowEnd the ending of the row
      * @return altura de fila real
      */
-    private int moveComponents(Node target, float x, float y, float z, float width, float height,
+    private int moveComponents(float x, float y, float z, float width, float height,
                                 int rowStart, int rowEnd, boolean ltr) {
+        addRow(rowStart, y, height);
+        x += alignOffset(width, ltr);
+        for (int i = rowStart; i < rowEnd; i++) {
+            Tile tile = tiles.get(i);
+            if (tile.member) {
+                Vector3f d = tile.size;
+                tile.x = ltr ? x : passWidth - x - d.x;
+                tile.y = y + (height - d.y) / 2;
+                x += d.x + gap.x;
+                place(i);
+            }
+        }
+        return Float.valueOf(height).intValue();
+    }
+    
+    /**
+     * Devuelve el desplazamiento horizontal de una fila según la alineación.
+     * @param width holgura de la fila.
+     * @param ltr orientación de izquierda a derecha.
+     * @return desplazamiento.
+     */
+    private float alignOffset(float width, boolean ltr) {
         switch (align) {
             case LEFT: 
-                x += ltr ? 0 : width; 
-                break;
+                return ltr ? 0 : width; 
             case CENTER: 
-                x += width / 2;      
-                break;
+                return width / 2;      
             case RIGHT: 
-                x += ltr ? width : 0; 
-                break;
+                return ltr ? width : 0; 
             case LEADING:
-                break;
+                return 0;
             case TRAILING:
-                x += width;
+                // Aún no está implementado.
             default :
                 throw new AssertionError();
         }
-        for (int i = rowStart; i < rowEnd; i++) {
-            Node m = children.get(i);
+    }
+    
+    /**
+     * Determina si un hijo interseca la ventana visible.
+     */
+    private boolean isVisible(float x, float y, Vector3f size) {
+        return x < viewX + viewWidth && x + size.x > viewX
+            && y < viewY + viewHeight && y + size.y > viewY;
+    }
+    
+    /**
+     * En el modo virtual, marca un hijo recolocado para adjuntarlo o
+     * separarlo según interseque la ventana visible.
+     */
+    private void place(int index) {
+        if (!virtualized) {
+            return;
+        }
+        Tile tile = tiles.get(index);
+        Node m = children.get(index);
+        if (!isVisible(tile.x, tile.y, tile.size)) {
             if (m.getParent() != null) {
-                float cy = -(y + (height - m.getControl(GuiControl.class).getSize().y) / 2);
-                if ( ltr ) {
-                    m.setLocalTranslation(x, cy, z);
-                } else {
-                    m.setLocalTranslation(target.getControl(GuiControl.class).getSize().x - x - m.getControl(GuiControl.class).getSize().x, cy, z);
+                detachQueue.add(m);
+            }
+            tile.shown = false;
+            return;
+        }
+        if (m.getParent() == null) {
+            attachQueue.add(m);
+        }
+        tile.shown = true;
+    }
+    
+    /**
+     * Añade al resultado el tamaño y la posición de cada hijo que queda
+     * adjunto: todos los del flujo o, en el modo virtual, los de las filas
+     * que intersecan la ventana visible.
+     */
+    private void addBounds(LayoutResult store) {
+        int from = 0, to = rowCount;
+        if (virtualized) {
+            from = firstRow(viewY - 1);
+            while (to > from && rowY[to - 1] >= viewY + viewHeight + 1) {
+                to--;
+            }
+        }
+        for (int r = from; r < to; r++) {
+            for (int i = rowStart[r], end = rowEnd(r); i < end; i++) {
+                Tile tile = tiles.get(i);
+                if (tile.member && (!virtualized || tile.shown)) {
+                    Vector3f d = tile.size;
+                    store.add(tile.hints.getControl(), tile.x, -tile.y, lastZ, d.x, d.y, d.z);
                 }
-                x += m.getControl(GuiControl.class).getSize().x + gap.x;
             }
         }
-        return Float.valueOf(height).intValue();
+    }
+    
+    /**
+     * Adjunta y separa los hijos marcados por {@link #place}, en el mismo
+     * orden.
+     */
+    private void applyVisibility(Node target) {
+        for (int i = 0; i < detachQueue.size(); i++) {
+            Node n = detachQueue.get(i);
+            if (n.getParent() != null) {
+                recycle(n);
+            }
+        }
+        for (int i = 0; i < attachQueue.size(); i++) {
+            target.attachChild(attachQueue.get(i));
+        }
+        detachQueue.clear();
+        attachQueue.clear();
+    }
+    
+    /**
+     * Separa un hijo del nodo sin quitarlo del diseño.
+     * <p>
+     * <code>Container.detachChildAt(int)</code> elimina del diseño cualquier
+     * hijo que aparezca en {@link #getChildren()}; mientras dura la
+     * separación, ese método devuelve una lista vacía (igual que hace
+     * {@link CardLayout}).
+     * </p>
+     */
+    private void recycle(Node n) {
+        recycling = true;
+        try {
+            n.removeFromParent();
+        } finally {
+            recycling = false;
+        }
     }
     
+    /**
+     * (non-JavaDoc)
+     * @see LayoutBatch
+     */
+    @Override
+    protected void invalidate() {
+        LayoutBatch.invalidate(getGuiControl());
+    }
+
     /**
      * (non-JavaDoc)
      * @param pos vector-3f
@@ -264,25 +868,232 @@ public class FlowLayout extends AbstractGuiComponent implements GuiLayout {
      */
     @Override
     public void reshape(Vector3f pos, Vector3f size) {
+        LayoutMetrics metrics = LayoutMonitor.getMetrics();
+        long startTime = 0, bytes = 0;
+        if (metrics != null) {
+            bytes = LayoutMonitor.allocatedBytes();
+            startTime = System.nanoTime();
+        }
+        
+        try {
+            update(getGuiControl().getSize(), result);
+            applyVisibility(getNode());
+            result.commit();
+        } finally {
+            result.clear();
+        }
+        
+        if (metrics != null) {
+            metrics.layoutPass(getNode(), this, LayoutMetrics.RESHAPE,
+                    System.nanoTime() - startTime, LayoutMonitor.allocatedSince(bytes),
+                    children.size(), 0, children.size() - measured, measured);
+        }
+    }
+
+    /**
+     * (non-JavaDoc)
+     * <p>
+     * Calcula el flujo completo sin usar ni modificar el estado incremental
+     * de {@link #reshape} (índice de filas, intervalo de hijos cambiados,
+     * hijos visibles), de modo que se puede repetir y descartar su
+     * resultado. En el modo virtual solo se añaden los hijos que intersecan
+     * la ventana visible, adjuntos o no; {@link #reshape} es quien los
+     * adjunta.
+     * </p>
+     * @param size tamaño del contenedor, incluidos sus márgenes (el de su
+     * <code>GuiControl</code>).
+     * @param store resultado donde se añaden los límites.
+     * @see TwoPhaseLayout#compute(com.jme3.math.Vector3f, e.g.jme3hudl.LayoutResult) 
+     */
+    @Override
+    public void compute(Vector3f size, LayoutResult store) {
         Insets3f insets = ((Panel) getNode()).getInsets();
         if (insets == null) {
             insets = new Insets3f(new Vector3f(), new Vector3f());
         }
-        GuiControl target = getGuiControl();
+        float maxwidth = size.x - (insets.min.x + insets.max.x + gap.x * 2);
+        float left = insets.min.x + gap.x, y = insets.max.y + gap.y, z = insets.max.z + gap.z;
+        boolean ltr = false;
         
-        float maxwidth = target.getSize().x - (insets.min.x + insets.max.x + gap.x * 2);
-        float x = 0, y = insets.max.y + gap.y, z = insets.max.z + gap.z;
+        int nmembers = children.size();
+        for (int start = 0; start < nmembers; ) {
+            // Primero el ancho y la altura de la fila; después se colocan
+            // sus hijos, igual que en moveComponents().
+            float x = 0;
+            int rowh = 0, end = start;
+            for (; end < nmembers; end++) {
+                if (!isMember(end)) {
+                    continue;
+                }
+                Vector3f d = fit(tiles.get(end), maxwidth, childSize);
+                if ((x == 0) || ((x + d.x) <= maxwidth)) {
+                    if (x > 0) {
+                        x += gap.x;
+                    }
+                    x += d.x;
+                    rowh = Math.max(rowh, Float.valueOf(d.y).intValue());
+                } else {
+                    break;
+                }
+            }
+            float rx = left + alignOffset(maxwidth - x, ltr);
+            for (int i = start; i < end; i++) {
+                if (!isMember(i)) {
+                    continue;
+                }
+                Tile tile = tiles.get(i);
+                Vector3f d = fit(tile, maxwidth, childSize);
+                float tx = ltr ? rx : size.x - rx - d.x;
+                float ty = y + (rowh - d.y) / 2;
+                rx += d.x + gap.x;
+                if (!virtualized || isVisible(tx, ty, d)) {
+                    store.add(tile.hints.getControl(), tx, -ty, z, d.x, d.y, d.z);
+                }
+            }
+            y += gap.y + rowh;
+            start = end;
+        }
+    }
+    
+    /**
+     * Calcula los límites de la pasada de {@link #reshape}: los saltos de
+     * fila se recalculan de forma incremental, pero se añaden todos los
+     * hijos adjuntos. En el modo virtual, los hijos que aparecen o
+     * desaparecen se marcan para adjuntarlos o separarlos.
+     * 
+     * @param size tamaño del contenedor, incluidos sus márgenes.
+     * @param store resultado donde se añaden los límites.
+     */
+    private void update(Vector3f size, LayoutResult store) {
+        Insets3f insets = ((Panel) getNode()).getInsets();
+        if (insets == null) {
+            insets = new Insets3f(new Vector3f(), new Vector3f());
+        }
+        passWidth = size.x;
+        
+        float maxwidth = size.x - (insets.min.x + insets.max.x + gap.x * 2);
+        float left = insets.min.x + gap.x, top = insets.max.y + gap.y, z = insets.max.z + gap.z;
         
+        // Si cambia la geometría del contenedor se recolocan todas las filas.
+        boolean full = rowCount == 0 || maxwidth != lastWidth 
+                    || left != lastLeft || top != lastTop || z != lastZ;
+        if (full) {
+            lastWidth = maxwidth;
+            lastLeft = left;
+            lastTop = top;
+            lastZ = z;
+            rowCount = 0;
+            markDirty(0, Integer.MAX_VALUE);
+        }
+        
+        measured = 0;
+        if (virtualized) {
+            // Normalmente ya se hizo en calculatePreferredSize(); así no se
+            // pierde ningún hijo pendiente si se asigna el tamaño sin pedirlo.
+            updatePreferredSize();
+        }
+        measureChanges(maxwidth, full);
+        if (dirtyFrom != Integer.MAX_VALUE) {
+            reflow(maxwidth);
+        }
+        if (virtualized) {
+            updateVisibility();
+        }
+        contentHeight = rowY[rowCount - 1] + rowHeight[rowCount - 1] + gap.y + insets.min.y;
+        dirtyFrom = Integer.MAX_VALUE;
+        dirtyEnd = 0;
+        addBounds(store);
+    }
+    
+    /**
+     * Vuelve a medir los hijos que pueden haber cambiado y marca los que lo
+     * han hecho. Sin el modo virtual se miden todos, pues Lemur no indica
+     * qué hijo ha cambiado; en el modo virtual, solo los pendientes y los
+     * visibles.
+     */
+    private void measureChanges(float maxwidth, boolean full) {
+        if (full || !virtualized) {
+            for (int i = 0; i < tiles.size(); i++) {
+                remeasure(i, maxwidth);
+            }
+        } else {
+            for (int i = 0; i < pending.size(); i++) {
+                Tile tile = pending.get(i);
+                if (tile.index != -1) {
+                    remeasure(tile.index, maxwidth);
+                }
+            }
+            for (int r = firstRow(lastViewY - 1); r < rowCount && rowY[r] < lastViewY + lastViewHeight + 1; r++) {
+                for (int i = rowStart[r], end = rowEnd(r); i < end; i++) {
+                    if (tiles.get(i).shown) {
+                        remeasure(i, maxwidth);
+                    }
+                }
+            }
+        }
+        pending.clear();
+    }
+    
+    /**
+     * Calcula el tamaño que se asigna a un hijo: el preferido, salvo que sea
+     * más ancho que la fila; entonces se encoge hasta su tamaño mínimo, si
+     * lo declara.
+     */
+    private Vector3f fit(Tile tile, float maxwidth, Vector3f store) {
+        SizeHints sh = measure(tile);
+        store.set(sh.getPreferredSize());
+        if (store.x > maxwidth) {
+            store.x = Math.max(sh.getMinimumSize().x, maxwidth);
+        }
+        return store;
+    }
+    
+    /**
+     * Calcula el tamaño que se asigna a un hijo y lo marca si ha cambiado.
+     */
+    private void remeasure(int index, float maxwidth) {
+        Tile tile = tiles.get(index);
+        boolean member = isMember(index);
+        if (member != tile.member) {
+            tile.member = member;
+            markDirty(index, index + 1);
+        }
+        if (!member) {
+            return;
+        }
+        if (needsUpdate(tile)) {
+            measured++;
+        }
+        Vector3f d = fit(tile, maxwidth, childSize);
+        if (!d.equals(tile.size)) {
+            tile.size.set(d);
+            markDirty(index, index + 1);
+        }
+    }
+    
+    /**
+     * Recoloca las filas desde la que contiene al primer hijo que ha
+     * cambiado, hasta que una fila vuelve a empezar en el mismo hijo y a la
+     * misma altura que en la pasada anterior.
+     */
+    private void reflow(float maxwidth) {
         int nmembers = children.size();
-        int rowh = 0, start = 0;
+        int row = findRow(dirtyFrom);
+        if (row > 0 && rowStart[row] >= dirtyFrom) {
+            // El primer hijo de la fila puede caber ahora en la anterior.
+            row--;
+        }
+        int start = (rowCount == 0) ? 0 : rowStart[row];
+        float x = 0, y = (rowCount == 0) ? lastTop : rowY[row];
+        int oldCount = rowCount, old = row;
+        rowCount = row;
         
+        int rowh = 0;
         boolean ltr = false;
-        for (int i = 0; i < nmembers; i++) {
-            Node m = children.get(i);
-            if (m.getParent() != null) {
-                Vector3f d = m.getControl(GuiControl.class).getPreferredSize();
-                m.getControl(GuiControl.class).setSize(d);
-                
+        for (int i = start; i < nmembers; i++) {
+            Tile tile = tiles.get(i);
+            if (tile.member) {
+                Vector3f d = tile.size;
                 if ((x == 0) || ((x + d.x) <= maxwidth)) {
                     if (x > 0) {
                         x += gap.x;
@@ -290,16 +1101,63 @@ public class FlowLayout extends AbstractGuiComponent implements GuiLayout {
                     x += d.x;
                     rowh = Math.max(rowh, Float.valueOf(d.y).intValue());
                 } else {
-                    rowh = moveComponents(target.getNode(), insets.min.x + gap.x, y, z, maxwidth - x, rowh, start, i, ltr);
+                    rowh = moveComponents(lastLeft, y, lastZ, maxwidth - x, rowh, start, i, ltr);
                     x = d.x;
                     y += gap.y + rowh;
                     rowh = Float.valueOf(d.y).intValue();
                     start = i;
+                    
+                    if (i >= dirtyEnd) {
+                        // Las filas ya sobrescritas empiezan antes de este
+                        // hijo, así que se saltan sin compararlas.
+                        while (old < oldCount && rowStart[old] < i) {
+                            old++;
+                        }
+                        if (old < oldCount && rowStart[old] == i && rowY[old] == y) {
+                            int tail = oldCount - old;
+                            System.arraycopy(rowStart, old, rowStart, rowCount, tail);
+                            System.arraycopy(rowY, old, rowY, rowCount, tail);
+                            System.arraycopy(rowHeight, old, rowHeight, rowCount, tail);
+                            rowCount += tail;
+                            return;
+                        }
+                    }
+                }
+            }
+        }
+        moveComponents(lastLeft, y, lastZ, maxwidth - x, rowh, start, nmembers, ltr);
+    }
+    
+    /**
+     * Adjunta o separa los hijos de las filas que intersecan la ventana
+     * visible anterior o la actual, sin recorrer el resto.
+     */
+    private void updateVisibility() {
+        if (viewX != lastViewX || viewY != lastViewY 
+                || viewWidth != lastViewWidth || viewHeight != lastViewHeight) {
+            showRows(lastViewY, lastViewHeight);
+            showRows(viewY, viewHeight);
+            lastViewX = viewX;
+            lastViewY = viewY;
+            lastViewWidth = viewWidth;
+            lastViewHeight = viewHeight;
+        }
+    }
+    
+    /**
+     * Aplica {@link #place(int)} a los hijos de las filas comprendidas
+     * entre dos coordenadas.
+     */
+    private void showRows(float top, float height) {
+        // La altura de fila se trunca a un entero; un hijo centrado puede
+        // sobresalir hasta media unidad.
+        for (int r = firstRow(top - 1); r < rowCount && rowY[r] < top + height + 1; r++) {
+            for (int i = rowStart[r], end = rowEnd(r); i < end; i++) {
+                if (tiles.get(i).member) {
+                    place(i);
                 }
             }
         }
-        
-        moveComponents(target.getNode(), insets.min.x + gap.x, y, z, maxwidth - x, rowh, start, nmembers, ltr);
     }
 
     /**
@@ -322,9 +1180,13 @@ public class FlowLayout extends AbstractGuiComponent implements GuiLayout {
         }
         
         if (!children.contains(n)) {
+            Tile tile = new Tile(n, tiles.size());
             children.add(n);
+            tiles.add(tile);
+            pending.add(tile);
+            markDirty(tile.index, Integer.MAX_VALUE);
         }
-        if (isAttached()) {
+        if (isAttached() && !virtualized) {
             getNode().attachChild(n);
         }
         invalidate();
@@ -338,8 +1200,18 @@ public class FlowLayout extends AbstractGuiComponent implements GuiLayout {
      */
     @Override
     public void removeChild(Node n) {
-        if (children.contains(n) 
-                && children.remove(n)) {
+        int index = children.indexOf(n);
+        if (index != -1) {
+            Tile tile = tiles.remove(index);
+            children.remove(index);
+            tile.index = -1;
+            if (virtualized && prefValid && tile.counted) {
+                uncountPreferredSize(tile);
+            }
+            for (int i = index; i < tiles.size(); i++) {
+                tiles.get(i).index = i;
+            }
+            markDirty(index, Integer.MAX_VALUE);
             n.removeFromParent();
             invalidate();
         }
@@ -354,6 +1226,9 @@ public class FlowLayout extends AbstractGuiComponent implements GuiLayout {
      */
     @Override
     public Collection<Node> getChildren() {
+        if (recycling) {
+            return Collections.emptyList();
+        }
         return Collections.unmodifiableList(children);
     }
 
@@ -364,9 +1239,13 @@ public class FlowLayout extends AbstractGuiComponent implements GuiLayout {
     @Override
     public void clearChildren() {
         for (final Node entry : children) {
-            entry.removeFromParent();
+            recycle(entry);
         }
         children.clear();
+        tiles.clear();
+        pending.clear();
+        rowCount = 0;
+        prefValid = false;
         invalidate();
     }
 
@@ -392,8 +1271,10 @@ public class FlowLayout extends AbstractGuiComponent implements GuiLayout {
     @Override
     public void attach(GuiControl parent) {
         super.attach(parent);
-        for ( Node n : children ) {
-            getNode().attachChild(n);
+        for (int i = 0; i < children.size(); i++) {
+            if (!virtualized || tiles.get(i).shown) {
+                getNode().attachChild(children.get(i));
+            }
         }
     }
 
@@ -43,6 +43,7 @@ import e.g.jme3hudl.LayoutStyle.ComponentPlacement;
 import sun.e.g.jme3hudl.BaselineResizeBehavior;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
@@ -51,6 +52,9 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
 import java.util.logging.Logger;
 
 /**
@@ -59,7 +63,7 @@ import java.util.logging.Logger;
  * 
  * @author wil
  */
-public class GroupLayout extends AbstractGuiComponent implements GuiLayout {
+public class GroupLayout extends AbstractGuiComponent implements TwoPhaseLayout {
 
     /** Loggers de la clase <code>GroupLayout</code>. */
     private static final Logger LOG = Logger.getLogger(GroupLayout.class.getName());
@@ -72,7 +76,7 @@ public class GroupLayout extends AbstractGuiComponent implements GuiLayout {
     private static final int MAX_SIZE = 2;
 
     /*
-        Usado por prepare, indica que min, pref o max no se usarán.
+        Usado por solveAxes, indica que min, pref o max no se usarán.
     */
     private static final int SPECIFIC_SIZE = 3;
     private static final int UNSET = Integer.MIN_VALUE;
@@ -94,6 +98,12 @@ public class GroupLayout extends AbstractGuiComponent implements GuiLayout {
      * usarse para un valor de rango particular.
      */
     public static final int PREFERRED_SIZE = -2;
+    
+    /**
+     * Número de componentes a partir del cual, por defecto, los ejes se
+     * resuelven en paralelo cuando hay un {@link #setAxisPool(ForkJoinPool)}.
+     */
+    public static final int DEFAULT_PARALLEL_THRESHOLD = 1000;
 
     /*
         Si intentamos o no, automáticamente creara el acolchado
@@ -120,14 +130,69 @@ public class GroupLayout extends AbstractGuiComponent implements GuiLayout {
     // information specific to a Component.
     private Map<Node,ComponentInfo> componentInfos;
 
+    // Mismos valores que componentInfos, en una lista para recorrerlos en
+    // cada pasada sin crear iteradores.
+    private List<ComponentInfo> componentInfoList;
+
+    // Márgenes usados cuando el contenedor no tiene ninguno.
+    private final Insets3f emptyInsets = new Insets3f(new Vector3f(), new Vector3f());
+
     // Container we're doing layout for.
     private Node host;
-    private Set<Spring> tmpParallelSet;
+    // Antecesores del resorte origen en areParallelSiblings(); la jerarquía
+    // es poco profunda, una lista evita crear nodos de HashSet en cada consulta.
+    private List<Spring> tmpParallelPath;
+
+    // Componentes cuyo tamaño cambió desde la última pasada; solo se
+    // recalculan sus resortes y los grupos que los contienen.
+    private Set<ComponentInfo> dirtyComponents;
     
     private boolean springsChanged;
     private boolean isValid;
     private boolean hasPreferredPaddingSprings;
     private boolean honorsVisibility;
+    
+    // Accesos a los tamaños de los hijos que se reutilizaron o se volvieron a
+    // leer; solo se informan a LayoutMetrics.
+    private int sizeHintHits;
+    private int sizeHintMisses;
+    // Falso mientras los ejes se resuelven en paralelo: ambos hilos leen los
+    // tamaños ya actualizados y no deben tocar los contadores.
+    private boolean countSizeHints = true;
+
+    // Copias aplanadas de los grupos de nivel superior, ver SpringTree.
+    private final SpringTree horizontalTree = new SpringTree(HORIZONTAL);
+    private final SpringTree verticalTree = new SpringTree(VERTICAL);
+    private boolean flattenedSolver = false;
+    
+    // Resolución en paralelo de los ejes, ver setAxisPool().
+    private ForkJoinPool axisPool;
+    private int parallelThreshold = DEFAULT_PARALLEL_THRESHOLD;
+    private AxisTask axisTask;
+    
+    // Límites de los hijos calculados en reshape, antes de aplicarlos.
+    private final LayoutResult result = new LayoutResult();
+    
+    // Tamaño de cada eje: el asignado en reshape o el calculado en
+    // calculatePreferredSize, indexado por HORIZONTAL y VERTICAL.
+    private final float[] axisSizes = new float[2];
+
+    // Se incrementa cada vez que se añade o se quita un resorte de un grupo.
+    private int springStructureVersion;
+    
+    // Se incrementa en cada invalidación completa; los rellenos resueltos con
+    // el LayoutStyle de una versión anterior se vuelven a consultar.
+    private int gapVersion;
+    
+    // Rellenos automáticos vaciados en removeAutopadding(), para soltar sus
+    // coincidencias antiguas al terminar insertAutopadding().
+    private final List<AutoPreferredGapSpring> resetGaps = new ArrayList<>();
+    
+    // Listas reutilizadas en cada insertAutopadding().
+    private final List<AutoPreferredGapSpring> leadingPaddingScratch = new ArrayList<>(1);
+    private final List<AutoPreferredGapSpring> trailingPaddingScratch = new ArrayList<>(1);
+    private final List<ComponentSpring> leadingScratch = new ArrayList<>(1);
+    private final List<ComponentSpring> trailingScratch = new ArrayList<>(1);
     //private boolean invalidateHost;
     
     
@@ -208,7 +273,9 @@ public class GroupLayout extends AbstractGuiComponent implements GuiLayout {
         GroupLayout.this.setHorizontalGroup(GroupLayout.this.createParallelGroup(Alignment.LEADING, true));
         GroupLayout.this.setVerticalGroup(GroupLayout.this.createParallelGroup(Alignment.LEADING, true));
         componentInfos = new HashMap<>();
-        tmpParallelSet = new HashSet<>();
+        componentInfoList = new ArrayList<>();
+        tmpParallelPath = new ArrayList<>();
+        dirtyComponents = new HashSet<>();
     }
     
     public void setHonorsVisibility(boolean honorsVisibility) {
@@ -223,6 +290,77 @@ public class GroupLayout extends AbstractGuiComponent implements GuiLayout {
     public boolean getHonorsVisibility() {
         return honorsVisibility;
     }
+
+    /**
+     * Establece si los grupos se resuelven con la versión aplanada del árbol
+     * de resortes o recorriendo directamente los objetos {@code Spring} (por
+     * defecto). Ambos métodos producen los mismos límites; la versión
+     * aplanada es opcional mientras <code>GroupLayoutBenchmark</code> no
+     * muestre una mejora clara frente al recorrido de objetos.
+     * 
+     * @param flattenedSolver <code>true</code> para usar los arreglos.
+     */
+    public void setFlattenedSolver(boolean flattenedSolver) {
+        if (this.flattenedSolver != flattenedSolver) {
+            this.flattenedSolver = flattenedSolver;
+            invalidate();
+        }
+    }
+
+    public boolean getFlattenedSolver() {
+        return flattenedSolver;
+    }
+    
+    /**
+     * Establece el <code>ForkJoinPool</code> en el que se resuelve el eje
+     * vertical mientras el hilo que diseña resuelve el horizontal. Los
+     * tamaños de los hijos se leen antes de repartir el trabajo y los límites
+     * se aplican después, siempre en el hilo que llama a
+     * <code>reshape</code>, por lo que el grafo de escena solo se modifica
+     * desde el hilo de renderizado.
+     * <p>
+     * Solo se usa con el solucionador aplanado, cuando el diseño tiene al
+     * menos {@link #getParallelThreshold()} componentes y ninguno de sus ejes
+     * contiene grupos de línea base (que enlazan los dos ejes); en otro caso
+     * los ejes se resuelven uno detrás de otro. El {@link LayoutStyle} debe
+     * admitir consultas desde varios hilos.
+     * </p>
+     * <p>
+     * Este modo es experimental: aún no se ha medido una mejora con él, ver
+     * <code>GroupLayoutAxisBenchmark</code>.
+     * </p>
+     * 
+     * @param axisPool grupo de hilos, o <code>null</code> (por defecto) para
+     * resolver siempre en el hilo que diseña.
+     */
+    public void setAxisPool(ForkJoinPool axisPool) {
+        this.axisPool = axisPool;
+        if (axisPool != null && axisTask == null) {
+            axisTask = new AxisTask();
+        }
+    }
+
+    public ForkJoinPool getAxisPool() {
+        return axisPool;
+    }
+
+    /**
+     * Establece el número mínimo de componentes para resolver los ejes en
+     * paralelo. Por debajo de él el coste de repartir el trabajo supera lo
+     * que se gana, ver <code>GroupLayoutAxisBenchmark</code>.
+     * 
+     * @param parallelThreshold número de componentes, mayor o igual que 0.
+     */
+    public void setParallelThreshold(int parallelThreshold) {
+        if (parallelThreshold < 0) {
+            throw new IllegalArgumentException("Threshold must be >= 0");
+        }
+        this.parallelThreshold = parallelThreshold;
+    }
+
+    public int getParallelThreshold() {
+        return parallelThreshold;
+    }
     
     public void setHonorsVisibility(Node component,
             Boolean honorsVisibility) {
@@ -408,24 +546,92 @@ public class GroupLayout extends AbstractGuiComponent implements GuiLayout {
         return layoutStyle0;
     }
     
+    /**
+     * (non-JavaDoc)
+     * @see LayoutBatch
+     */
     @Override
     protected void invalidate() {
-        super.invalidate();
+        LayoutBatch.invalidate(getGuiControl());
         isValid = false;
     }
+
+    /**
+     * Invalida únicamente los resortes del componente dado.
+     * <p>
+     * A diferencia de una invalidación completa, solo se descartan los
+     * tamaños (min/pref/max) del componente y de los grupos que lo contienen;
+     * el resto del árbol de resortes conserva sus valores en caché. Debe
+     * invocarse cuando cambia el tamaño preferido de un componente hijo, por
+     * ejemplo al cambiar el texto de una etiqueta.
+     * </p>
+     * <p>
+     * Si el contenedor de este diseño es a su vez hijo de otro
+     * <code>GroupLayout</code>, la invalidación se propaga hacia arriba.
+     * </p>
+     * 
+     * @param component componente hijo que cambió.
+     */
+    public void invalidateComponent(Node component) {
+        if (component == null) {
+            throw new IllegalArgumentException("Component must be non-null");
+        }
+        ComponentInfo info = componentInfos.get(component);
+        if (info == null) {
+            throw new IllegalArgumentException("Component must already exist");
+        }
+        if (isValid) {
+            dirtyComponents.add(info);
+        }
+        LayoutBatch.invalidate(getGuiControl());
+
+        // El tamaño de este contenedor también puede cambiar, se avisa al
+        // diseño del contenedor padre si es otro GroupLayout.
+        Node parent = host.getParent();
+        if (parent != null) {
+            GuiControl control = parent.getControl(GuiControl.class);
+            if (control != null && (control.getLayout() instanceof GroupLayout)) {
+                GroupLayout layout = control.getLayout();
+                if (layout.componentInfos.containsKey(host)) {
+                    layout.invalidateComponent(host);
+                }
+            }
+        }
+    }
         
-    private void prepare(int sizeType) {
+    /**
+     * Determina si el componente forma parte de este diseño.
+     * 
+     * @param component componente hijo.
+     * @return <code>true</code> si el diseño lo contiene.
+     */
+    boolean hasComponent(Node component) {
+        return componentInfos.containsKey(component);
+    }
+
+    private void prepare() {
         boolean visChanged = false;
         if (!isValid) {
             isValid = true;
+            gapVersion++;
+            dirtyComponents.clear();
             horizontalGroup.setSize(HORIZONTAL, UNSET, UNSET);
             verticalGroup.setSize(VERTICAL, UNSET, UNSET);
-            for (ComponentInfo ci : componentInfos.values()) {
+            for (int i = 0; i < componentInfoList.size(); i++) {
+                ComponentInfo ci = componentInfoList.get(i);
                 if (ci.updateVisibility()) {
                     visChanged = true;
                 }
                 ci.clearCachedSize();
             }
+        } else if (!dirtyComponents.isEmpty()) {
+            for (ComponentInfo ci : dirtyComponents) {
+                if (ci.updateVisibility()) {
+                    visChanged = true;
+                }
+                ci.invalidateSprings();
+            }
+            dirtyComponents.clear();
         }
         if (springsChanged) {
             registerComponents(horizontalGroup, HORIZONTAL);
@@ -442,34 +648,146 @@ public class GroupLayout extends AbstractGuiComponent implements GuiLayout {
                     getAutoCreateContainerGaps()) {
                 insertAutopadding(false);
             }
+            
+            // Las coincidencias que no se reutilizaron ya no sirven.
+            for (int i = resetGaps.size() - 1; i >= 0; i--) {
+                resetGaps.get(i).releaseStale();
+            }
+            resetGaps.clear();
             springsChanged = false;
         }
+        if (flattenedSolver) {
+            horizontalTree.update(horizontalGroup);
+            verticalTree.update(verticalGroup);
+        }
+    }
+    
+    /**
+     * Resuelve los dos ejes, con su relleno automático si lo hay. Con
+     * <code>SPECIFIC_SIZE</code> asigna a cada grupo el tamaño de
+     * {@link #axisSizes}; con otro tipo deja allí el tamaño de cada grupo.
+     */
+    private void solveAxes(int sizeType) {
+        boolean autopadding = getAutoCreateGaps() ||
+                getAutoCreateContainerGaps() || hasPreferredPaddingSprings;
+        if (!isParallel()) {
+            axisSizes[HORIZONTAL] = solveAxis(HORIZONTAL, sizeType, autopadding);
+            axisSizes[VERTICAL] = solveAxis(VERTICAL, sizeType, autopadding);
+            return;
+        }
         
-        if (sizeType != SPECIFIC_SIZE && (getAutoCreateGaps() ||
-                getAutoCreateContainerGaps() || hasPreferredPaddingSprings)) {
-            calculateAutopadding(horizontalGroup, HORIZONTAL, sizeType, 0, 0);
-            calculateAutopadding(verticalGroup, VERTICAL, sizeType, 0, 0);
+        // Lemur no admite consultas desde otros hilos: los tamaños de los
+        // hijos se leen aquí y los dos ejes solo consultan la copia.
+        for (int i = 0; i < componentInfoList.size(); i++) {
+            componentInfoList.get(i).getSizeHints();
+        }
+        AxisTask task = axisTask;
+        task.reinitialize();
+        task.sizeType = sizeType;
+        task.autopadding = autopadding;
+        countSizeHints = false;
+        boolean pending = false;
+        try {
+            if (ForkJoinTask.getPool() == axisPool) {
+                task.fork();
+            } else {
+                axisPool.execute(task);
+            }
+            pending = true;
+            axisSizes[HORIZONTAL] = solveAxis(HORIZONTAL, sizeType, autopadding);
+            pending = false;
+            if (task.tryUnfork()) {
+                task.invoke();
+            } else {
+                task.join();
+            }
+        } finally {
+            // Si el eje horizontal falla, el vertical no puede seguir
+            // modificando los resortes cuando empiece la siguiente pasada.
+            if (pending && !task.tryUnfork()) {
+                task.quietlyJoin();
+            }
+            countSizeHints = true;
         }
+        axisSizes[VERTICAL] = task.size;
     }
 
-    private void calculateAutopadding(Group group, int axis, int sizeType,
-            float origin, float size) {
-        group.unsetAutopadding();
+    private boolean isParallel() {
+        return axisPool != null && flattenedSolver
+                && componentInfoList.size() >= parallelThreshold
+                && !horizontalTree.hasNested() && !verticalTree.hasNested();
+    }
+
+    private float solveAxis(int axis, int sizeType, boolean autopadding) {
+        Group group = (axis == HORIZONTAL) ? horizontalGroup : verticalGroup;
+        SpringTree tree = (axis == HORIZONTAL) ? horizontalTree : verticalTree;
+        float size = axisSizes[axis];
+        if (autopadding) {
+            calculateAutopadding(group, tree, axis, sizeType, 0, size);
+        }
+        if (sizeType == SPECIFIC_SIZE) {
+            setGroupSize(group, tree, axis, 0, size);
+            return size;
+        }
+        return getGroupSize(group, tree, axis, sizeType);
+    }
+
+    /**
+     * Resuelve el eje vertical en el <code>axisPool</code>. Se reutiliza en
+     * cada pasada con <code>reinitialize()</code>.
+     */
+    private final class AxisTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        
+        int sizeType;
+        boolean autopadding;
+        float size;
+
+        @Override
+        protected void compute() {
+            size = solveAxis(VERTICAL, sizeType, autopadding);
+        }
+    }
+
+    private void calculateAutopadding(Group group, SpringTree tree, int axis,
+            int sizeType, float origin, float size) {
+        if (flattenedSolver) {
+            tree.unsetAutopadding();
+        } else {
+            group.unsetAutopadding();
+        }
+        if (sizeType != SPECIFIC_SIZE) {
+            size = getGroupSize(group, tree, axis, sizeType);
+        }
+        setGroupSize(group, tree, axis, origin, size);
+        if (flattenedSolver) {
+            tree.calculateAutopadding();
+        } else {
+            group.calculateAutopadding(axis);
+        }
+    }
+
+    private float getGroupSize(Group group, SpringTree tree, int axis, int sizeType) {
+        if (flattenedSolver) {
+            return tree.getSize(sizeType);
+        }
         switch(sizeType) {
             case MIN_SIZE:
-                size = group.getMinimumSize(axis);
-                break;
-            case PREF_SIZE:
-                size = group.getPreferredSize(axis);
-                break;
+                return group.getMinimumSize(axis);
             case MAX_SIZE:
-                size = group.getMaximumSize(axis);
-                break;
+                return group.getMaximumSize(axis);
             default:
-                break;
+                return group.getPreferredSize(axis);
+        }
+    }
+
+    private void setGroupSize(Group group, SpringTree tree, int axis,
+            float origin, float size) {
+        if (flattenedSolver) {
+            tree.setSize(origin, size);
+        } else {
+            group.setSize(axis, origin, size);
         }
-        group.setSize(axis, origin, size);
-        group.calculateAutopadding(axis);
     }
 
     private void checkComponents() {
@@ -497,16 +815,21 @@ public class GroupLayout extends AbstractGuiComponent implements GuiLayout {
         }
     }
 
-    private Vector3f adjustSize(float width, float height) {
+    private void adjustSize(Vector3f store, float width, float height) {
+        Insets3f insets = getInsets(host);
+        store.set(width + insets.min.x + insets.max.x,
+                height + insets.min.x + insets.max.y, 0);
+    }
+
+    private Insets3f getInsets(Node node) {
         Insets3f insets = null;
-        if (host instanceof Panel) {
-            insets = ((Panel) host).getInsets();
+        if (node instanceof Panel) {
+            insets = ((Panel) node).getInsets();
         }
         if (insets == null) {
-            insets = new Insets3f(new Vector3f(), new Vector3f());
+            insets = emptyInsets;
         }
-        return new Vector3f(width + insets.min.x + insets.max.x,
-                height + insets.min.x + insets.max.y, 0);
+        return insets;
     }
 
     private void checkParent(Node parent) {
@@ -521,6 +844,7 @@ public class GroupLayout extends AbstractGuiComponent implements GuiLayout {
         if (info == null) {
             info = new ComponentInfo(component);
             componentInfos.put(component, info);
+            componentInfoList.add(info);
             if (component.getParent() != host) {
                 /*host.add(component);*/
                 host.getControl(GuiControl.class).getLayout().addChild(component);
@@ -530,16 +854,17 @@ public class GroupLayout extends AbstractGuiComponent implements GuiLayout {
     }
     
     private void insertAutopadding(boolean insert) {
-        horizontalGroup.insertAutopadding(HORIZONTAL,
-                new ArrayList<>(1),
-                new ArrayList<>(1),
-                new ArrayList<>(1),
-                new ArrayList<>(1), insert);
-        verticalGroup.insertAutopadding(VERTICAL,
-                new ArrayList<>(1),
-                new ArrayList<>(1),
-                new ArrayList<>(1),
-                new ArrayList<>(1), insert);
+        insertAutopadding(horizontalGroup, HORIZONTAL, insert);
+        insertAutopadding(verticalGroup, VERTICAL, insert);
+    }
+    
+    private void insertAutopadding(Group group, int axis, boolean insert) {
+        leadingPaddingScratch.clear();
+        trailingPaddingScratch.clear();
+        leadingScratch.clear();
+        trailingScratch.clear();
+        group.insertAutopadding(axis, leadingPaddingScratch,
+                trailingPaddingScratch, leadingScratch, trailingScratch, insert);
     }
     
     private boolean areParallelSiblings(Node source, Node target,
@@ -555,7 +880,7 @@ public class GroupLayout extends AbstractGuiComponent implements GuiLayout {
             sourceSpring = sourceInfo.verticalSpring;
             targetSpring = targetInfo.verticalSpring;
         }
-        Set<Spring> sourcePath = tmpParallelSet;
+        List<Spring> sourcePath = tmpParallelPath;
         sourcePath.clear();
         Spring spring = sourceSpring.getParent();
         while (spring != null) {
@@ -582,44 +907,88 @@ public class GroupLayout extends AbstractGuiComponent implements GuiLayout {
     
     @Override
     public void calculatePreferredSize(Vector3f size) {
+        LayoutMetrics metrics = LayoutMonitor.getMetrics();
+        long startTime = 0, bytes = 0;
+        int hits = sizeHintHits, misses = sizeHintMisses;
+        if (metrics != null) {
+            bytes = LayoutMonitor.allocatedBytes();
+            startTime = System.nanoTime();
+        }
+        
         checkParent(getNode());
-        prepare(PREF_SIZE);
-        Vector3f dim = adjustSize(horizontalGroup.getPreferredSize(HORIZONTAL),
-                verticalGroup.getPreferredSize(VERTICAL));
-        size.set(dim);
+        prepare();
+        solveAxes(PREF_SIZE);
+        adjustSize(size, axisSizes[HORIZONTAL], axisSizes[VERTICAL]);
+        
+        if (metrics != null) {
+            metrics.layoutPass(getNode(), this, LayoutMetrics.PREFERRED_SIZE,
+                    System.nanoTime() - startTime, LayoutMonitor.allocatedSince(bytes),
+                    componentInfoList.size(), 0, sizeHintHits - hits, sizeHintMisses - misses);
+        }
     }
 
     @Override
     public void reshape(Vector3f pos, Vector3f size) {
-        prepare(SPECIFIC_SIZE);
-        Insets3f insets = null;
-        if (getNode() instanceof Panel) {
-            insets = ((Panel) getNode()).getInsets();
+        LayoutMetrics metrics = LayoutMonitor.getMetrics();
+        long startTime = 0, bytes = 0;
+        int hits = sizeHintHits, misses = sizeHintMisses;
+        if (metrics != null) {
+            bytes = LayoutMonitor.allocatedBytes();
+            startTime = System.nanoTime();
         }
-        if (insets == null) {
-            insets = new Insets3f(new Vector3f(), new Vector3f());
+        
+        try {
+            compute(size, result);
+            result.commit();
+        } finally {
+            result.clear();
         }
+        
+        if (metrics != null) {
+            metrics.layoutPass(getNode(), this, LayoutMetrics.RESHAPE,
+                    System.nanoTime() - startTime, LayoutMonitor.allocatedSince(bytes),
+                    componentInfoList.size(), countSprings(horizontalGroup) + countSprings(verticalGroup),
+                    sizeHintHits - hits, sizeHintMisses - misses);
+        }
+    }
+
+    /**
+     * (non-JavaDoc)
+     * @param size tamaño del contenedor, el que recibe <code>reshape</code>.
+     * @param store resultado donde se añaden los límites.
+     * @see TwoPhaseLayout#compute(com.jme3.math.Vector3f, e.g.jme3hudl.LayoutResult) 
+     */
+    @Override
+    public void compute(Vector3f size, LayoutResult store) {
+        prepare();
+        Insets3f insets = getInsets(getNode());
 
         checkParent(getNode());
-        Vector3f dim = getGuiControl().getPreferredSize();
-        float width = dim.x - insets.min.x - insets.max.x;
-        float height = dim.y - insets.min.y - insets.max.y;
+        float width = size.x - insets.min.x - insets.max.x;
+        float height = size.y - insets.min.y - insets.max.y;
         
         boolean ltr = isLeftToRight();
-        if (getAutoCreateGaps() || getAutoCreateContainerGaps() ||
-                hasPreferredPaddingSprings) {
-            calculateAutopadding(horizontalGroup, HORIZONTAL, SPECIFIC_SIZE, 0,
-                    width);
-            calculateAutopadding(verticalGroup, VERTICAL, SPECIFIC_SIZE, 0,
-                    height);
-        }
-        
-        horizontalGroup.setSize(HORIZONTAL, 0, width);
-        verticalGroup.setSize(VERTICAL, 0, height);
+        axisSizes[HORIZONTAL] = width;
+        axisSizes[VERTICAL] = height;
+        solveAxes(SPECIFIC_SIZE);
         
-        for (ComponentInfo info : componentInfos.values()) {
-            info.setBounds(insets, width, ltr);
+        for (int i = 0; i < componentInfoList.size(); i++) {
+            componentInfoList.get(i).addBounds(insets, width, ltr, store);
+        }
+    }
+
+    /*
+     * Cuenta los resortes de un árbol, solo para LayoutMetrics.
+     */
+    private static int countSprings(Spring spring) {
+        int count = 1;
+        if (spring instanceof Group) {
+            List<Spring> springs = ((Group) spring).springs;
+            for (int i = 0; i < springs.size(); i++) {
+                count += countSprings(springs.get(i));
+            }
         }
+        return count;
     }
 
     @Override
@@ -644,6 +1013,8 @@ public class GroupLayout extends AbstractGuiComponent implements GuiLayout {
     public void removeChild(Node n) {
         ComponentInfo info = componentInfos.remove(n);
         if (info != null) {
+            componentInfoList.remove(info);
+            dirtyComponents.remove(info);
             info.dispose();
             springsChanged = true;
             isValid = false;
@@ -795,6 +1166,20 @@ public class GroupLayout extends AbstractGuiComponent implements GuiLayout {
         void unset() {
             size = min = pref = max = UNSET;
         }
+
+        /**
+         * Descarta los tamaños en caché de este resorte y de todos sus
+         * ancestros, sin tocar a los hermanos.
+         */
+        final void invalidatePath() {
+            for (Spring spring = this; spring != null; spring = spring.parent) {
+                spring.clearCachedSize();
+            }
+        }
+
+        void clearCachedSize() {
+            min = pref = max = UNSET;
+        }
         
         float getSize() {
             return size;
@@ -823,6 +1208,10 @@ public class GroupLayout extends AbstractGuiComponent implements GuiLayout {
     
     public abstract class Group extends Spring {
         List<Spring> springs;
+        
+        // Rellenos automáticos quitados en removeAutopadding(), a reutilizar
+        // por insertAutopadding() (en orden inverso al de inserción).
+        List<AutoPreferredGapSpring> spareGaps;
 
         Group() {
             springs = new ArrayList<>();
@@ -859,6 +1248,7 @@ public class GroupLayout extends AbstractGuiComponent implements GuiLayout {
         
         Group addSpring(Spring spring) {
             springs.add(spring);
+            springStructureVersion++;
             spring.setParent(this);
             if (!(spring instanceof AutoPreferredGapSpring) ||
                     !((AutoPreferredGapSpring)spring).getUserCreated()) {
@@ -937,10 +1327,18 @@ public class GroupLayout extends AbstractGuiComponent implements GuiLayout {
             for (int counter = springs.size() - 1; counter >= 0; counter--) {
                 Spring spring = springs.get(counter);
                 if (spring instanceof AutoPreferredGapSpring) {
-                    if (((AutoPreferredGapSpring)spring).getUserCreated()) {
-                        ((AutoPreferredGapSpring)spring).reset();
-                    } else {
+                    AutoPreferredGapSpring padding = (AutoPreferredGapSpring)spring;
+                    padding.reset();
+                    if (!padding.getUserCreated()) {
                         springs.remove(counter);
+                        springStructureVersion++;
+                        
+                        // Se guarda para volver a insertarlo en el mismo
+                        // orden; así conserva los rellenos ya resueltos.
+                        if (spareGaps == null) {
+                            spareGaps = new ArrayList<>(1);
+                        }
+                        spareGaps.add(padding);
                     }
                 } else if (spring instanceof Group) {
                     ((Group)spring).removeAutopadding();
@@ -989,6 +1387,10 @@ public class GroupLayout extends AbstractGuiComponent implements GuiLayout {
     public class SequentialGroup extends Group {
         private Spring baselineSpring;
 
+        // Búferes reutilizados entre pasadas por setValidSizeNotPreferred.
+        private float[] sizes;
+        private SpringDelta[] deltas;
+
         SequentialGroup() {
         }
 
@@ -1119,7 +1521,8 @@ public class GroupLayout extends AbstractGuiComponent implements GuiLayout {
         void setValidSize(int axis, float origin, float size) {
             float pref = getPreferredSize(axis);
             if (size == pref) {
-                for (Spring spring : springs) {
+                for (int counter = 0; counter < springs.size(); counter++) {
+                    Spring spring = springs.get(counter);
                     float springPref = spring.getPreferredSize(axis);
                     spring.setSize(axis, origin, springPref);
                     if (axis == HORIZONTAL) {
@@ -1147,17 +1550,20 @@ public class GroupLayout extends AbstractGuiComponent implements GuiLayout {
                 delta *= -1;
             }
             
-            List<SpringDelta> resizable = buildResizableList(axis, useMin);
-            int resizableCount = resizable.size();
+            int resizableCount = buildResizableList(axis, useMin);
 
             if (resizableCount > 0) {
                 float sDelta = delta / resizableCount;
                 float slop = delta - sDelta * resizableCount;
-                float[] sizes = new float[springCount];
+                if (sizes == null || sizes.length < springCount) {
+                    sizes = new float[springCount];
+                } else {
+                    Arrays.fill(sizes, 0, springCount, 0);
+                }
                 float sign = useMin ? -1 : 1;
                 
                 for (int counter = 0; counter < resizableCount; counter++) {
-                    SpringDelta springDelta = resizable.get(counter);
+                    SpringDelta springDelta = deltas[counter];
                     if ((counter + 1) == resizableCount) {
                         sDelta += slop;
                     }
@@ -1200,9 +1606,22 @@ public class GroupLayout extends AbstractGuiComponent implements GuiLayout {
             }
         }
         
-        private List<SpringDelta> buildResizableList(int axis, boolean useMin) {
+        /**
+         * Llena {@link #deltas} con los resortes que pueden crecer (o
+         * encogerse), ordenados de menor a mayor margen.
+         * 
+         * @return número de resortes redimensionables.
+         */
+        private int buildResizableList(int axis, boolean useMin) {
             int size = springs.size();
-            List<SpringDelta> sorted = new ArrayList<>(size);
+            if (deltas == null || deltas.length < size) {
+                SpringDelta[] grown = new SpringDelta[size];
+                if (deltas != null) {
+                    System.arraycopy(deltas, 0, grown, 0, deltas.length);
+                }
+                deltas = grown;
+            }
+            int count = 0;
             for (int counter = 0; counter < size; counter++) {
                 Spring spring = getSpring(counter);
                 float sDelta;
@@ -1214,11 +1633,24 @@ public class GroupLayout extends AbstractGuiComponent implements GuiLayout {
                             spring.getPreferredSize(axis);
                 }
                 if (sDelta > 0) {
-                    sorted.add(new SpringDelta(counter, sDelta));
+                    SpringDelta springDelta = deltas[count];
+                    if (springDelta == null) {
+                        springDelta = new SpringDelta();
+                    }
+                    springDelta.index = counter;
+                    springDelta.delta = sDelta;
+                    
+                    // Inserción ordenada y estable, igual que Collections.sort.
+                    int i = count;
+                    while (i > 0 && springDelta.compareTo(deltas[i - 1]) < 0) {
+                        deltas[i] = deltas[i - 1];
+                        i--;
+                    }
+                    deltas[i] = springDelta;
+                    count++;
                 }
             }
-            Collections.sort(sorted);
-            return sorted;
+            return count;
         }
 
         private int indexOfNextNonZeroSpring(
@@ -1271,10 +1703,13 @@ public class GroupLayout extends AbstractGuiComponent implements GuiLayout {
                     }
                 } else {
                     if (!newLeading.isEmpty() && newLeadingPadding.isEmpty() && insert) {
-                        AutoPreferredGapSpring padding =
-                                new AutoPreferredGapSpring();
+                        AutoPreferredGapSpring padding = 
+                                (spareGaps == null || spareGaps.isEmpty())
+                                ? new AutoPreferredGapSpring()
+                                : spareGaps.remove(spareGaps.size() - 1);
                         
                         springs.add(counter, padding);
+                        springStructureVersion++;
                         continue;
                     }
                     if (spring instanceof ComponentSpring) {
@@ -1323,6 +1758,9 @@ public class GroupLayout extends AbstractGuiComponent implements GuiLayout {
                     }
                 }
             }
+            if (spareGaps != null) {
+                spareGaps.clear();
+            }
         }
 
         @Override
@@ -1331,7 +1769,8 @@ public class GroupLayout extends AbstractGuiComponent implements GuiLayout {
                 float baseline = baselineSpring.getBaseline();
                 if (baseline >= 0) {
                     int size = 0;
-                    for (Spring spring : springs) {
+                    for (int index = 0; index < springs.size(); index++) {
+                        Spring spring = springs.get(index);
                         if (spring == baselineSpring) {
                             return size + baseline;
                         } else {
@@ -1348,7 +1787,8 @@ public class GroupLayout extends AbstractGuiComponent implements GuiLayout {
             if (isResizable(VERTICAL)) {
                 if (!baselineSpring.isResizable(VERTICAL)) {
                     boolean leadingResizable = false;
-                    for (Spring spring : springs) {
+                    for (int index = 0; index < springs.size(); index++) {
+                        Spring spring = springs.get(index);
                         if (spring == baselineSpring) {
                             break;
                         } else if (spring.isResizable(VERTICAL)) {
@@ -1375,7 +1815,8 @@ public class GroupLayout extends AbstractGuiComponent implements GuiLayout {
                 } else {
                     BaselineResizeBehavior brb = baselineSpring.getBaselineResizeBehavior();
                     if (brb == BaselineResizeBehavior.CONSTANT_ASCENT) {
-                        for (Spring spring : springs) {
+                        for (int index = 0; index < springs.size(); index++) {
+                            Spring spring = springs.get(index);
                             if (spring == baselineSpring) {
                                 return BaselineResizeBehavior.CONSTANT_ASCENT;
                             }
@@ -1413,14 +1854,9 @@ public class GroupLayout extends AbstractGuiComponent implements GuiLayout {
     }
     
     private static final class SpringDelta implements Comparable<SpringDelta> {
-        public final int index;
+        public int index;
         public float delta;
 
-        public SpringDelta(int index, float delta) {
-            this.index = index;
-            this.delta = delta;
-        }
-
         @Override
         public int compareTo(SpringDelta o) {
             return (int) (delta - o.delta);
@@ -1433,6 +1869,413 @@ public class GroupLayout extends AbstractGuiComponent implements GuiLayout {
         }
     }
     
+    /**
+     * Copia aplanada de un árbol de grupos, usada para resolver los tamaños
+     * sin recorrer la jerarquía de objetos.
+     * <p>
+     * Los nodos se guardan en anchura (<i>breadth-first</i>), de modo que los
+     * hijos de cada grupo ocupan posiciones consecutivas y siempre posteriores
+     * a las de su padre: el reparto del tamaño se hace con un único recorrido
+     * de los arreglos, sin recursión ni llamadas virtuales para los grupos.
+     * Los resortes que no son grupos (componentes, huecos) y los
+     * {@code BaselineGroup} se tratan como hojas y delegan en su propia
+     * implementación de {@code Spring}.
+     * </p>
+     * <p>
+     * Los resultados son idénticos a los de {@link Group#setSize}: se aplican
+     * las mismas operaciones en el mismo orden, y min/pref/max de los grupos
+     * se siguen guardando en los propios resortes, que hacen de caché. Al
+     * igual que en los resortes, cada tamaño se calcula solo si hace falta.
+     * </p>
+     */
+    private final class SpringTree {
+        // Tipos de nodo; solo SEQUENTIAL y PARALLEL se resuelven aquí, el
+        // resto delega en su implementación de Spring.
+        private static final byte SEQUENTIAL = 0;
+        private static final byte PARALLEL   = 1;
+        private static final byte LEAF       = 2;
+        private static final byte PADDING    = 3;
+        private static final byte NESTED     = 4;
+
+        private final int axis;
+        private int count;
+        private int structureVersion;
+        private boolean nested;
+
+        private Spring[] nodes = new Spring[16];
+        private byte[] kind = new byte[16];
+        private int[] first = new int[16];
+        private int[] childCount = new int[16];
+
+        // Tamaños de los hijos del grupo que se está resolviendo, y origen y
+        // tamaño asignados a cada nodo.
+        private float[] min = new float[16];
+        private float[] pref = new float[16];
+        private float[] max = new float[16];
+        private float[] origin = new float[16];
+        private float[] size = new float[16];
+
+        // Búferes de SequentialGroup.setValidSizeNotPreferred; como el
+        // recorrido no es recursivo basta con uno por árbol.
+        private int[] deltaIndex = new int[16];
+        private float[] deltaValue = new float[16];
+        private float[] extra = new float[16];
+
+        SpringTree(int axis) {
+            this.axis = axis;
+        }
+
+        /**
+         * Vuelve a copiar la estructura del grupo raíz si es otro grupo o si
+         * se añadieron o quitaron resortes (incluyendo el relleno automático)
+         * desde la última vez.
+         */
+        void update(Group root) {
+            if (count > 0 && nodes[0] == root
+                    && structureVersion == springStructureVersion) {
+                return;
+            }
+            structureVersion = springStructureVersion;
+            count = 0;
+            nested = false;
+            append(root);
+            for (int index = 0; index < count; index++) {
+                Spring spring = nodes[index];
+                if (spring instanceof BaselineGroup) {
+                    kind[index] = NESTED;
+                    nested = true;
+                } else if (spring instanceof SequentialGroup) {
+                    kind[index] = SEQUENTIAL;
+                } else if (spring instanceof ParallelGroup) {
+                    kind[index] = PARALLEL;
+                } else if (spring instanceof AutoPreferredGapSpring) {
+                    kind[index] = PADDING;
+                } else {
+                    kind[index] = LEAF;
+                }
+                first[index] = count;
+                if (kind[index] > PARALLEL) {
+                    childCount[index] = 0;
+                    continue;
+                }
+                List<Spring> springs = ((Group) spring).springs;
+                childCount[index] = springs.size();
+                for (int counter = 0; counter < springs.size(); counter++) {
+                    append(springs.get(counter));
+                }
+            }
+        }
+
+        /**
+         * Determina si el árbol contiene grupos que se resuelven con su
+         * implementación de Spring (los de línea base, que consultan el otro
+         * eje).
+         */
+        boolean hasNested() {
+            return nested;
+        }
+
+        private void append(Spring spring) {
+            if (count == nodes.length) {
+                int length = count * 2;
+                nodes = Arrays.copyOf(nodes, length);
+                kind = Arrays.copyOf(kind, length);
+                first = Arrays.copyOf(first, length);
+                childCount = Arrays.copyOf(childCount, length);
+                min = Arrays.copyOf(min, length);
+                pref = Arrays.copyOf(pref, length);
+                max = Arrays.copyOf(max, length);
+                origin = Arrays.copyOf(origin, length);
+                size = Arrays.copyOf(size, length);
+            }
+            nodes[count++] = spring;
+        }
+
+        /**
+         * Devuelve el tamaño indicado (<code>MIN_SIZE</code>,
+         * <code>PREF_SIZE</code> o <code>MAX_SIZE</code>) de un nodo,
+         * calculándolo si no está en la caché del resorte.
+         */
+        private float resolve(int index, int sizeType) {
+            Spring spring = nodes[index];
+            byte type = kind[index];
+            if (type > PARALLEL) {
+                switch (sizeType) {
+                    case MIN_SIZE:
+                        return spring.getMinimumSize(axis);
+                    case MAX_SIZE:
+                        return spring.getMaximumSize(axis);
+                    default:
+                        return spring.getPreferredSize(axis);
+                }
+            }
+            switch (sizeType) {
+                case MIN_SIZE:
+                    if (spring.min == UNSET) {
+                        spring.min = spring.constrain(calculateSize(index, MIN_SIZE));
+                    }
+                    return spring.min;
+                case MAX_SIZE:
+                    if (spring.max == UNSET) {
+                        spring.max = spring.constrain(calculateSize(index, MAX_SIZE));
+                    }
+                    return spring.max;
+                default:
+                    if (spring.pref == UNSET) {
+                        spring.pref = spring.constrain(calculateSize(index, PREF_SIZE));
+                    }
+                    return spring.pref;
+            }
+        }
+
+        /**
+         * Equivalente a {@link Group#calculateSize(int, int)} y a
+         * {@link ParallelGroup#calculateMinimumSize(int)}.
+         */
+        private float calculateSize(int index, int sizeType) {
+            byte type = kind[index];
+            if (type == PARALLEL && sizeType != PREF_SIZE
+                    && !((ParallelGroup) nodes[index]).resizable) {
+                return resolve(index, PREF_SIZE);
+            }
+            int n = childCount[index];
+            if (n == 0) {
+                return 0;
+            }
+            int offset = first[index];
+            int end = offset + n;
+            float result = resolve(offset, sizeType);
+            if (type == SEQUENTIAL) {
+                for (int child = offset + 1; child < end; child++) {
+                    result = Math.min(Math.min(result, INFINITE)
+                            + Math.min(resolve(child, sizeType), INFINITE), INFINITE);
+                }
+            } else {
+                for (int child = offset + 1; child < end; child++) {
+                    result = Math.min(Math.max(result, resolve(child, sizeType)), INFINITE);
+                }
+            }
+            return result;
+        }
+
+        /**
+         * Copia el tamaño indicado de los hijos de un grupo en su arreglo.
+         */
+        private void load(int index, int sizeType) {
+            float[] values;
+            switch (sizeType) {
+                case MIN_SIZE:
+                    values = min;
+                    break;
+                case MAX_SIZE:
+                    values = max;
+                    break;
+                default:
+                    values = pref;
+                    break;
+            }
+            int offset = first[index];
+            for (int child = offset; child < offset + childCount[index]; child++) {
+                values[child] = resolve(child, sizeType);
+            }
+        }
+
+        float getSize(int sizeType) {
+            return resolve(0, sizeType);
+        }
+
+        /**
+         * Equivalente a <code>root.setSize(axis, origin, size)</code> con un
+         * tamaño válido.
+         */
+        void setSize(float rootOrigin, float rootSize) {
+            origin[0] = rootOrigin;
+            size[0] = rootSize;
+            for (int index = 0; index < count; index++) {
+                Spring spring = nodes[index];
+                switch (kind[index]) {
+                    case SEQUENTIAL:
+                        spring.size = size[index];
+                        layoutSequential(index);
+                        break;
+                    case PARALLEL:
+                        spring.size = size[index];
+                        layoutParallel(index, ((ParallelGroup) spring).childAlignment);
+                        break;
+                    default:
+                        spring.setSize(axis, origin[index], size[index]);
+                        break;
+                }
+            }
+        }
+
+        /**
+         * Equivalente a {@link Group#unsetAutopadding()}.
+         */
+        void unsetAutopadding() {
+            for (int index = 0; index < count; index++) {
+                switch (kind[index]) {
+                    case SEQUENTIAL:
+                    case PARALLEL:
+                    case PADDING:
+                        nodes[index].unset();
+                        break;
+                    case NESTED:
+                        ((Group) nodes[index]).unsetAutopadding();
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+
+        /**
+         * Equivalente a {@link Group#calculateAutopadding(int)}. El relleno
+         * solo depende de los componentes y del tamaño del grupo padre, así
+         * que los grupos se descartan al final, igual que en el recorrido
+         * recursivo.
+         */
+        void calculateAutopadding() {
+            for (int index = 0; index < count; index++) {
+                if (kind[index] == PADDING) {
+                    AutoPreferredGapSpring padding = (AutoPreferredGapSpring) nodes[index];
+                    padding.unset();
+                    padding.calculatePadding(axis);
+                } else if (kind[index] == NESTED) {
+                    ((Group) nodes[index]).calculateAutopadding(axis);
+                }
+            }
+            for (int index = 0; index < count; index++) {
+                if (kind[index] <= PARALLEL) {
+                    nodes[index].unset();
+                }
+            }
+        }
+
+        private void layoutSequential(int index) {
+            int n = childCount[index];
+            int offset = first[index];
+            float childOrigin = origin[index];
+            float groupSize = size[index];
+            if (groupSize == resolve(index, PREF_SIZE)) {
+                load(index, PREF_SIZE);
+                for (int child = offset; child < offset + n; child++) {
+                    origin[child] = childOrigin;
+                    size[child] = pref[child];
+                    childOrigin = advance(childOrigin, pref[child]);
+                }
+            } else if (n == 1) {
+                origin[offset] = childOrigin;
+                size[offset] = Math.min(Math.max(groupSize, resolve(offset, MIN_SIZE)),
+                        resolve(offset, MAX_SIZE));
+            } else if (n > 1) {
+                layoutSequentialNotPreferred(index);
+            }
+        }
+
+        private void layoutSequentialNotPreferred(int index) {
+            int n = childCount[index];
+            int offset = first[index];
+            float childOrigin = origin[index];
+            float delta = size[index] - resolve(index, PREF_SIZE);
+            boolean useMin = (delta < 0);
+            if (useMin) {
+                delta *= -1;
+            }
+            float[] limit = useMin ? min : max;
+            load(index, PREF_SIZE);
+            load(index, useMin ? MIN_SIZE : MAX_SIZE);
+            if (deltaIndex.length < n) {
+                deltaIndex = new int[n];
+                deltaValue = new float[n];
+                extra = new float[n];
+            }
+
+            // Lista de resortes redimensionables, con el mismo orden estable
+            // que SequentialGroup.buildResizableList.
+            int resizableCount = 0;
+            for (int counter = 0; counter < n; counter++) {
+                int child = offset + counter;
+                float sDelta = useMin ? pref[child] - min[child]
+                                      : max[child] - pref[child];
+                if (sDelta > 0) {
+                    int i = resizableCount;
+                    while (i > 0 && (int) (sDelta - deltaValue[i - 1]) < 0) {
+                        deltaIndex[i] = deltaIndex[i - 1];
+                        deltaValue[i] = deltaValue[i - 1];
+                        i--;
+                    }
+                    deltaIndex[i] = counter;
+                    deltaValue[i] = sDelta;
+                    resizableCount++;
+                }
+            }
+
+            if (resizableCount > 0) {
+                float sDelta = delta / resizableCount;
+                float slop = delta - sDelta * resizableCount;
+                Arrays.fill(extra, 0, n, 0);
+                float sign = useMin ? -1 : 1;
+                for (int counter = 0; counter < resizableCount; counter++) {
+                    if ((counter + 1) == resizableCount) {
+                        sDelta += slop;
+                    }
+                    float springDelta = Math.min(sDelta, deltaValue[counter]);
+                    delta -= springDelta;
+                    if (springDelta != sDelta && counter + 1 < resizableCount) {
+                        sDelta = delta / (resizableCount - counter - 1);
+                        slop = delta - sDelta * (resizableCount - counter - 1);
+                    }
+                    extra[deltaIndex[counter]] = sign * springDelta;
+                }
+                for (int counter = 0; counter < n; counter++) {
+                    int child = offset + counter;
+                    float sSize = pref[child] + extra[counter];
+                    origin[child] = childOrigin;
+                    size[child] = sSize;
+                    childOrigin = advance(childOrigin, sSize);
+                }
+            } else {
+                for (int child = offset; child < offset + n; child++) {
+                    origin[child] = childOrigin;
+                    size[child] = limit[child];
+                    childOrigin = advance(childOrigin, limit[child]);
+                }
+            }
+        }
+
+        private float advance(float childOrigin, float childSize) {
+            return (axis == VERTICAL) ? childOrigin - childSize : childOrigin + childSize;
+        }
+
+        private void layoutParallel(int index, Alignment childAlignment) {
+            int offset = first[index];
+            float groupOrigin = origin[index];
+            float groupSize = size[index];
+            load(index, MIN_SIZE);
+            load(index, MAX_SIZE);
+            for (int child = offset; child < offset + childCount[index]; child++) {
+                Alignment alignment = nodes[child].getAlignment();
+                float springSize = Math.min(Math.max(min[child], groupSize), max[child]);
+                if (alignment == null) {
+                    alignment = childAlignment;
+                }
+                switch (alignment) {
+                    case TRAILING:
+                        origin[child] = groupOrigin + groupSize - springSize;
+                        break;
+                    case CENTER:
+                        origin[child] = groupOrigin + (groupSize - springSize) / 2;
+                        break;
+                    default: // LEADING, ó BASELINE
+                        origin[child] = groupOrigin;
+                        break;
+                }
+                size[child] = springSize;
+            }
+        }
+    }
+    
     public class ParallelGroup extends Group {
         private final Alignment childAlignment;
         private final boolean resizable;
@@ -1529,7 +2372,8 @@ public class GroupLayout extends AbstractGuiComponent implements GuiLayout {
 
         @Override
         void setValidSize(int axis, float origin, float size) {
-            for (Spring spring : springs) {
+            for (int index = 0; index < springs.size(); index++) {
+                Spring spring = springs.get(index);
                 setChildSize(spring, axis, origin, size);
             }
         }
@@ -1563,7 +2407,8 @@ public class GroupLayout extends AbstractGuiComponent implements GuiLayout {
                 List<AutoPreferredGapSpring> trailingPadding,
                 List<ComponentSpring> leading, List<ComponentSpring> trailing,
                 boolean insert) {
-            for (Spring spring : springs) {
+            for (int index = 0; index < springs.size(); index++) {
+                Spring spring = springs.get(index);
                 if (spring instanceof ComponentSpring) {
                     if (((ComponentSpring)spring).isVisible()) {
                         for (AutoPreferredGapSpring gapSpring :
@@ -1627,6 +2472,13 @@ public class GroupLayout extends AbstractGuiComponent implements GuiLayout {
             calcedBaseline = false;
         }
 
+        @Override
+        void clearCachedSize() {
+            super.clearCachedSize();
+            prefAscent = prefDescent = -1;
+            calcedBaseline = false;
+        }
+
         @Override
         void setValidSize(int axis, float origin, float size) {
             checkAxis(axis);
@@ -1661,7 +2513,8 @@ public class GroupLayout extends AbstractGuiComponent implements GuiLayout {
             prefDescent = 0;
             float baselineSpringCount = 0;
             BaselineResizeBehavior resizeBehavior = null;
-            for (Spring spring : springs) {
+            for (int index = 0; index < springs.size(); index++) {
+                Spring spring = springs.get(index);
                 if (spring.getAlignment() == null ||
                         spring.getAlignment() == Alignment.BASELINE) {
                     float baseline = spring.getBaseline();
@@ -1694,7 +2547,8 @@ public class GroupLayout extends AbstractGuiComponent implements GuiLayout {
             float maxAscent = prefAscent;
             float maxDescent = prefDescent;
             float nonBaselineMax = 0;
-            for (Spring spring : springs) {
+            for (int index = 0; index < springs.size(); index++) {
+                Spring spring = springs.get(index);
                 float baseline;
                 float springMax = spring.getMaximumSize(VERTICAL);
                 if ((spring.getAlignment() == null ||
@@ -1735,7 +2589,8 @@ public class GroupLayout extends AbstractGuiComponent implements GuiLayout {
             } else {
                 minDescent = prefDescent;
             }
-            for (Spring spring : springs) {
+            for (int index = 0; index < springs.size(); index++) {
+                Spring spring = springs.get(index);
                 float springMin = spring.getMinimumSize(VERTICAL);
                 float baseline;
                 if ((spring.getAlignment() == null ||
@@ -1786,7 +2641,8 @@ public class GroupLayout extends AbstractGuiComponent implements GuiLayout {
                 ascent = size - prefDescent;
                 descent = prefDescent;
             }
-            for (Spring spring : springs) {
+            for (int index = 0; index < springs.size(); index++) {
+                Spring spring = springs.get(index);
                 Alignment alignment = spring.getAlignment();
                 if (alignment == null || alignment == Alignment.BASELINE) {
                     float baseline = spring.getBaseline();
@@ -1924,8 +2780,7 @@ public class GroupLayout extends AbstractGuiComponent implements GuiLayout {
                 return calculateNonlinkedPreferredSize(axis);
             }
             assert (min == DEFAULT_SIZE);            
-            final Vector3f dim = component.getControl(GuiControl.class).getPreferredSize();
-            return getSizeAlongAxis(axis, dim);
+            return getSizeAlongAxis(axis, getComponentInfo(component).getSizeHints().getMinimumSize());
         }
 
         float calculateNonlinkedPreferredSize(int axis) {
@@ -1936,7 +2791,7 @@ public class GroupLayout extends AbstractGuiComponent implements GuiLayout {
                 return pref;
             }
             assert (pref == DEFAULT_SIZE || pref == PREFERRED_SIZE);
-            return getSizeAlongAxis(axis, component.getControl(GuiControl.class).getPreferredSize());
+            return getSizeAlongAxis(axis, getComponentInfo(component).getSizeHints().getPreferredSize());
         }
 
         float calculateNonlinkedMaximumSize(int axis) {
@@ -1950,8 +2805,7 @@ public class GroupLayout extends AbstractGuiComponent implements GuiLayout {
                 return calculateNonlinkedPreferredSize(axis);
             }
             assert (max == DEFAULT_SIZE);
-            /*return getSizeAlongAxis(axis, component.getMaximumSize());*/
-            return getSizeAlongAxis(axis, component.getControl(GuiControl.class).getPreferredSize());
+            return getSizeAlongAxis(axis, getComponentInfo(component).getSizeHints().getMaximumSize());
         }
 
         private float getSizeAlongAxis(int axis, Vector3f size) {
@@ -1975,6 +2829,12 @@ public class GroupLayout extends AbstractGuiComponent implements GuiLayout {
             }
         }
 
+        @Override
+        void clearCachedSize() {
+            super.clearCachedSize();
+            baseline = -1;
+        }
+
         float getOrigin() {
             return origin;
         }
@@ -2138,6 +2998,7 @@ public class GroupLayout extends AbstractGuiComponent implements GuiLayout {
         List<ComponentSpring> sources;
         ComponentSpring source;
         private List<AutoPreferredGapMatch> matches;
+        private List<AutoPreferredGapMatch> stale;
         float size;
         float lastSize;
         private final float pref;
@@ -2169,7 +3030,12 @@ public class GroupLayout extends AbstractGuiComponent implements GuiLayout {
         }
 
         public void setSources(List<ComponentSpring> sources) {
-            this.sources = new ArrayList<>(sources);
+            if (this.sources == null) {
+                this.sources = new ArrayList<>(sources);
+            } else {
+                this.sources.clear();
+                this.sources.addAll(sources);
+            }
         }
 
         public void setUserCreated(boolean userCreated) {
@@ -2187,17 +3053,42 @@ public class GroupLayout extends AbstractGuiComponent implements GuiLayout {
             size = 0;
         }
 
+        /**
+         * Vacía el relleno antes de reconstruir el grafo. Las listas se
+         * conservan, y las coincidencias pasan a {@link #stale} para que
+         * {@link #addValidTarget} reutilice las que se repitan, con su
+         * relleno ya resuelto.
+         */
         public void reset() {
             size = 0;
-            sources = null;
+            if (sources != null) {
+                sources.clear();
+            }
             source = null;
-            matches = null;
+            if (matches != null && !matches.isEmpty()) {
+                List<AutoPreferredGapMatch> previous = stale;
+                stale = matches;
+                matches = previous;
+                if (matches != null) {
+                    matches.clear();
+                }
+                resetGaps.add(this);
+            }
+        }
+        
+        /**
+         * Suelta las coincidencias que no se reutilizaron.
+         */
+        void releaseStale() {
+            if (stale != null) {
+                stale.clear();
+            }
         }
 
         public void calculatePadding(int axis) {
             size = UNSET;
             float maxPadding = UNSET;
-            if (matches != null) {
+            if (matches != null && !matches.isEmpty()) {
                 LayoutStyle p = getLayoutStyle0();
                 int position;
                 if (axis == HORIZONTAL) {
@@ -2212,8 +3103,7 @@ public class GroupLayout extends AbstractGuiComponent implements GuiLayout {
                 for (int i = matches.size() - 1; i >= 0; i--) {
                     AutoPreferredGapMatch match = matches.get(i);
                     maxPadding = Math.max(maxPadding,
-                            calculatePadding(p, position, match.source,
-                            match.target));
+                            calculatePadding(p, position, match));
                 }
             }
             if (size == UNSET) {
@@ -2228,21 +3118,26 @@ public class GroupLayout extends AbstractGuiComponent implements GuiLayout {
         }
 
         private float calculatePadding(LayoutStyle p, int position,
-                ComponentSpring source,
-                ComponentSpring target) {
+                AutoPreferredGapMatch match) {
+            ComponentSpring source = match.source,
+                            target = match.target;
             float delta = target.getOrigin() - (source.getOrigin() +
                     source.getSize());
             if (delta >= 0) {
-                int padding;
-                if ((source.getComponent() != null) &&
-                        (target.getComponent() != null)) {
-                    padding = p.getPreferredGap(
-                            source.getComponent(),
-                            target.getComponent(), type, position,
-                            host);
-                } else {
-                    padding = 10;
+                if (match.version != gapVersion || match.position != position) {
+                    if ((source.getComponent() != null) &&
+                            (target.getComponent() != null)) {
+                        match.padding = p.getPreferredGap(
+                                source.getComponent(),
+                                target.getComponent(), type, position,
+                                host);
+                    } else {
+                        match.padding = 10;
+                    }
+                    match.version  = gapVersion;
+                    match.position = position;
                 }
+                int padding = match.padding;
                 if (padding > delta) {
                     size = Math.max(size, padding - delta);
                 }
@@ -2276,6 +3171,17 @@ public class GroupLayout extends AbstractGuiComponent implements GuiLayout {
             if (matches == null) {
                 matches = new ArrayList<>(1);
             }
+            if (stale != null) {
+                for (int i = stale.size() - 1; i >= 0; i--) {
+                    AutoPreferredGapMatch match = stale.get(i);
+                    if (match.source == source && match.target == target) {
+                        stale.set(i, stale.get(stale.size() - 1));
+                        stale.remove(stale.size() - 1);
+                        matches.add(match);
+                        return;
+                    }
+                }
+            }
             matches.add(new AutoPreferredGapMatch(source, target));
         }
 
@@ -2318,6 +3224,12 @@ public class GroupLayout extends AbstractGuiComponent implements GuiLayout {
     private static final class AutoPreferredGapMatch {
         public final ComponentSpring source;
         public final ComponentSpring target;
+        
+        // Relleno resuelto con el LayoutStyle, válido mientras no cambien
+        // gapVersion ni la posición.
+        int padding;
+        int version = -1;
+        int position;
 
         AutoPreferredGapMatch(ComponentSpring source, ComponentSpring target) {
             this.source = source;
@@ -2337,6 +3249,12 @@ public class GroupLayout extends AbstractGuiComponent implements GuiLayout {
     private class ContainerAutoPreferredGapSpring extends
             AutoPreferredGapSpring {
         private List<ComponentSpring> targets;
+        
+        // Relleno resuelto para cada elemento de targets (o de sources),
+        // válido mientras no cambien gapVersion, la posición ni la lista.
+        private int[] gaps;
+        private int gapsVersion = -1;
+        private int gapsPosition;
 
         ContainerAutoPreferredGapSpring() {
             super();
@@ -2354,6 +3272,45 @@ public class GroupLayout extends AbstractGuiComponent implements GuiLayout {
                 targets = new ArrayList<>(1);
             }
             targets.add(spring);
+            gapsVersion = -1;
+        }
+        
+        @Override
+        public void setSources(List<ComponentSpring> sources) {
+            super.setSources(sources);
+            gapsVersion = -1;
+        }
+        
+        @Override
+        public void reset() {
+            super.reset();
+            if (targets != null) {
+                targets.clear();
+            }
+            gapsVersion = -1;
+        }
+        
+        /**
+         * Devuelve el relleno con el borde del contenedor del componente
+         * <code>index</code> de la lista dada, resolviéndolo con el
+         * {@link LayoutStyle} solo si cambió algo desde la última consulta.
+         */
+        private int containerGap(LayoutStyle p, List<ComponentSpring> springs,
+                int index, int position) {
+            if (gapsVersion != gapVersion || gapsPosition != position) {
+                int n = springs.size();
+                if (gaps == null || gaps.length < n) {
+                    gaps = new int[Math.max(n, 2)];
+                }
+                for (int i = 0; i < n; i++) {
+                    Node component = springs.get(i).getComponent();
+                    gaps[i] = (component == null) ? 10
+                            : p.getContainerGap(component, position, host);
+                }
+                gapsVersion  = gapVersion;
+                gapsPosition = position;
+            }
+            return gaps[index];
         }
 
         @Override
@@ -2362,7 +3319,7 @@ public class GroupLayout extends AbstractGuiComponent implements GuiLayout {
             float maxPadding = 0;
             int position;
             size = 0;
-            if (targets != null) {
+            if (targets != null && !targets.isEmpty()) {
                 // Leading
                 if (axis == HORIZONTAL) {
                     if (isLeftToRight()) {
@@ -2375,11 +3332,8 @@ public class GroupLayout extends AbstractGuiComponent implements GuiLayout {
                 }
                 for (int i = targets.size() - 1; i >= 0; i--) {
                     ComponentSpring targetSpring = targets.get(i);
-                    int padding = 10;
+                    int padding = containerGap(p, targets, i, position);
                     if (targetSpring.getComponent() != null) {
-                        padding = p.getContainerGap(
-                                targetSpring.getComponent(),
-                                position, host);
                         maxPadding = Math.max(padding, maxPadding);
                         padding -= targetSpring.getOrigin();
                     } else {
@@ -2398,14 +3352,16 @@ public class GroupLayout extends AbstractGuiComponent implements GuiLayout {
                 } else {
                     position = Jme3HudlConstants.SOUTH;
                 }
-                if (sources != null) {
+                if (sources != null && !sources.isEmpty()) {
                     for (int i = sources.size() - 1; i >= 0; i--) {
                         ComponentSpring sourceSpring = sources.get(i);
                         maxPadding = Math.max(maxPadding,
-                                updateSize(p, sourceSpring, position));
+                                updateSize(sourceSpring, 
+                                containerGap(p, sources, i, position)));
                     }
                 } else if (source != null) {
-                    maxPadding = updateSize(p, source, position);
+                    maxPadding = updateSize(source, source.getComponent() == null ? 10
+                            : p.getContainerGap(source.getComponent(), position, host));
                 }
             }
             if (lastSize != UNSET) {
@@ -2413,14 +3369,7 @@ public class GroupLayout extends AbstractGuiComponent implements GuiLayout {
             }
         }
 
-        private float updateSize(LayoutStyle p, ComponentSpring sourceSpring,
-                int position) {
-            float padding = 10;
-            if (sourceSpring.getComponent() != null) {
-                padding = p.getContainerGap(
-                        sourceSpring.getComponent(), position,
-                        host);
-            }
+        private float updateSize(ComponentSpring sourceSpring, float padding) {
             float delta = Math.max(0, getParent().getSize() -
                     sourceSpring.getSize() - sourceSpring.getOrigin());
             size = Math.max(size, padding - delta);
@@ -2504,6 +3453,14 @@ public class GroupLayout extends AbstractGuiComponent implements GuiLayout {
     private class ComponentInfo {
         private Node component;
 
+        // Tamaños (min/pref/max) del componente, leídos una sola vez por
+        // pasada. Se vuelven a leer cuando cambia la generación, que se
+        // incrementa al invalidar el componente (clearCachedSize,
+        // invalidateSprings).
+        private final SizeHints sizeHints;
+        private int generation;
+        private int sizeHintsGeneration = -1;
+
         ComponentSpring horizontalSpring;
         ComponentSpring verticalSpring;
         
@@ -2515,6 +3472,7 @@ public class GroupLayout extends AbstractGuiComponent implements GuiLayout {
 
         ComponentInfo(Node component) {
             this.component = component;
+            this.sizeHints = new SizeHints(component);
             ComponentInfo.this.updateVisibility();
         }
 
@@ -2539,6 +3497,7 @@ public class GroupLayout extends AbstractGuiComponent implements GuiLayout {
         private void removeSpring(Spring spring) {
             if (spring != null) {
                 ((Group)spring.getParent()).springs.remove(spring);
+                springStructureVersion++;
             }
         }
 
@@ -2562,7 +3521,8 @@ public class GroupLayout extends AbstractGuiComponent implements GuiLayout {
             return false;
         }
 
-        public void setBounds(Insets3f insets, float parentWidth, boolean ltr) {
+        public void addBounds(Insets3f insets, float parentWidth, boolean ltr,
+                LayoutResult store) {
             float x = horizontalSpring.getOrigin();
             float w = horizontalSpring.getSize();
             float y = verticalSpring.getOrigin();
@@ -2572,16 +3532,32 @@ public class GroupLayout extends AbstractGuiComponent implements GuiLayout {
                 x = parentWidth - x - w;
             }
 
-            component.setLocalTranslation(x + insets.min.x, y - insets.max.y,
-                    component.getLocalTranslation().z);
-            
-            GuiControl control = component.getControl(GuiControl.class);
-            control.setSize(new Vector3f(w, h, 
-                    control.getPreferredSize().z));
+            SizeHints hints = getSizeHints();
+            store.add(hints.getControl(), x + insets.min.x, y - insets.max.y,
+                    component.getLocalTranslation().z, w, h, hints.getPreferredSize().z);
+        }
+
+        /**
+         * Devuelve los tamaños del componente, actualizados como mucho una vez
+         * por generación.
+         * 
+         * @return tamaños del componente.
+         */
+        SizeHints getSizeHints() {
+            if (sizeHintsGeneration != generation) {
+                sizeHints.update();
+                sizeHintsGeneration = generation;
+                sizeHintMisses++;
+            } else if (countSizeHints) {
+                sizeHintHits++;
+            }
+            return sizeHints;
         }
 
         public void setComponent(Node component) {
             this.component = component;
+            sizeHints.setComponent(component);
+            generation++;
             if (horizontalSpring != null) {
                 horizontalSpring.setComponent(component);
             }
@@ -2631,6 +3607,7 @@ public class GroupLayout extends AbstractGuiComponent implements GuiLayout {
         }
 
         public void clearCachedSize() {
+            generation++;
             if (horizontalMaster != null) {
                 horizontalMaster.clearCachedSize();
             }
@@ -2639,6 +3616,30 @@ public class GroupLayout extends AbstractGuiComponent implements GuiLayout {
             }
         }
 
+        /**
+         * Invalida los resortes de este componente (y de los componentes
+         * enlazados a él) junto con los grupos que los contienen.
+         */
+        void invalidateSprings() {
+            generation++;
+            invalidateSprings(HORIZONTAL, horizontalSpring, horizontalMaster);
+            invalidateSprings(VERTICAL, verticalSpring, verticalMaster);
+        }
+
+        private void invalidateSprings(int axis, Spring spring, LinkInfo master) {
+            if (master != null) {
+                master.clearCachedSize();
+                for (ComponentInfo info : master.linked) {
+                    Spring linked = (axis == HORIZONTAL) ? info.horizontalSpring : info.verticalSpring;
+                    if (linked != null) {
+                        linked.invalidatePath();
+                    }
+                }
+            } else if (spring != null) {
+                spring.invalidatePath();
+            }
+        }
+
         float getLinkSize(int axis, int type) {
             if (axis == HORIZONTAL) {
                 return horizontalMaster.getSize(axis);
@@ -4,6 +4,8 @@ public final
 class Jme3HudlConstants {
     public static final String BASELINE_RESIZE_BEHAVIOR = "BaselineResizeBehavior";
     public static final String BASELINE = "Baseline";
+    public static final String MINIMUM_SIZE = "MinimumSize";
+    public static final String MAXIMUM_SIZE = "MaximumSize";
 
     public static final int NORTH = 1;
     public static final int EAST = 3;
@@ -0,0 +1,187 @@
+/* Copyright (c) 2009-2023 jMonkeyEngine.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package e.g.jme3hudl;
+
+import com.jme3.scene.Node;
+import com.simsilica.lemur.core.GuiControl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Un <code>LayoutBatch</code> agrupa varias modificaciones de diseño en una
+ * sola transacción.
+ * <p>
+ * Mientras exista un lote abierto en el hilo actual, los diseños de esta
+ * librería ({@link GroupLayout}, {@link FlowLayout}, {@link CardLayout} y
+ * {@link ControlLayout}) no propagan sus invalidaciones a la jerarquía de
+ * Lemur; únicamente las registran. Al cerrar el lote se invalida una sola
+ * vez la raíz de cada jerarquía afectada, de modo que Lemur realiza una única
+ * pasada de diseño por raíz en su siguiente actualización:
+ * <pre><code>
+ * LayoutBatch batch = LayoutBatch.begin();
+ * try {
+ *     hud.addChild(toolbar, ControlLayout.Alignment.Center);
+ *     cards.next();
+ *     ...
+ * } finally {
+ *     batch.end();
+ * }
+ * </code></pre>
+ * </p>
+ * <p>
+ * Los lotes pueden anidarse; la invalidación se realiza al cerrar el más
+ * externo. Las invalidaciones hechas por los propios componentes de Lemur
+ * (por ejemplo, al cambiar el texto de una etiqueta) no se difieren.
+ * </p>
+ * 
+ * @author wil
+ * @version 1.0-SNAPSHOT
+ * 
+ * @since 1.0.0
+ */
+public final class LayoutBatch implements AutoCloseable {
+
+    /** Lote abierto en cada hilo. */
+    private static final ThreadLocal<LayoutBatch> CURRENT = new ThreadLocal<>();
+
+    /** Controles cuya invalidación se ha diferido. */
+    private final Set<GuiControl> pending = Collections.newSetFromMap(new IdentityHashMap<>());
+    
+    /** Número de llamadas a {@link #begin()} pendientes de cerrar. */
+    private int depth;
+
+    private LayoutBatch() {
+    }
+
+    /**
+     * Abre un lote en el hilo actual, o anida uno nuevo en el lote ya
+     * abierto.
+     * 
+     * @return lote abierto.
+     */
+    public static LayoutBatch begin() {
+        LayoutBatch batch = CURRENT.get();
+        if (batch == null) {
+            batch = new LayoutBatch();
+            CURRENT.set(batch);
+        }
+        batch.depth++;
+        return batch;
+    }
+
+    /**
+     * Determina si hay un lote abierto en el hilo actual.
+     * @return <code>true</code> si las invalidaciones se están difiriendo.
+     */
+    public static boolean isActive() {
+        return CURRENT.get() != null;
+    }
+
+    /**
+     * Cierra este lote. Si es el más externo, invalida una vez cada raíz
+     * afectada.
+     */
+    public void end() {
+        if (depth == 0 || CURRENT.get() != this) {
+            throw new IllegalStateException("Batch is not open in this thread");
+        }
+        if (--depth > 0) {
+            return;
+        }
+        CURRENT.remove();
+        
+        // Lemur solo revalida la raíz, basta con invalidar cada raíz una vez.
+        List<GuiControl> roots = new ArrayList<>();
+        Set<GuiControl> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (GuiControl control : pending) {
+            GuiControl root = getRoot(control);
+            if (seen.add(root)) {
+                roots.add(root);
+            }
+        }
+        pending.clear();
+        for (GuiControl root : roots) {
+            root.invalidate();
+        }
+    }
+
+    /**
+     * (non-JavaDoc)
+     * @see #end() 
+     */
+    @Override
+    public void close() {
+        end();
+    }
+
+    /**
+     * Invalida un control, o difiere la invalidación si hay un lote abierto
+     * en el hilo actual.
+     * 
+     * @param control control a invalidar.
+     */
+    static void invalidate(GuiControl control) {
+        if (control == null) {
+            return;
+        }
+        LayoutBatch batch = CURRENT.get();
+        if (batch == null) {
+            control.invalidate();
+        } else {
+            batch.pending.add(control);
+        }
+    }
+
+    /*
+     * Sube por la jerarquía mientras el padre sea un elemento GUI, igual que
+     * GuiControl.invalidate().
+     */
+    private static GuiControl getRoot(GuiControl control) {
+        if (control.getNode() == null) {
+            return control;
+        }
+        Node parent = control.getNode().getParent();
+        while (parent != null) {
+            GuiControl parentControl = parent.getControl(GuiControl.class);
+            if (parentControl == null) {
+                break;
+            }
+            control = parentControl;
+            parent  = parent.getParent();
+        }
+        return control;
+    }
+}
@@ -0,0 +1,272 @@
+/* Copyright (c) 2009-2023 jMonkeyEngine.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package e.g.jme3hudl;
+
+import com.jme3.scene.Node;
+import com.simsilica.lemur.core.GuiLayout;
+
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Implementación de {@link LayoutMetrics} que acumula las mediciones por
+ * contenedor y las vuelca como una tabla con un histograma de duraciones.
+ * <p>
+ * Los contenedores se guardan con referencias débiles, por lo que los que
+ * se descartan desaparecen del informe. Los contenedores sin nombre se
+ * identifican por su código hash de identidad. Tras crear la entrada de un
+ * contenedor, registrar una pasada no asigna memoria. Sus métodos están
+ * sincronizados, ya que {@link LayoutScheduler} diseña desde varios hilos.
+ * </p>
+ * <p>
+ * Los intervalos del histograma son potencias de dos en microsegundos: el
+ * primero cuenta las pasadas de menos de 1&micro;s, el siguiente las de 1 a
+ * 2&micro;s, luego de 2 a 4&micro;s, y así sucesivamente.
+ * </p>
+ * 
+ * @author wil
+ * @version 1.0-SNAPSHOT
+ * 
+ * @since 1.0.0
+ */
+public class LayoutHistogram implements LayoutMetrics {
+
+    /** Número de intervalos del histograma. */
+    private static final int BUCKETS = 20;
+
+    /** Datos acumulados de un contenedor. */
+    private static final class Entry {
+        final String name;
+        final long[] calls = new long[2];
+        final long[] nanos = new long[2];
+        final long[] maxNanos = new long[2];
+        final long[] bytes = new long[2];
+        final long[][] histogram = new long[2][BUCKETS];
+        long children;
+        long springs;
+        long cacheHits;
+        long cacheMisses;
+        long preloadHits;
+        long coldCards;
+        long coldNanos;
+
+        Entry(Node container, GuiLayout layout) {
+            String id = container.getName();
+            if (id == null) {
+                id = "#" + Integer.toHexString(System.identityHashCode(container));
+            }
+            this.name = id + " (" + layout.getClass().getSimpleName() + ")";
+        }
+
+        long totalNanos() {
+            return nanos[PREFERRED_SIZE] + nanos[RESHAPE];
+        }
+    }
+
+    /** Datos por contenedor. */
+    private final Map<Node, Entry> entries = new WeakHashMap<>();
+
+    /**
+     * Constructor predeterminado de la clase <code>LayoutHistogram</code>.
+     */
+    public LayoutHistogram() {
+    }
+
+    /**
+     * (non-JavaDoc)
+     * @see LayoutMetrics#layoutPass(com.jme3.scene.Node, com.simsilica.lemur.core.GuiLayout, int, long, long, int, int, int, int) 
+     */
+    @Override
+    public synchronized void layoutPass(Node container, GuiLayout layout, int pass, long nanos, long bytes,
+                           int children, int springs, int cacheHits, int cacheMisses) {
+        Entry e = entries.get(container);
+        if (e == null) {
+            e = new Entry(container, layout);
+            entries.put(container, e);
+        }
+        e.calls[pass]++;
+        e.nanos[pass] += nanos;
+        e.maxNanos[pass] = Math.max(e.maxNanos[pass], nanos);
+        if (bytes > 0) {
+            e.bytes[pass] += bytes;
+        }
+        e.histogram[pass][bucket(nanos)]++;
+        e.children += children;
+        e.springs += springs;
+        e.cacheHits += cacheHits;
+        e.cacheMisses += cacheMisses;
+    }
+
+    /**
+     * (non-JavaDoc)
+     * @see LayoutMetrics#cardShown(com.jme3.scene.Node, com.simsilica.lemur.core.GuiLayout, boolean, long) 
+     */
+    @Override
+    public synchronized void cardShown(Node container, GuiLayout layout, boolean preloaded, long nanos) {
+        Entry e = entries.get(container);
+        if (e == null) {
+            e = new Entry(container, layout);
+            entries.put(container, e);
+        }
+        if (preloaded) {
+            e.preloadHits++;
+        } else {
+            e.coldCards++;
+            e.coldNanos += nanos;
+        }
+    }
+
+    private static int bucket(long nanos) {
+        long micros = nanos / 1000;
+        if (micros == 0) {
+            return 0;
+        }
+        return Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+    }
+
+    /**
+     * Devuelve el número de pasadas registradas para un contenedor.
+     * 
+     * @param container contenedor.
+     * @param pass tipo de pasada.
+     * @return número de pasadas.
+     */
+    public synchronized long getCalls(Node container, int pass) {
+        Entry e = entries.get(container);
+        return (e == null) ? 0 : e.calls[pass];
+    }
+
+    /**
+     * Devuelve el tiempo acumulado de un contenedor, en nanosegundos.
+     * 
+     * @param container contenedor.
+     * @param pass tipo de pasada.
+     * @return tiempo acumulado.
+     */
+    public synchronized long getNanos(Node container, int pass) {
+        Entry e = entries.get(container);
+        return (e == null) ? 0 : e.nanos[pass];
+    }
+
+    /**
+     * Devuelve el número de tarjetas mostradas que ya estaban precargadas.
+     * 
+     * @param container contenedor con {@link CardLayout}.
+     * @return número de tarjetas.
+     */
+    public synchronized long getPreloadHits(Node container) {
+        Entry e = entries.get(container);
+        return (e == null) ? 0 : e.preloadHits;
+    }
+
+    /**
+     * Devuelve el número de tarjetas que se construyeron al mostrarlas.
+     * 
+     * @param container contenedor con {@link CardLayout}.
+     * @return número de tarjetas.
+     */
+    public synchronized long getColdCards(Node container) {
+        Entry e = entries.get(container);
+        return (e == null) ? 0 : e.coldCards;
+    }
+
+    /**
+     * Descarta todos los datos acumulados.
+     */
+    public synchronized void reset() {
+        entries.clear();
+    }
+
+    /**
+     * Vuelca los datos acumulados, de mayor a menor tiempo total.
+     * 
+     * @param out flujo de salida.
+     */
+    public void dump(PrintStream out) {
+        dump(out, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Vuelca los datos de los contenedores más costosos, de mayor a menor
+     * tiempo total.
+     * 
+     * @param out flujo de salida.
+     * @param limit número máximo de contenedores.
+     */
+    public synchronized void dump(PrintStream out, int limit) {
+        List<Entry> list = new ArrayList<>(entries.values());
+        list.sort((a, b) -> Long.compare(b.totalNanos(), a.totalNanos()));
+        if (list.size() > limit) {
+            list = list.subList(0, limit);
+        }
+
+        out.printf("%-40s %-8s %8s %10s %9s %9s %10s %9s %9s %9s %9s  %s%n",
+                "container", "pass", "calls", "total ms", "avg us", "max us", "KB",
+                "children", "springs", "hits", "misses", "histogram (us:count)");
+        for (Entry e : list) {
+            for (int pass = PREFERRED_SIZE; pass <= RESHAPE; pass++) {
+                if (e.calls[pass] == 0) {
+                    continue;
+                }
+                StringBuilder histogram = new StringBuilder();
+                for (int i = 0; i < BUCKETS; i++) {
+                    if (e.histogram[pass][i] != 0) {
+                        histogram.append(i == 0 ? "<1" : String.valueOf(1L << (i - 1)))
+                                 .append(':').append(e.histogram[pass][i]).append(' ');
+                    }
+                }
+                boolean first = (pass == PREFERRED_SIZE || e.calls[PREFERRED_SIZE] == 0);
+                out.printf("%-40s %-8s %8d %10.3f %9.2f %9.2f %10.1f %9s %9s %9s %9s  %s%n",
+                        first ? e.name : "",
+                        pass == PREFERRED_SIZE ? "pref" : "reshape",
+                        e.calls[pass],
+                        e.nanos[pass] / 1e6,
+                        e.nanos[pass] / 1e3 / e.calls[pass],
+                        e.maxNanos[pass] / 1e3,
+                        e.bytes[pass] / 1024.0,
+                        first ? String.valueOf(e.children) : "",
+                        first ? String.valueOf(e.springs) : "",
+                        first ? String.valueOf(e.cacheHits) : "",
+                        first ? String.valueOf(e.cacheMisses) : "",
+                        histogram.toString().trim());
+            }
+            if (e.preloadHits != 0 || e.coldCards != 0) {
+                out.printf("%-40s %-8s %8d preloaded, %d cold (%.3f ms)%n",
+                        e.calls[PREFERRED_SIZE] + e.calls[RESHAPE] == 0 ? e.name : "",
+                        "cards", e.preloadHits, e.coldCards, e.coldNanos / 1e6);
+            }
+        }
+    }
+}
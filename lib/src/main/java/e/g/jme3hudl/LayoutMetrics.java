@@ -0,0 +1,99 @@
+/* Copyright (c) 2009-2023 jMonkeyEngine.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package e.g.jme3hudl;
+
+import com.jme3.scene.Node;
+import com.simsilica.lemur.core.GuiLayout;
+
+/**
+ * Una interfaz <code>LayoutMetrics</code> recibe las mediciones de cada
+ * pasada de diseño de los diseños de esta librería.
+ * <p>
+ * Se instala con {@link LayoutMonitor#setMetrics(LayoutMetrics)}. Si no hay
+ * ninguna instalada, los diseños no toman tiempos ni notifican nada.
+ * {@link LayoutHistogram} es una implementación que acumula los datos por
+ * contenedor.
+ * </p>
+ * <p>
+ * Los tiempos y la memoria son inclusivos: la pasada de un contenedor incluye
+ * la de sus contenedores hijos, que se diseñan dentro de ella.
+ * </p>
+ * 
+ * @author wil
+ * @version 1.0-SNAPSHOT
+ * 
+ * @since 1.0.0
+ */
+public interface LayoutMetrics {
+
+    /** Pasada de <code>calculatePreferredSize</code>. */
+    public static final int PREFERRED_SIZE = 0;
+    
+    /** Pasada de <code>reshape</code>. */
+    public static final int RESHAPE = 1;
+
+    /**
+     * Notifica una pasada de diseño.
+     * <p>
+     * Se invoca en el hilo que realiza el diseño, normalmente el de
+     * renderizado; la implementación no debe modificar la escena. Con
+     * {@link LayoutScheduler} puede invocarse desde varios hilos a la vez.
+     * </p>
+     * 
+     * @param container contenedor diseñado.
+     * @param layout diseño del contenedor.
+     * @param pass tipo de pasada ({@link #PREFERRED_SIZE} o {@link #RESHAPE}).
+     * @param nanos duración de la pasada en nanosegundos.
+     * @param bytes memoria asignada durante la pasada, o <code>-1</code> si la
+     * máquina virtual no permite medirla.
+     * @param children número de hijos recorridos.
+     * @param springs número de resortes resueltos en un <code>reshape</code>
+     * de {@link GroupLayout}; <code>0</code> en los demás casos.
+     * @param cacheHits tamaños de hijos reutilizados de una pasada anterior.
+     * @param cacheMisses tamaños de hijos que se tuvieron que volver a leer.
+     */
+    void layoutPass(Node container, GuiLayout layout, int pass, long nanos, long bytes,
+                    int children, int springs, int cacheHits, int cacheMisses);
+    
+    /**
+     * Notifica que {@link CardLayout} mostró una tarjeta que no se había
+     * mostrado desde que se construyó.
+     * 
+     * @param container contenedor del diseño.
+     * @param layout diseño del contenedor.
+     * @param preloaded <code>true</code> si la tarjeta se precargó en un hilo
+     * de trabajo, <code>false</code> si se tuvo que construir al mostrarla.
+     * @param nanos tiempo empleado en construirla en el hilo de renderizado.
+     */
+    default void cardShown(Node container, GuiLayout layout, boolean preloaded, long nanos) {
+    }
+}
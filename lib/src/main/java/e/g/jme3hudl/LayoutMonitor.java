@@ -0,0 +1,140 @@
+/* Copyright (c) 2009-2023 jMonkeyEngine.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package e.g.jme3hudl;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Punto de instalación de {@link LayoutMetrics}.
+ * <p>
+ * El oyente es global y debe instalarse desde el hilo que realiza el diseño:
+ * <pre><code>
+ * LayoutHistogram histogram = new LayoutHistogram();
+ * LayoutMonitor.setMetrics(histogram);
+ * ...
+ * histogram.dump(System.out);
+ * </code></pre>
+ * </p>
+ * 
+ * @author wil
+ * @version 1.0-SNAPSHOT
+ * 
+ * @since 1.0.0
+ */
+public final class LayoutMonitor {
+
+    /**
+     * Oyente instalado, o <code>null</code>. Es volátil porque lo leen
+     * también los hilos de {@link LayoutScheduler} y de
+     * {@link GroupLayout#setAxisPool(java.util.concurrent.ForkJoinPool)}.
+     */
+    private static volatile LayoutMetrics metrics;
+    
+    /** Si la máquina virtual permite medir la memoria asignada. */
+    private static final boolean ALLOCATION = isAllocationAvailable();
+
+    private LayoutMonitor() {
+    }
+
+    /**
+     * Instala un oyente de métricas; <code>null</code> lo desinstala.
+     * @param metrics oyente de métricas.
+     */
+    public static void setMetrics(LayoutMetrics metrics) {
+        LayoutMonitor.metrics = metrics;
+    }
+
+    /**
+     * Devuelve el oyente instalado.
+     * @return oyente, o <code>null</code> si no hay ninguno.
+     */
+    public static LayoutMetrics getMetrics() {
+        return metrics;
+    }
+
+    /**
+     * Devuelve la memoria asignada hasta ahora por el hilo actual.
+     * 
+     * @return bytes asignados, o <code>-1</code> si la máquina virtual no
+     * permite medirlos (por ejemplo, en Android).
+     */
+    static long allocatedBytes() {
+        return ALLOCATION ? Allocation.get() : -1;
+    }
+
+    /**
+     * Devuelve la memoria asignada por el hilo actual desde una medición
+     * anterior de {@link #allocatedBytes()}.
+     * 
+     * @param start medición anterior.
+     * @return bytes asignados, o <code>-1</code> si no se pueden medir.
+     */
+    static long allocatedSince(long start) {
+        return (start < 0) ? -1 : allocatedBytes() - start;
+    }
+
+    private static boolean isAllocationAvailable() {
+        try {
+            return Allocation.AVAILABLE;
+        } catch (LinkageError e) {
+            return false;
+        }
+    }
+
+    /*
+     * Se carga aparte para que la ausencia de com.sun.management no impida
+     * cargar esta clase.
+     */
+    private static final class Allocation {
+        static final boolean AVAILABLE;
+        static final com.sun.management.ThreadMXBean THREADS;
+
+        static {
+            com.sun.management.ThreadMXBean threads = null;
+            try {
+                threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+                if (!threads.isThreadAllocatedMemorySupported()
+                        || !threads.isThreadAllocatedMemoryEnabled()) {
+                    threads = null;
+                }
+            } catch (RuntimeException | LinkageError e) {
+                threads = null;
+            }
+            THREADS = threads;
+            AVAILABLE = (threads != null);
+        }
+
+        static long get() {
+            return THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+    }
+}
@@ -0,0 +1,251 @@
+/* Copyright (c) 2009-2023 jMonkeyEngine.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package e.g.jme3hudl;
+
+import com.jme3.math.Vector3f;
+import com.simsilica.lemur.core.GuiControl;
+
+import java.util.Arrays;
+
+/**
+ * Un <code>LayoutResult</code> guarda la posición y el tamaño que un diseño
+ * asigna a cada hijo, en arreglos de <code>float</code>, sin modificar la
+ * escena.
+ * <p>
+ * Los diseños de esta librería ({@link TwoPhaseLayout}) dividen
+ * <code>reshape</code> en dos fases: {@link TwoPhaseLayout#compute} escribe
+ * aquí los límites de los hijos y {@link #commit()} los aplica con
+ * <code>setLocalTranslation</code> y <code>GuiControl.setSize</code>. Solo
+ * la segunda fase debe ejecutarse en el hilo de renderizado.
+ * </p>
+ * <p>
+ * Los arreglos crecen cuando hace falta y se reutilizan entre pasadas.
+ * </p>
+ * 
+ * @author wil
+ * @version 1.0-SNAPSHOT
+ * 
+ * @since 1.0.0
+ */
+public final class LayoutResult {
+
+    /** Hijos, en el orden en que se añadieron. */
+    private GuiControl[] controls = new GuiControl[8];
+    
+    /** Posición de cada hijo. */
+    private float[] x = new float[8];
+    private float[] y = new float[8];
+    private float[] z = new float[8];
+    
+    /** Tamaño de cada hijo: ancho, alto y profundidad. */
+    private float[] w = new float[8];
+    private float[] h = new float[8];
+    private float[] d = new float[8];
+    
+    /** Número de hijos. */
+    private int size;
+    
+    /** Vector reutilizado por commit(). */
+    private final Vector3f tmp = new Vector3f();
+
+    /**
+     * Constructor predeterminado de la clase <code>LayoutResult</code>.
+     */
+    public LayoutResult() {
+    }
+
+    /**
+     * Vacía el resultado, conservando los arreglos.
+     */
+    public void clear() {
+        Arrays.fill(controls, 0, size, null);
+        size = 0;
+    }
+
+    /**
+     * Añade los límites de un hijo.
+     * 
+     * @param control control del hijo.
+     * @param x posición x.
+     * @param y posición y.
+     * @param z posición z.
+     * @param width ancho.
+     * @param height alto.
+     * @param depth profundidad.
+     * @return índice del hijo en este resultado.
+     */
+    public int add(GuiControl control, float x, float y, float z,
+                   float width, float height, float depth) {
+        if (control == null) {
+            throw new IllegalArgumentException("Control must be non-null");
+        }
+        if (size == controls.length) {
+            int length = size * 2;
+            controls = Arrays.copyOf(controls, length);
+            this.x = Arrays.copyOf(this.x, length);
+            this.y = Arrays.copyOf(this.y, length);
+            this.z = Arrays.copyOf(this.z, length);
+            this.w = Arrays.copyOf(this.w, length);
+            this.h = Arrays.copyOf(this.h, length);
+            this.d = Arrays.copyOf(this.d, length);
+        }
+        controls[size] = control;
+        this.x[size] = x;
+        this.y[size] = y;
+        this.z[size] = z;
+        this.w[size] = width;
+        this.h[size] = height;
+        this.d[size] = depth;
+        return size++;
+    }
+
+    /**
+     * Cambia la posición de un hijo ya añadido.
+     * 
+     * @param index índice devuelto por {@link #add}.
+     * @param x posición x.
+     * @param y posición y.
+     * @param z posición z.
+     */
+    public void setTranslation(int index, float x, float y, float z) {
+        checkIndex(index);
+        this.x[index] = x;
+        this.y[index] = y;
+        this.z[index] = z;
+    }
+
+    /**
+     * Aplica los límites a cada hijo, en el orden en que se añadieron. Debe
+     * invocarse en el hilo de renderizado.
+     * <p>
+     * La posición solo se asigna si cambió, para no forzar que se recalcule
+     * la transformación del hijo. El tamaño se asigna siempre: Lemur solo
+     * vuelve a diseñar un contenedor anidado cuando se le asigna.
+     * </p>
+     */
+    public void commit() {
+        for (int i = 0; i < size; i++) {
+            GuiControl control = controls[i];
+            Vector3f t = control.getNode().getLocalTranslation();
+            // Igual que Vector3f.equals(): 0 y -0 se consideran distintos.
+            if (Float.compare(t.x, x[i]) != 0 || Float.compare(t.y, y[i]) != 0
+                    || Float.compare(t.z, z[i]) != 0) {
+                control.getNode().setLocalTranslation(x[i], y[i], z[i]);
+            }
+            control.setSize(tmp.set(w[i], h[i], d[i]));
+        }
+    }
+
+    /**
+     * Devuelve el número de hijos añadidos.
+     * @return número de hijos.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Devuelve el control de un hijo.
+     * @param index índice devuelto por {@link #add}.
+     * @return control del hijo.
+     */
+    public GuiControl getControl(int index) {
+        checkIndex(index);
+        return controls[index];
+    }
+
+    /**
+     * Devuelve la posición x de un hijo.
+     * @param index índice devuelto por {@link #add}.
+     * @return posición x.
+     */
+    public float getX(int index) {
+        checkIndex(index);
+        return x[index];
+    }
+
+    /**
+     * Devuelve la posición y de un hijo.
+     * @param index índice devuelto por {@link #add}.
+     * @return posición y.
+     */
+    public float getY(int index) {
+        checkIndex(index);
+        return y[index];
+    }
+
+    /**
+     * Devuelve la posición z de un hijo.
+     * @param index índice devuelto por {@link #add}.
+     * @return posición z.
+     */
+    public float getZ(int index) {
+        checkIndex(index);
+        return z[index];
+    }
+
+    /**
+     * Devuelve el ancho de un hijo.
+     * @param index índice devuelto por {@link #add}.
+     * @return ancho.
+     */
+    public float getWidth(int index) {
+        checkIndex(index);
+        return w[index];
+    }
+
+    /**
+     * Devuelve el alto de un hijo.
+     * @param index índice devuelto por {@link #add}.
+     * @return alto.
+     */
+    public float getHeight(int index) {
+        checkIndex(index);
+        return h[index];
+    }
+
+    /**
+     * Devuelve la profundidad de un hijo.
+     * @param index índice devuelto por {@link #add}.
+     * @return profundidad.
+     */
+    public float getDepth(int index) {
+        checkIndex(index);
+        return d[index];
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IllegalArgumentException("Invalid index: " + index);
+        }
+    }
+}
@@ -0,0 +1,229 @@
+/* Copyright (c) 2009-2023 jMonkeyEngine.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package e.g.jme3hudl;
+
+import com.jme3.math.Vector3f;
+import com.jme3.scene.Node;
+import com.jme3.scene.Spatial;
+import com.simsilica.lemur.Panel;
+import com.simsilica.lemur.core.GuiControl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Un <code>LayoutScheduler</code> diseña una jerarquía de Lemur repartiendo
+ * entre varios hilos el cálculo de los contenedores hermanos, que son
+ * independientes entre sí.
+ * <p>
+ * La pasada se divide en dos fases:
+ * </p>
+ * <ol>
+ * <li>Medición, en un <code>ForkJoinPool</code>: cada subárbol con al menos
+ * {@link #getForkThreshold()} elementos GUI se mide en su propia tarea,
+ * después de sus subárboles hijos. Al pedir el tamaño preferido de cada
+ * contenedor, los diseños de esta librería resuelven sus resortes y filas y
+ * guardan los tamaños de sus hijos ({@link SizeHints}), sin modificar la
+ * escena.</li>
+ * <li>Aplicación, en el hilo que llama a {@link #layout(Panel)} (el de
+ * renderizado): se asigna el tamaño a la raíz dentro de un
+ * {@link LayoutBatch}, y Lemur recorre la jerarquía con
+ * <code>reshape</code> aplicando las posiciones y los tamaños. Los diseños
+ * ya medidos reutilizan lo calculado en la primera fase.</li>
+ * </ol>
+ * <pre><code>
+ * LayoutScheduler scheduler = new LayoutScheduler(ForkJoinPool.commonPool());
+ * ...
+ * scheduler.layout(hud);
+ * </code></pre>
+ * <p>
+ * Durante la medición no debe modificarse la jerarquía, y los componentes de
+ * los elementos GUI deben poder calcular su tamaño preferido en cualquier
+ * hilo, como los de Lemur. Si hay un {@link LayoutMetrics} instalado, recibe
+ * las pasadas desde varios hilos.
+ * </p>
+ * 
+ * @author wil
+ * @version 1.0-SNAPSHOT
+ * 
+ * @since 1.0.0
+ */
+public final class LayoutScheduler {
+
+    /** Número de elementos GUI por defecto a partir del cual un subárbol se mide en otra tarea. */
+    public static final int DEFAULT_FORK_THRESHOLD = 32;
+
+    /** Hilos en los que se mide la jerarquía. */
+    private final ForkJoinPool pool;
+    
+    /** Tamaño mínimo de un subárbol para medirlo en su propia tarea. */
+    private int forkThreshold = DEFAULT_FORK_THRESHOLD;
+
+    /**
+     * Constructor de la clase <code>LayoutScheduler</code>.
+     * 
+     * @param pool hilos en los que se mide la jerarquía.
+     */
+    public LayoutScheduler(ForkJoinPool pool) {
+        if (pool == null) {
+            throw new IllegalArgumentException("Pool must be non-null");
+        }
+        this.pool = pool;
+    }
+
+    /**
+     * Devuelve los hilos en los que se mide la jerarquía.
+     * @return grupo de hilos.
+     */
+    public ForkJoinPool getPool() {
+        return pool;
+    }
+
+    /**
+     * Establece el número mínimo de elementos GUI (contando su raíz) que debe
+     * tener un subárbol para medirlo en su propia tarea; los más pequeños se
+     * miden dentro de la tarea de su contenedor.
+     * 
+     * @param forkThreshold número de elementos, mayor que 0.
+     */
+    public void setForkThreshold(int forkThreshold) {
+        if (forkThreshold < 1) {
+            throw new IllegalArgumentException("Threshold must be > 0");
+        }
+        this.forkThreshold = forkThreshold;
+    }
+
+    /**
+     * Devuelve el número mínimo de elementos GUI de un subárbol para medirlo
+     * en su propia tarea.
+     * @return número de elementos.
+     */
+    public int getForkThreshold() {
+        return forkThreshold;
+    }
+
+    /**
+     * Diseña la jerarquía con su tamaño preferido, como haría Lemur con una
+     * raíz inválida.
+     * 
+     * @param root raíz de la jerarquía.
+     */
+    public void layout(Panel root) {
+        layout(root, null);
+    }
+
+    /**
+     * Diseña la jerarquía con el tamaño dado. Debe invocarse en el hilo de
+     * renderizado.
+     * 
+     * @param root raíz de la jerarquía.
+     * @param size tamaño de la raíz, o <code>null</code> para usar su tamaño
+     * preferido.
+     */
+    public void layout(Panel root, Vector3f size) {
+        Vector3f preferred = measure(root);
+        GuiControl control = root.getControl(GuiControl.class);
+        LayoutBatch batch = LayoutBatch.begin();
+        try {
+            control.setSize(size == null ? preferred : size);
+        } finally {
+            batch.end();
+        }
+    }
+
+    /**
+     * Mide la jerarquía en paralelo, sin aplicar ningún tamaño.
+     * 
+     * @param root raíz de la jerarquía.
+     * @return tamaño preferido de la raíz.
+     */
+    public Vector3f measure(Panel root) {
+        if (root == null) {
+            throw new IllegalArgumentException("Root must be non-null");
+        }
+        Measure task = plan(root);
+        pool.invoke(task);
+        return task.preferredSize;
+    }
+
+    /*
+     * Construye, en el hilo que llama, las tareas de los subárboles que se
+     * miden por separado. El campo size de cada tarea cuenta los elementos
+     * GUI de su subárbol.
+     */
+    private Measure plan(Node node) {
+        Measure task = new Measure(node);
+        List<Spatial> children = node.getChildren();
+        for (int i = 0; i < children.size(); i++) {
+            Spatial child = children.get(i);
+            if (child.getControl(GuiControl.class) == null) {
+                continue;
+            }
+            if (!(child instanceof Node)) {
+                task.size++;
+                continue;
+            }
+            Measure subtask = plan((Node) child);
+            task.size += subtask.size;
+            if (subtask.size >= forkThreshold) {
+                task.subtasks.add(subtask);
+            }
+        }
+        return task;
+    }
+
+    /**
+     * Mide un subárbol después de sus subárboles hijos.
+     */
+    private static final class Measure extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        
+        final Node node;
+        final List<Measure> subtasks = new ArrayList<>(0);
+        int size = 1;
+        Vector3f preferredSize;
+
+        Measure(Node node) {
+            this.node = node;
+        }
+
+        @Override
+        protected void compute() {
+            if (!subtasks.isEmpty()) {
+                invokeAll(subtasks);
+            }
+            preferredSize = node.getControl(GuiControl.class).getPreferredSize();
+        }
+    }
+}
@@ -41,7 +41,7 @@ import sun.e.g.jme3hudl.DefaultLayoutStyle;
 public abstract class LayoutStyle {
     
     public static LayoutStyle getInstance() {
-        return new DefaultLayoutStyle();
+        return DefaultLayoutStyle.getInstance();
     }
     
     public enum ComponentPlacement {
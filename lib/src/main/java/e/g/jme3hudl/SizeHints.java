@@ -0,0 +1,254 @@
+/* Copyright (c) 2009-2023 jMonkeyEngine.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package e.g.jme3hudl;
+
+import com.jme3.math.Vector3f;
+import com.jme3.scene.Node;
+import com.simsilica.lemur.core.GuiControl;
+import com.simsilica.lemur.core.GuiLayout;
+
+/**
+ * Una clase <code>SizeHints</code> reúne los tamaños mínimo, preferido y
+ * máximo de un componente hijo, tal como los consultan {@link GroupLayout},
+ * {@link FlowLayout} y {@link CardLayout}.
+ * <p>
+ * Lemur solo conoce el tamaño preferido de un componente; los tamaños mínimo
+ * y máximo se declaran como datos de usuario del nodo:
+ * <pre><code>
+ * SizeHints.setMinimumSize(field, new Vector3f(80, 20, 0));
+ * SizeHints.setMaximumSize(field, new Vector3f(Short.MAX_VALUE, 20, 0));
+ * </code></pre>
+ * Si el componente no declara alguno de ellos, se utiliza su tamaño preferido
+ * (ya limitado al máximo declarado) en su lugar, por lo que un componente sin
+ * sugerencias no puede crecer ni encogerse.
+ * </p>
+ * <p>
+ * Cada diseño conserva una instancia por hijo y la actualiza una sola vez por
+ * pasada de diseño con {@link #update()}; los vectores devueltos se
+ * reutilizan entre pasadas y no deben modificarse.
+ * </p>
+ * 
+ * @author wil
+ * @version 1.0-SNAPSHOT
+ * 
+ * @since 1.0.0
+ */
+public final class SizeHints {
+
+    /** Componente del que se leen las sugerencias. */
+    private Node component;
+    
+    /** Control del componente, se busca una sola vez. */
+    private GuiControl control;
+
+    /** Tamaños leídos en la última actualización. */
+    private final Vector3f minimumSize = new Vector3f();
+    private final Vector3f preferredSize = new Vector3f();
+    private final Vector3f maximumSize = new Vector3f();
+    
+    /** Indican si el componente declara sus propios límites. */
+    private boolean hasMinimumSize;
+    private boolean hasMaximumSize;
+
+    /**
+     * Constructor de la clase <code>SizeHints</code>.
+     * 
+     * @param component componente hijo.
+     */
+    public SizeHints(Node component) {
+        setComponent(component);
+    }
+
+    /**
+     * Establece el componente del que se leen las sugerencias.
+     * 
+     * @param component componente hijo.
+     */
+    public void setComponent(Node component) {
+        if (component == null) {
+            throw new IllegalArgumentException("Component must be non-null");
+        }
+        this.component = component;
+        this.control   = null;
+    }
+
+    /**
+     * Devuelve el componente del que se leen las sugerencias.
+     * @return componente hijo.
+     */
+    public Node getComponent() {
+        return component;
+    }
+
+    /**
+     * Devuelve el control <code>GuiControl</code> del componente.
+     * @return control del componente.
+     */
+    public GuiControl getControl() {
+        if (control == null) {
+            control = component.getControl(GuiControl.class);
+        }
+        return control;
+    }
+
+    /**
+     * Vuelve a leer los tamaños del componente. El tamaño preferido se limita
+     * primero al máximo declarado, y es el que sustituye a los límites que
+     * no se declaran; si el mínimo declarado supera al máximo, prevalece el
+     * mínimo. Así, el tamaño mínimo nunca es mayor que el máximo y el
+     * preferido queda siempre entre ambos.
+     * 
+     * @return esta instancia.
+     */
+    public SizeHints update() {
+        preferredSize.set(getControl().getPreferredSize());
+        
+        Vector3f min = component.getUserData(Jme3HudlConstants.MINIMUM_SIZE);
+        Vector3f max = component.getUserData(Jme3HudlConstants.MAXIMUM_SIZE);
+        hasMinimumSize = (min != null);
+        hasMaximumSize = (max != null);
+        
+        if (hasMaximumSize) {
+            preferredSize.minLocal(max);
+        }
+        minimumSize.set(hasMinimumSize ? min : preferredSize);
+        maximumSize.set(hasMaximumSize ? max : preferredSize);
+        maximumSize.maxLocal(minimumSize);
+        preferredSize.maxLocal(minimumSize).minLocal(maximumSize);
+        return this;
+    }
+
+    /**
+     * Devuelve el tamaño mínimo leído en la última actualización.
+     * @return tamaño mínimo.
+     */
+    public Vector3f getMinimumSize() {
+        return minimumSize;
+    }
+
+    /**
+     * Devuelve el tamaño preferido leído en la última actualización.
+     * @return tamaño preferido.
+     */
+    public Vector3f getPreferredSize() {
+        return preferredSize;
+    }
+
+    /**
+     * Devuelve el tamaño máximo leído en la última actualización.
+     * @return tamaño máximo.
+     */
+    public Vector3f getMaximumSize() {
+        return maximumSize;
+    }
+
+    /**
+     * Determina si el componente declara un tamaño mínimo propio.
+     * @return <code>true</code> si lo declara.
+     */
+    public boolean hasMinimumSize() {
+        return hasMinimumSize;
+    }
+
+    /**
+     * Determina si el componente declara un tamaño máximo propio.
+     * @return <code>true</code> si lo declara.
+     */
+    public boolean hasMaximumSize() {
+        return hasMaximumSize;
+    }
+
+    /**
+     * Establece el tamaño mínimo de un componente. Un valor <code>null</code>
+     * elimina la sugerencia.
+     * 
+     * @param component componente hijo.
+     * @param size tamaño mínimo.
+     */
+    public static void setMinimumSize(Node component, Vector3f size) {
+        setSizeHint(component, Jme3HudlConstants.MINIMUM_SIZE, size);
+    }
+
+    /**
+     * Devuelve el tamaño mínimo declarado por un componente.
+     * 
+     * @param component componente hijo.
+     * @return tamaño mínimo, o <code>null</code> si no lo declara.
+     */
+    public static Vector3f getMinimumSize(Node component) {
+        return component.getUserData(Jme3HudlConstants.MINIMUM_SIZE);
+    }
+
+    /**
+     * Establece el tamaño máximo de un componente. Un valor <code>null</code>
+     * elimina la sugerencia.
+     * 
+     * @param component componente hijo.
+     * @param size tamaño máximo.
+     */
+    public static void setMaximumSize(Node component, Vector3f size) {
+        setSizeHint(component, Jme3HudlConstants.MAXIMUM_SIZE, size);
+    }
+
+    /**
+     * Devuelve el tamaño máximo declarado por un componente.
+     * 
+     * @param component componente hijo.
+     * @return tamaño máximo, o <code>null</code> si no lo declara.
+     */
+    public static Vector3f getMaximumSize(Node component) {
+        return component.getUserData(Jme3HudlConstants.MAXIMUM_SIZE);
+    }
+
+    /*
+     * Guarda la sugerencia e invalida el diseño del contenedor padre; si éste
+     * es un GroupLayout, se invalida solo el componente.
+     */
+    private static void setSizeHint(Node component, String key, Vector3f size) {
+        if (component == null) {
+            throw new IllegalArgumentException("Component must be non-null");
+        }
+        component.setUserData(key, size == null ? null : size.clone());
+
+        Node parent = component.getParent();
+        GuiControl control = (parent == null) ? null : parent.getControl(GuiControl.class);
+        if (control == null) {
+            return;
+        }
+        GuiLayout layout = control.getLayout();
+        if ((layout instanceof GroupLayout) && ((GroupLayout) layout).hasComponent(component)) {
+            ((GroupLayout) layout).invalidateComponent(component);
+        } else {
+            LayoutBatch.invalidate(control);
+        }
+    }
+}
@@ -0,0 +1,71 @@
+/* Copyright (c) 2009-2023 jMonkeyEngine.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package e.g.jme3hudl;
+
+import com.jme3.math.Vector3f;
+import com.simsilica.lemur.core.GuiLayout;
+
+/**
+ * Un <code>TwoPhaseLayout</code> es un diseño que separa el cálculo de los
+ * límites de sus hijos de su aplicación a la escena.
+ * <p>
+ * Su <code>reshape</code> equivale a {@link #compute} seguido de
+ * {@link LayoutResult#commit()} (más los cambios de la escena propios de
+ * cada diseño, como adjuntar la tarjeta visible de {@link CardLayout} o los
+ * hijos que aparecen en el modo virtual de {@link FlowLayout}).
+ * </p>
+ * <p>
+ * {@link #compute} se puede repetir y su resultado se puede descartar: no
+ * modifica la escena ni el estado del que depende el siguiente
+ * <code>reshape</code>, solo las cachés de los tamaños de los hijos. Por
+ * ello no debe invocarse a la vez que otro método del mismo diseño.
+ * </p>
+ * 
+ * @author wil
+ * @version 1.0-SNAPSHOT
+ * 
+ * @since 1.0.0
+ */
+public interface TwoPhaseLayout extends GuiLayout {
+
+    /**
+     * Calcula la posición y el tamaño de cada hijo para el tamaño dado del
+     * contenedor, sin modificar la escena, y los añade a <code>store</code>.
+     * Se añaden todos los hijos que quedarían adjuntos tras
+     * <code>reshape</code>, no solo los que han cambiado.
+     * 
+     * @param size tamaño del contenedor, como lo interpreta el
+     * <code>reshape</code> de cada diseño (ver su documentación).
+     * @param store resultado donde se añaden los límites; no se vacía.
+     */
+    void compute(Vector3f size, LayoutResult store);
+}
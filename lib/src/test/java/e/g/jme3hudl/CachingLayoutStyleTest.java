@@ -0,0 +1,189 @@
+/* Copyright (c) 2009-2023 jMonkeyEngine.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package e.g.jme3hudl;
+
+import com.jme3.scene.Node;
+import com.simsilica.lemur.Container;
+import com.simsilica.lemur.Panel;
+import e.g.jme3hudl.LayoutStyle.ComponentPlacement;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Comprueba que {@link CachingLayoutStyle} memoriza cada hueco por pareja de
+ * clases, {@link ComponentPlacement} y posición, que deja al estilo
+ * decorado rechazar los argumentos no válidos y que
+ * {@link CachingLayoutStyle#clear()} descarta lo memorizado.
+ *
+ * @author wil
+ */
+class CachingLayoutStyleTest {
+
+    private static final int NORTH = Jme3HudlConstants.NORTH;
+    private static final int EAST = Jme3HudlConstants.EAST;
+    private static final int SOUTH = Jme3HudlConstants.SOUTH;
+
+    /**
+     * Estilo por defecto que cuenta sus consultas; sus huecos dependen de
+     * las clases, el placement y la posición.
+     */
+    private static final class CountingStyle extends LayoutStyle {
+        final LayoutStyle style = LayoutStyle.getInstance();
+        int preferredCalls;
+        int containerCalls;
+
+        @Override
+        public int getPreferredGap(Node component1, Node component2,
+                ComponentPlacement type, int position, Node parent) {
+            preferredCalls++;
+            int gap = style.getPreferredGap(component1, component2, type, position, parent);
+            return gap + position * 100 + (component1 instanceof Container ? 1000 : 0)
+                    + (component2 instanceof Container ? 2000 : 0);
+        }
+
+        @Override
+        public int getContainerGap(Node component, int position, Node parent) {
+            containerCalls++;
+            return style.getContainerGap(component, position, parent)
+                    + position * 100 + (component instanceof Container ? 1000 : 0);
+        }
+    }
+
+    private final Node parent = new LayoutFixtures.BareContainer();
+    private final Panel leaf1 = LayoutFixtures.leaf(1);
+    private final Panel leaf2 = LayoutFixtures.leaf(2);
+    private final Container box = new LayoutFixtures.BareContainer();
+
+    @Test
+    void memoizesPerKey() {
+        CountingStyle counting = new CountingStyle();
+        CachingLayoutStyle style = new CachingLayoutStyle(counting);
+
+        int[] positions = {NORTH, EAST, SOUTH, Jme3HudlConstants.WEST};
+        Node[][] pairs = {{leaf1, leaf2}, {leaf1, box}, {box, leaf1}, {box, box}};
+        int keys = 0;
+        for (int round = 0; round < 3; round++) {
+            for (Node[] pair : pairs) {
+                for (ComponentPlacement type : ComponentPlacement.values()) {
+                    for (int position : positions) {
+                        int before = counting.preferredCalls;
+                        int expected = new CountingStyle().getPreferredGap(pair[0], pair[1], type, position, parent);
+                        assertEquals(expected, style.getPreferredGap(pair[0], pair[1], type, position, parent));
+                        keys += counting.preferredCalls - before;
+                    }
+                }
+            }
+        }
+        assertEquals(pairs.length * ComponentPlacement.values().length * positions.length, keys);
+
+        // Otra instancia de la misma clase reutiliza el hueco memorizado.
+        int calls = counting.preferredCalls;
+        style.getPreferredGap(LayoutFixtures.leaf(7), leaf2, ComponentPlacement.RELATED, NORTH, parent);
+        assertEquals(calls, counting.preferredCalls);
+
+        for (int round = 0; round < 3; round++) {
+            for (Node n : new Node[] {leaf1, leaf2, box}) {
+                for (int position : positions) {
+                    assertEquals(new CountingStyle().getContainerGap(n, position, parent),
+                            style.getContainerGap(n, position, parent));
+                }
+            }
+        }
+        assertEquals(2 * positions.length, counting.containerCalls);
+    }
+
+    @Test
+    void memoizesNegativeGaps() {
+        int[] calls = {0};
+        CachingLayoutStyle style = new CachingLayoutStyle(new LayoutStyle() {
+            @Override
+            public int getPreferredGap(Node component1, Node component2,
+                    ComponentPlacement type, int position, Node parent) {
+                calls[0]++;
+                return -1;
+            }
+
+            @Override
+            public int getContainerGap(Node component, int position, Node parent) {
+                calls[0]++;
+                return -1;
+            }
+        });
+        for (int i = 0; i < 3; i++) {
+            assertEquals(-1, style.getPreferredGap(leaf1, leaf2, ComponentPlacement.RELATED, SOUTH, parent));
+            assertEquals(-1, style.getContainerGap(leaf1, SOUTH, parent));
+        }
+        assertEquals(2, calls[0]);
+    }
+
+    @Test
+    void invalidArgumentsReachTheStyle() {
+        CountingStyle counting = new CountingStyle();
+        CachingLayoutStyle style = new CachingLayoutStyle(counting);
+        for (int i = 0; i < 2; i++) {
+            assertThrows(NullPointerException.class,
+                    () -> style.getPreferredGap(null, leaf2, ComponentPlacement.RELATED, SOUTH, parent));
+            assertThrows(NullPointerException.class,
+                    () -> style.getPreferredGap(leaf1, null, ComponentPlacement.RELATED, SOUTH, parent));
+            assertThrows(IllegalArgumentException.class,
+                    () -> style.getPreferredGap(leaf1, leaf2, ComponentPlacement.RELATED, 42, parent));
+            assertThrows(NullPointerException.class,
+                    () -> style.getContainerGap(null, SOUTH, parent));
+            assertThrows(IllegalArgumentException.class,
+                    () -> style.getContainerGap(leaf1, Jme3HudlConstants.NORTH_WEST, parent));
+        }
+        assertEquals(6, counting.preferredCalls);
+        assertEquals(4, counting.containerCalls);
+        assertThrows(IllegalArgumentException.class, () -> new CachingLayoutStyle(null));
+    }
+
+    @Test
+    void clear() {
+        CountingStyle counting = new CountingStyle();
+        CachingLayoutStyle style = new CachingLayoutStyle(counting);
+        style.getPreferredGap(leaf1, leaf2, ComponentPlacement.UNRELATED, EAST, parent);
+        style.getContainerGap(box, NORTH, parent);
+        style.getPreferredGap(leaf1, leaf2, ComponentPlacement.UNRELATED, EAST, parent);
+        style.getContainerGap(box, NORTH, parent);
+        assertEquals(1, counting.preferredCalls);
+        assertEquals(1, counting.containerCalls);
+
+        style.clear();
+        style.getPreferredGap(leaf1, leaf2, ComponentPlacement.UNRELATED, EAST, parent);
+        style.getContainerGap(box, NORTH, parent);
+        assertEquals(2, counting.preferredCalls);
+        assertEquals(2, counting.containerCalls);
+    }
+}
@@ -0,0 +1,417 @@
+/* Copyright (c) 2009-2023 jMonkeyEngine.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package e.g.jme3hudl;
+
+import com.jme3.math.ColorRGBA;
+import com.jme3.math.Vector3f;
+import com.jme3.scene.Node;
+import com.jme3.scene.Spatial;
+import com.simsilica.lemur.Container;
+import com.simsilica.lemur.Panel;
+import com.simsilica.lemur.component.QuadBackgroundComponent;
+import com.simsilica.lemur.core.AbstractGuiControlListener;
+import com.simsilica.lemur.core.GuiControl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compara un {@link CardLayout} con muchas pantallas pesadas construidas de
+ * antemano frente al mismo menú con tarjetas perezosas y un presupuesto.
+ * <p>
+ * Tras cada cambio de pantalla se comprueba que la pantalla visible queda
+ * igual en ambos menús y que no se supera el presupuesto de tarjetas.
+ * </p>
+ * <p>
+ * También se recorre el menú con <code>next()</code> con precarga en un hilo
+ * de trabajo, y se anima cada tipo de transición, comprobando que no se
+ * vuelve a diseñar el contenedor en cada fotograma y que las tarjetas
+ * quedan como sin transición.
+ * </p>
+ *
+ * @author wil
+ */
+class CardLayoutTest {
+
+    private static final int SCREENS = 40;
+    private static final int LEAVES_PER_SCREEN = 150;
+    private static final int BUDGET = 4;
+    private static final int SWITCHES = 2000;
+    private static final Vector3f SIZE = new Vector3f(1024, 768, 0);
+
+    /** Llamadas a reshape de las pantallas. */
+    private static int reshapes;
+    /** Pantallas construidas. */
+    private static int built;
+
+    private static final AbstractGuiControlListener COUNTER = new AbstractGuiControlListener() {
+        @Override
+        public void reshape(GuiControl source, Vector3f pos, Vector3f size) {
+            reshapes++;
+        }
+    };
+
+    private static Container screen(int index) {
+        built++;
+        List<Node> leaves = new ArrayList<>();
+        for (int i = 0; i < LEAVES_PER_SCREEN; i++) {
+            leaves.add(LayoutFixtures.leaf(index * LEAVES_PER_SCREEN + i));
+        }
+        Container c = LayoutFixtures.flowLayout().create(leaves);
+        c.getControl(GuiControl.class).addListener(COUNTER);
+        return c;
+    }
+
+    private static Container menu(boolean lazy) {
+        Container root = new LayoutFixtures.BareContainer();
+        CardLayout layout = new CardLayout();
+        root.setLayout(layout);
+        for (int i = 0; i < SCREENS; i++) {
+            final int index = i;
+            if (lazy) {
+                layout.addLayoutSupplier(() -> screen(index), "screen" + i);
+            } else {
+                layout.addLayoutComponent(screen(index), "screen" + i);
+            }
+        }
+        if (lazy) {
+            layout.setCardBudget(BUDGET);
+        }
+        return root;
+    }
+
+    private static int loaded(CardLayout layout) {
+        int n = 0;
+        for (int i = 0; i < SCREENS; i++) {
+            if (layout.isCardLoaded("screen" + i)) {
+                n++;
+            }
+        }
+        return n;
+    }
+
+    private static void compare(Spatial a, Spatial b) {
+        assertEquals(a.getControl(GuiControl.class).getSize(), b.getControl(GuiControl.class).getSize(),
+                "Lazy card differs: " + a);
+        assertEquals(a.getLocalTranslation(), b.getLocalTranslation(), "Lazy card differs: " + a);
+        if (a instanceof Node) {
+            Node na = (Node) a, nb = (Node) b;
+            assertEquals(na.getQuantity(), nb.getQuantity(), "Lazy card children differ: " + a);
+            for (int i = 0; i < na.getQuantity(); i++) {
+                compare(na.getChild(i), nb.getChild(i));
+            }
+        }
+    }
+
+    /**
+     * Recorre un menú con next/previous/first/last/show y quitando tarjetas,
+     * comparando la tarjeta visible con un modelo de índices.
+     */
+    private static void navigate(Random rnd) {
+        Container root = new LayoutFixtures.BareContainer();
+        CardLayout layout = new CardLayout();
+        root.setLayout(layout);
+        List<Node> model = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            Node n = LayoutFixtures.leaf(i);
+            n.setName("page" + i);
+            model.add(n);
+            layout.addLayoutComponent(n, "page" + i);
+        }
+        LayoutFixtures.layout(root, SIZE);
+        int current = 0, steps = 0;
+        while (!model.isEmpty()) {
+            switch (rnd.nextInt(6)) {
+                case 0:
+                    layout.next();
+                    current = (current + 1) % model.size();
+                    break;
+                case 1:
+                    layout.previous();
+                    current = current > 0 ? current - 1 : model.size() - 1;
+                    break;
+                case 2:
+                    layout.first();
+                    current = 0;
+                    break;
+                case 3:
+                    layout.last();
+                    current = model.size() - 1;
+                    break;
+                case 4:
+                    current = rnd.nextInt(model.size());
+                    layout.show(model.get(current).getName());
+                    break;
+                default:
+                    // Al quitar la tarjeta visible se muestra la siguiente.
+                    int i = rnd.nextInt(model.size());
+                    layout.removeChild(model.remove(i));
+                    if (i < current) {
+                        current--;
+                    } else if (i == current && !model.isEmpty()) {
+                        current %= model.size();
+                    }
+                    break;
+            }
+            steps++;
+            LayoutFixtures.layout(root, SIZE);
+            if (model.isEmpty()) {
+                break;
+            }
+            assertEquals(1, root.getQuantity(), "Card navigation differs at step " + steps);
+            assertSame(model.get(current), root.getChild(0), "Card navigation differs at step " + steps);
+        }
+        assertEquals(0, root.getQuantity(), "Removed cards are still attached.");
+    }
+
+    /**
+     * Recorre el menú perezoso con next(), un cambio por fotograma, y
+     * devuelve las tarjetas precargadas y las construidas al mostrarlas.
+     */
+    private static long[] browse(boolean preload) throws InterruptedException {
+        LayoutHistogram histogram = new LayoutHistogram();
+        ExecutorService worker = Executors.newSingleThreadExecutor();
+        ConcurrentLinkedQueue<Runnable> render = new ConcurrentLinkedQueue<>();
+        Container menu = menu(true);
+        CardLayout layout = LayoutFixtures.layoutOf(menu);
+        if (preload) {
+            layout.setPreloadExecutors(worker, render::add);
+        }
+        LayoutFixtures.layout(menu, SIZE);
+        LayoutMonitor.setMetrics(histogram);
+        for (int frame = 0; frame < SCREENS * 3; frame++) {
+            // Resto del fotograma: el hilo de trabajo dispone de ~16 ms.
+            long deadline = System.nanoTime() + 16_000_000L;
+            while (preload && render.isEmpty() && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+            for (Runnable r; (r = render.poll()) != null; ) {
+                r.run();
+            }
+            layout.next();
+            LayoutFixtures.layout(menu, SIZE);
+            layout.preloadNext();
+        }
+        LayoutMonitor.setMetrics(null);
+        worker.shutdown();
+        worker.awaitTermination(1, TimeUnit.SECONDS);
+        return new long[] {histogram.getPreloadHits(menu), histogram.getColdCards(menu)};
+    }
+
+    /**
+     * Anima un cambio de tarjeta y devuelve las veces que se vuelve a
+     * diseñar el contenedor durante la transición.
+     */
+    private static int transition(CardLayout.Transition mode) {
+        Node scene = new Node("gui");
+        Container root = new LayoutFixtures.BareContainer();
+        CardLayout layout = new CardLayout();
+        root.setLayout(layout);
+        // Fondos con color, para que los fundidos tengan algo que atenuar.
+        for (int i = 0; i < 3; i++) {
+            Container card = screen(i);
+            for (Spatial leaf : card.getChildren()) {
+                ((Panel) leaf).setBackground(new QuadBackgroundComponent(ColorRGBA.Gray));
+            }
+            layout.addLayoutComponent(card, "screen" + i);
+        }
+        layout.setTransition(mode, 2);
+        // Sin límite de tiempo: una pausa del JIT no debe acortarla.
+        layout.setTransitionBudget(1);
+        scene.attachChild(root);
+        LayoutFixtures.layout(root, SIZE);
+        Vector3f origin = root.getChild(0).getLocalTranslation().clone();
+
+        int[] relayouts = new int[1];
+        AbstractGuiControlListener counter = new AbstractGuiControlListener() {
+            @Override
+            public void reshape(GuiControl source, Vector3f pos, Vector3f size) {
+                relayouts[0]++;
+            }
+        };
+        root.getControl(GuiControl.class).addListener(counter);
+        layout.next();
+        // El cambio se diseña en el primer fotograma y la nueva tarjeta
+        // termina de asentarse en el segundo; ambos quedan fuera.
+        scene.updateLogicalState(1 / 60F);
+        scene.updateLogicalState(1 / 60F);
+        relayouts[0] = 0;
+        // Se miden 100 de los 118 fotogramas restantes: el último quita la
+        // tarjeta que sale y no se cuenta.
+        long frames = 0;
+        while (frames < 100 && layout.isTransitioning()) {
+            scene.updateLogicalState(1 / 60F);
+            frames++;
+        }
+        int count = relayouts[0];
+        while (layout.isTransitioning()) {
+            scene.updateLogicalState(1 / 60F);
+            frames++;
+        }
+        root.getControl(GuiControl.class).removeListener(counter);
+
+        assertTrue(mode == CardLayout.Transition.NONE || frames >= 100, mode + " ended after " + frames + " frames.");
+        assertEquals(1, root.getQuantity(), mode + " left the cards in a different state.");
+        Panel card = (Panel) root.getChild(0);
+        Panel leaf = (Panel) card.getChild(0);
+        assertEquals(1, ((QuadBackgroundComponent) leaf.getBackground()).getAlpha(), mode + " left the cards faded.");
+        assertEquals(origin, card.getLocalTranslation(), mode + " left the cards in a different state.");
+
+        // Con un presupuesto imposible la transición termina en un fotograma.
+        layout.setTransitionBudget(1e-9F);
+        layout.next();
+        scene.updateLogicalState(1 / 60F);
+        assertFalse(layout.isTransitioning(), mode + " ignored the transition budget.");
+        assertEquals(1, root.getQuantity(), mode + " ignored the transition budget.");
+        return count;
+    }
+
+    @Test
+    void lazyCards() {
+        Container eager = menu(false);
+        built = 0;
+        Container lazy = menu(true);
+        CardLayout eagerLayout = LayoutFixtures.layoutOf(eager);
+        CardLayout lazyLayout = LayoutFixtures.layoutOf(lazy);
+        LayoutFixtures.layout(eager, SIZE);
+        LayoutFixtures.layout(lazy, SIZE);
+        // Solo se construye la tarjeta visible.
+        assertEquals(1, built, "Screens built at startup");
+
+        Random rnd = new Random(14);
+        int eagerReshapes = 0, lazyReshapes = 0;
+        for (int i = 0; i < SWITCHES; i++) {
+            // Se visitan sobre todo unas pocas pantallas, como en un menú real.
+            int target = rnd.nextInt(4) == 0 ? rnd.nextInt(SCREENS) : rnd.nextInt(BUDGET + 2);
+            String name = "screen" + target;
+            reshapes = 0;
+            eagerLayout.show(name);
+            LayoutFixtures.layout(eager, SIZE);
+            eagerReshapes += reshapes;
+            reshapes = 0;
+            lazyLayout.show(name);
+            LayoutFixtures.layout(lazy, SIZE);
+            lazyReshapes += reshapes;
+
+            assertTrue(loaded(lazyLayout) <= BUDGET, "Card budget exceeded: " + loaded(lazyLayout));
+            assertEquals(1, eager.getQuantity(), "Exactly one card must be attached.");
+            assertEquals(1, lazy.getQuantity(), "Exactly one card must be attached.");
+            compare(eager.getChild(0), lazy.getChild(0));
+        }
+        assertTrue(lazyReshapes <= eagerReshapes, "lazy " + lazyReshapes + " > eager " + eagerReshapes);
+    }
+
+    @Test
+    void navigation() {
+        for (int seed = 0; seed < 50; seed++) {
+            navigate(new Random(seed));
+        }
+    }
+
+    @Test
+    void preload() throws InterruptedException {
+        long[] warm = browse(true);
+        assertTrue(warm[0] > 0, "No card was preloaded.");
+    }
+
+    /**
+     * Precarga tarjetas cuyo proveedor falla o no devuelve un elemento GUI,
+     * y comprueba que el aviso incluye la excepción del proveedor.
+     */
+    @Test
+    void failedPreload() {
+        List<LogRecord> records = new ArrayList<>();
+        Handler handler = new Handler() {
+            @Override
+            public void publish(LogRecord record) {
+                records.add(record);
+            }
+            @Override
+            public void flush() {
+            }
+            @Override
+            public void close() {
+            }
+        };
+        Logger logger = Logger.getLogger(CardLayout.class.getName());
+        logger.addHandler(handler);
+        try {
+            IllegalStateException failure = new IllegalStateException("broken card");
+            Container root = new LayoutFixtures.BareContainer();
+            CardLayout layout = new CardLayout();
+            root.setLayout(layout);
+            // La primera tarjeta se construye al agregarla.
+            layout.addLayoutSupplier(() -> screen(0), "first");
+            layout.addLayoutSupplier(() -> {
+                throw failure;
+            }, "broken");
+            layout.addLayoutSupplier(() -> new Node("plain"), "plain");
+            layout.setPreloadExecutors(Runnable::run, Runnable::run);
+
+            layout.preload("broken");
+            layout.preload("plain");
+            assertEquals(2, records.size());
+            assertEquals(Level.WARNING, records.get(0).getLevel());
+            assertSame(failure, records.get(0).getThrown());
+            assertTrue(records.get(0).getMessage().contains("'broken'"), records.get(0).getMessage());
+            assertNull(records.get(1).getThrown());
+            assertTrue(records.get(1).getMessage().contains("GUI element"), records.get(1).getMessage());
+        } finally {
+            logger.removeHandler(handler);
+        }
+    }
+
+    @Test
+    void transitions() {
+        HeadlessGui.initialize();
+        for (CardLayout.Transition mode : CardLayout.Transition.values()) {
+            assertEquals(0, transition(mode), mode + " relayouts");
+        }
+    }
+}
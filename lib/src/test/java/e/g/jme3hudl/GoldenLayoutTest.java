@@ -0,0 +1,592 @@
+/* Copyright (c) 2009-2023 jMonkeyEngine.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package e.g.jme3hudl;
+
+import com.jme3.math.Vector3f;
+import com.jme3.scene.Node;
+import com.jme3.scene.Spatial;
+import com.simsilica.lemur.Container;
+import com.simsilica.lemur.Panel;
+import com.simsilica.lemur.core.GuiControl;
+import com.simsilica.lemur.core.GuiLayout;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Comprobación de regresiones de diseño mediante {@link LayoutSnapshot}.
+ * <p>
+ * Primero compara cada escena de {@link LayoutHarness} con su instantánea
+ * de referencia guardada en <code>src/test/golden</code>. Después genera miles
+ * de árboles aleatorios (GroupLayout, FlowLayout, CardLayout y ControlLayout
+ * anidados) y verifica que los caminos optimizados producen los mismos
+ * límites que la referencia:
+ * <ul>
+ * <li>el solucionador aplanado de {@link GroupLayout} frente al recursivo;</li>
+ * <li>un rediseño incremental (cambio y restauración de una hoja) frente a
+ * un árbol recién construido;</li>
+ * <li>la reconstrucción del relleno automático de {@link GroupLayout} al
+ * quitar hojas, frente a la referencia con las mismas hojas quitadas;</li>
+ * <li>el modo virtual de {@link FlowLayout} frente al flujo completo: los
+ * hijos adjuntos deben ser exactamente los que intersecan la ventana;</li>
+ * <li>las búsquedas del índice de filas de {@link FlowLayout} frente a un
+ * recorrido lineal de los hijos;</li>
+ * <li>el rediseño incremental de {@link FlowLayout} tras altas, bajas y
+ * cambios de tamaño frente a un flujo recién construido;</li>
+ * <li>el rediseño de un contenedor de tamaño fijo dentro de un
+ * {@link FlowLayout} cuando cambia su contenido;</li>
+ * <li>árboles aleatorios con contenedores anidados de tamaño fijo cuyo
+ * contenido cambia entre pasadas, frente a un árbol recién construido con
+ * los mismos cambios y diseñado una sola vez;</li>
+ * <li>la lectura de los formatos binario y texto frente a la instantánea
+ * original.</li>
+ * </ul>
+ * </p>
+ * <p>
+ * Para regenerar las instantáneas de referencia:
+ * <code>gradle test --tests '*GoldenLayoutTest' -PupdateGolden</code>
+ * </p>
+ *
+ * @author wil
+ */
+class GoldenLayoutTest {
+
+    private static final int TREES = 5000;
+    private static final int MAX_CHILDREN = 8;
+    private static final int MAX_DEPTH = 3;
+    private static final int REPORT = 8;
+
+    /** Tolerancia para las escenas con estilo, cuyas fuentes pueden redondear. */
+    private static final LayoutSnapshot.Tolerance GOLDEN = new LayoutSnapshot.Tolerance(0.01f, 0.01f, 1e-6f);
+
+    /**
+     * Construye un árbol aleatorio reproducible a partir de una semilla.
+     */
+    private static Container randomTree(long seed, boolean flattened) {
+        Random rnd = new Random(seed);
+        return randomContainer(rnd, MAX_DEPTH, flattened, false);
+    }
+
+    /**
+     * Construye un árbol aleatorio en el que la mitad de los contenedores
+     * anidados tienen un tamaño preferido fijo, que no cambia con su
+     * contenido.
+     */
+    private static Container randomFixedTree(long seed, boolean flattened) {
+        Random rnd = new Random(seed);
+        return randomContainer(rnd, MAX_DEPTH, flattened, true);
+    }
+
+    private static Container randomContainer(Random rnd, int depth, boolean flattened, boolean fixed) {
+        int count = 1 + rnd.nextInt(MAX_CHILDREN);
+        List<Node> children = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            if (depth > 1 && rnd.nextInt(fixed ? 2 : 4) == 0) {
+                Container c = randomContainer(rnd, depth - 1, flattened, fixed);
+                if (fixed && rnd.nextBoolean()) {
+                    c.setPreferredSize(new Vector3f(40 + rnd.nextInt(200), 20 + rnd.nextInt(120), 0));
+                }
+                children.add(c);
+            } else {
+                children.add(new LayoutFixtures.BarePanel(8 + rnd.nextInt(120), 8 + rnd.nextInt(40)));
+            }
+        }
+
+        LayoutFixtures.LayoutFactory factory;
+        switch (rnd.nextInt(4)) {
+            case 0:
+                factory = LayoutFixtures.flowLayout();
+                break;
+            case 1:
+                factory = LayoutFixtures.cardLayout();
+                break;
+            case 2:
+                factory = LayoutFixtures.controlLayout();
+                break;
+            default:
+                factory = LayoutFixtures.groupLayout(rnd.nextBoolean(), rnd.nextBoolean());
+                break;
+        }
+        Container c = factory.create(children);
+        GuiLayout layout = LayoutFixtures.layoutOf(c);
+        if (layout instanceof GroupLayout) {
+            ((GroupLayout) layout).setFlattenedSolver(flattened);
+        }
+        return c;
+    }
+
+    private static Vector3f viewport(long seed, Panel root) {
+        Random rnd = new Random(~seed);
+        return root.getPreferredSize().add(rnd.nextInt(200), rnd.nextInt(120), 0);
+    }
+
+    private static void collectLeaves(Spatial s, List<Panel> leaves) {
+        if (s instanceof LayoutFixtures.BarePanel) {
+            leaves.add((Panel) s);
+        } else if (s instanceof Node) {
+            for (Spatial child : ((Node) s).getChildren()) {
+                collectLeaves(child, leaves);
+            }
+        }
+    }
+
+    /**
+     * Notifica el cambio de una hoja a cada {@link GroupLayout} de sus
+     * ancestros, tal como debe hacerlo una aplicación.
+     */
+    private static void invalidateComponent(Panel leaf) {
+        Spatial child = leaf;
+        for (Node parent = leaf.getParent(); parent != null; child = parent, parent = parent.getParent()) {
+            GuiControl gc = parent.getControl(GuiControl.class);
+            if (gc != null && gc.getLayout() instanceof GroupLayout) {
+                GroupLayout layout = (GroupLayout) gc.getLayout();
+                if (layout.hasComponent((Node) child)) {
+                    layout.invalidateComponent((Node) child);
+                }
+            }
+        }
+    }
+
+    /**
+     * Quita dos hojas hijas de un {@link GroupLayout}, una tras otra, en el
+     * árbol optimizado y en la referencia, comparando ambos árboles después
+     * de cada baja. Cada baja reconstruye el relleno automático.
+     * 
+     * @return número de hojas quitadas.
+     */
+    private static int removeLeaves(Container optimized, Container reference, List<Panel> leaves,
+                                    long seed, Vector3f size) {
+        List<Panel> referenceLeaves = new ArrayList<>();
+        collectLeaves(reference, referenceLeaves);
+        int removed = 0;
+        for (int i = 0; i < leaves.size() && removed < 2; i++) {
+            int index = (int) ((seed + i * 7) % leaves.size());
+            Panel leaf = leaves.get(index);
+            Node parent = leaf.getParent();
+            GuiControl gc = parent == null ? null : parent.getControl(GuiControl.class);
+            if (gc == null || !(gc.getLayout() instanceof GroupLayout)) {
+                continue;
+            }
+            gc.getLayout().removeChild(leaf);
+            LayoutFixtures.layout(optimized, size);
+
+            Panel referenceLeaf = referenceLeaves.get(index);
+            referenceLeaf.getParent().getControl(GuiControl.class).getLayout().removeChild(referenceLeaf);
+            LayoutFixtures.layout(reference, size);
+            check("seed " + seed + " (removed " + index + ")", LayoutSnapshot.capture(reference, size),
+                  LayoutSnapshot.capture(optimized, size), LayoutSnapshot.Tolerance.EXACT);
+            removed++;
+        }
+        return removed;
+    }
+
+    /**
+     * Compara un {@link FlowLayout} virtual con uno completo, desplazando la
+     * ventana visible varias veces.
+     */
+    private static int virtualFlow(long seed) {
+        Random rnd = new Random(seed);
+        int count = 1 + rnd.nextInt(400);
+        List<Node> a = new ArrayList<>(count), b = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            float w = 8 + rnd.nextInt(120), h = 8 + rnd.nextInt(40);
+            a.add(new LayoutFixtures.BarePanel(w, h));
+            b.add(new LayoutFixtures.BarePanel(w, h));
+        }
+        Container reference = LayoutFixtures.flowLayout().create(a);
+        Container virtual = LayoutFixtures.flowLayout().create(b);
+        FlowLayout layout = LayoutFixtures.layoutOf(virtual);
+
+        Vector3f size = new Vector3f(100 + rnd.nextInt(700), 300, 0);
+        LayoutFixtures.layout(reference, size);
+        float content = LayoutFixtures.<FlowLayout>layoutOf(reference).getContentHeight();
+
+        int shown = 0;
+        for (int step = 0; step < 4; step++) {
+            float vx = rnd.nextInt((int) size.x), vy = rnd.nextInt((int) content + 1);
+            float vw = rnd.nextInt(400), vh = rnd.nextInt(300);
+            layout.setViewport(vx, vy, vw, vh);
+            LayoutFixtures.layout(virtual, size);
+            shown += checkViewport("seed " + seed + " (virtual)", content, a, layout, b, vx, vy, vw, vh);
+        }
+        checkRowIndex(seed, layout, a, b, size, rnd);
+        layout.clearViewport();
+        LayoutFixtures.layout(virtual, size);
+        check("seed " + seed + " (virtual cleared)", LayoutSnapshot.capture(reference, size),
+              LayoutSnapshot.capture(virtual, size), LayoutSnapshot.Tolerance.EXACT);
+        return shown;
+    }
+
+    /**
+     * Compara los hijos de un flujo virtual con los de uno completo: deben
+     * estar adjuntos exactamente los que intersecan la ventana y en la misma
+     * posición.
+     * 
+     * @return número de hijos visibles.
+     */
+    private static int checkViewport(String name, float content, List<Node> reference,
+                                     FlowLayout layout, List<Node> tiles,
+                                     float vx, float vy, float vw, float vh) {
+        if (layout.getContentHeight() != content) {
+            throw new AssertionError(name + ": content height " + layout.getContentHeight() + " != " + content);
+        }
+        int shown = 0;
+        for (int i = 0; i < reference.size(); i++) {
+            Panel r = (Panel) reference.get(i), v = (Panel) tiles.get(i);
+            Vector3f t = r.getLocalTranslation(), d = r.getSize();
+            boolean visible = t.x < vx + vw && t.x + d.x > vx && -t.y < vy + vh && -t.y + d.y > vy;
+            if (visible != (v.getParent() != null)) {
+                throw new AssertionError(name + " tile " + i
+                        + (visible ? " missing from" : " attached outside") + " the viewport");
+            }
+            if (visible) {
+                shown++;
+                if (!t.equals(v.getLocalTranslation()) || !d.equals(v.getSize())) {
+                    throw new AssertionError(name + " tile " + i + ": "
+                            + v.getLocalTranslation() + " " + v.getSize() + " != " + t + " " + d);
+                }
+            }
+        }
+        return shown;
+    }
+
+    /**
+     * Edita un {@link FlowLayout} (altas al final, bajas, cambios de tamaño
+     * y, en el modo virtual, desplazamientos) y compara cada pasada
+     * incremental con la de un flujo recién construido.
+     * 
+     * @return número de hijos comparados.
+     */
+    private static int editedFlow(long seed, boolean virtualized) {
+        Random rnd = new Random(seed);
+        Vector3f size = new Vector3f(100 + rnd.nextInt(700), 300, 0);
+        List<Node> tiles = new ArrayList<>();
+        for (int i = 0, n = rnd.nextInt(100); i < n; i++) {
+            tiles.add(new LayoutFixtures.BarePanel(8 + rnd.nextInt(120), 8 + rnd.nextInt(40)));
+        }
+        Container edited = LayoutFixtures.flowLayout().create(tiles);
+        FlowLayout layout = LayoutFixtures.layoutOf(edited);
+        float vx = 0, vy = 0, vw = size.x, vh = 200;
+        if (virtualized) {
+            layout.setViewport(vx, vy, vw, vh);
+        }
+        LayoutFixtures.layout(edited, size);
+
+        int checked = 0;
+        for (int step = 0; step < 40; step++) {
+            int op = rnd.nextInt(4);
+            if (op == 0 || tiles.isEmpty()) {
+                Panel p = new LayoutFixtures.BarePanel(8 + rnd.nextInt(120), 8 + rnd.nextInt(40));
+                edited.addChild(p);
+                tiles.add(p);
+            } else if (op == 1) {
+                edited.removeChild(tiles.remove(rnd.nextInt(tiles.size())));
+            } else if (op == 2 || !virtualized) {
+                Panel p = (Panel) tiles.get(rnd.nextInt(tiles.size()));
+                p.setPreferredSize(new Vector3f(8 + rnd.nextInt(120), 8 + rnd.nextInt(40), 0));
+                if (p.getParent() == null) {
+                    layout.invalidateComponent(p);
+                }
+            } else {
+                vy = rnd.nextInt((int) layout.getContentHeight() + 1);
+                layout.setViewport(vx, vy, vw, vh);
+            }
+            LayoutFixtures.layout(edited, size);
+
+            List<Node> copies = new ArrayList<>(tiles.size());
+            for (Node n : tiles) {
+                Vector3f pref = ((Panel) n).getPreferredSize();
+                copies.add(new LayoutFixtures.BarePanel(pref.x, pref.y));
+            }
+            Container reference = LayoutFixtures.flowLayout().create(copies);
+            LayoutFixtures.layout(reference, size);
+            String name = "seed " + seed + " (edited" + (virtualized ? ", virtual" : "") + ") step " + step;
+            if (virtualized) {
+                float content = LayoutFixtures.<FlowLayout>layoutOf(reference).getContentHeight();
+                checkViewport(name, content, copies, layout, tiles, vx, vy, vw, vh);
+            } else {
+                check(name, LayoutSnapshot.capture(reference, size), LayoutSnapshot.capture(edited, size),
+                      LayoutSnapshot.Tolerance.EXACT);
+            }
+            checked += tiles.size();
+        }
+        return checked;
+    }
+
+    /**
+     * Compara <code>rowOf</code>, <code>scrollOffsetFor</code> y
+     * <code>childAt</code> con un recorrido lineal de los hijos del flujo de
+     * referencia.
+     */
+    private static void checkRowIndex(long seed, FlowLayout layout, List<Node> reference, List<Node> tiles,
+                                      Vector3f size, Random rnd) {
+        String name = "seed " + seed + " (row index)";
+        for (int i = 0; i < reference.size(); i++) {
+            Panel r = (Panel) reference.get(i);
+            float top = -r.getLocalTranslation().y;
+            int row = layout.rowOf(i);
+            float rowTop = layout.scrollOffsetFor(i);
+            if (row < 0 || row >= layout.getRowCount() || top < rowTop) {
+                throw new AssertionError(name + ": child " + i + " at " + top + " in row " + row + " at " + rowTop);
+            }
+            if (row + 1 < layout.getRowCount()) {
+                // El primer hijo de la fila siguiente empieza más abajo.
+                for (int j = i + 1; j < reference.size(); j++) {
+                    if (layout.rowOf(j) != row) {
+                        if (layout.scrollOffsetFor(j) <= rowTop) {
+                            throw new AssertionError(name + ": rows " + row + " and " + layout.rowOf(j) + " overlap");
+                        }
+                        break;
+                    }
+                }
+            }
+        }
+
+        for (int k = 0; k < 200; k++) {
+            float x = rnd.nextFloat() * size.x, y = rnd.nextFloat() * layout.getContentHeight();
+            Node expected = null;
+            for (int i = 0; i < reference.size() && expected == null; i++) {
+                Panel r = (Panel) reference.get(i);
+                Vector3f t = r.getLocalTranslation(), d = r.getSize();
+                if (x >= t.x && x < t.x + d.x && y >= -t.y && y < -t.y + d.y) {
+                    expected = r;
+                }
+            }
+            int index = tiles.indexOf(layout.childAt(x, y));
+            if (index != reference.indexOf(expected)) {
+                throw new AssertionError(name + ": childAt(" + x + ", " + y + ") = " + index
+                        + ", expected " + reference.indexOf(expected));
+            }
+        }
+    }
+
+    private static void check(String name, LayoutSnapshot expected, LayoutSnapshot actual,
+                              LayoutSnapshot.Tolerance tolerance) {
+        List<String> diffs = expected.compare(actual, tolerance, REPORT);
+        assertTrue(diffs.isEmpty(), () -> name + ":\n  " + String.join("\n  ", diffs));
+    }
+
+    private static byte[] toBinary(LayoutSnapshot snapshot) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        snapshot.write(bytes);
+        return bytes.toByteArray();
+    }
+
+    private static String toText(LayoutSnapshot snapshot) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (PrintStream out = new PrintStream(bytes, false, "UTF-8")) {
+            snapshot.writeText(out);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Compara las escenas con estilo con sus instantáneas de referencia, o
+     * las regenera.
+     */
+    private static void golden(File dir, boolean update) throws IOException {
+        for (Map.Entry<String, Supplier<Container>> e : LayoutHarness.scenes().entrySet()) {
+            Container root = e.getValue().get();
+            LayoutHarness.layout(root, null);
+            Vector3f size = root.getPreferredSize().add(200, 100, 0);
+            LayoutHarness.layout(root, size);
+            LayoutSnapshot actual = LayoutSnapshot.capture(root, size);
+
+            File file = new File(dir, e.getKey() + ".hudl");
+            if (update) {
+                if (!dir.isDirectory() && !dir.mkdirs()) {
+                    throw new IOException("Cannot create " + dir);
+                }
+                try (OutputStream out = new FileOutputStream(file)) {
+                    actual.write(out);
+                }
+                System.out.printf("%-8s %3d components -> %s%n", e.getKey(), actual.count, file);
+                continue;
+            }
+
+            LayoutSnapshot expected;
+            try (InputStream in = new FileInputStream(file)) {
+                expected = LayoutSnapshot.read(in);
+            }
+            try {
+                check(e.getKey(), expected, actual, GOLDEN);
+            } catch (AssertionError error) {
+                System.err.print(toText(actual));
+                throw error;
+            }
+        }
+    }
+
+    @Test
+    void goldenSnapshots() throws IOException {
+        golden(new File(System.getProperty("golden.dir", "src/test/golden")),
+               Boolean.getBoolean("golden.update"));
+    }
+
+    @Test
+    void randomTrees() throws IOException {
+        for (long seed = 0; seed < TREES; seed++) {
+            Container reference = randomTree(seed, false);
+            Vector3f size = viewport(seed, reference);
+            LayoutFixtures.layout(reference, size);
+            LayoutSnapshot expected = LayoutSnapshot.capture(reference, size);
+
+            Container optimized = randomTree(seed, true);
+            LayoutFixtures.layout(optimized, size);
+            check("seed " + seed + " (flattened)", expected, LayoutSnapshot.capture(optimized, size),
+                  LayoutSnapshot.Tolerance.EXACT);
+
+            List<Panel> leaves = new ArrayList<>();
+            collectLeaves(optimized, leaves);
+            if (!leaves.isEmpty()) {
+                Panel leaf = leaves.get((int) (seed % leaves.size()));
+                Vector3f pref = leaf.getPreferredSize().clone();
+                leaf.setPreferredSize(pref.add(31, 17, 0));
+                invalidateComponent(leaf);
+                LayoutFixtures.layout(optimized, size);
+                leaf.setPreferredSize(pref);
+                invalidateComponent(leaf);
+                LayoutFixtures.layout(optimized, size);
+                check("seed " + seed + " (incremental)", expected, LayoutSnapshot.capture(optimized, size),
+                      LayoutSnapshot.Tolerance.EXACT);
+
+                removeLeaves(optimized, reference, leaves, seed, size);
+            }
+
+            check("seed " + seed + " (binary)", expected,
+                  LayoutSnapshot.read(new ByteArrayInputStream(toBinary(expected))), LayoutSnapshot.Tolerance.EXACT);
+            check("seed " + seed + " (text)", expected,
+                  LayoutSnapshot.readText(new StringReader(toText(expected))), LayoutSnapshot.Tolerance.EXACT);
+        }
+    }
+
+    @Test
+    void virtualFlows() {
+        for (long seed = 0; seed < TREES / 10; seed++) {
+            virtualFlow(seed);
+        }
+    }
+
+    @Test
+    void editedFlows() {
+        for (long seed = 0; seed < TREES / 10; seed++) {
+            editedFlow(seed, (seed & 1) == 0);
+        }
+    }
+
+    /**
+     * Un contenedor de tamaño fijo dentro de un {@link FlowLayout}: su tamaño
+     * preferido no cambia con su contenido, pero el flujo debe volver a
+     * asignarle su tamaño para que Lemur lo diseñe de nuevo.
+     */
+    @Test
+    void nestedFlow() {
+        for (boolean virtualized : new boolean[] {false, true}) {
+            Panel inner = new LayoutFixtures.BarePanel(20, 10);
+            Container tile = LayoutFixtures.flowLayout().create(Arrays.asList(inner));
+            tile.setPreferredSize(new Vector3f(100, 50, 0));
+            Container root = LayoutFixtures.flowLayout().create(
+                    Arrays.asList(new LayoutFixtures.BarePanel(30, 30), tile));
+            if (virtualized) {
+                LayoutFixtures.<FlowLayout>layoutOf(root).setViewport(0, 0, 400, 300);
+            }
+            Vector3f size = new Vector3f(400, 300, 0);
+            LayoutFixtures.layout(root, size);
+            inner.setPreferredSize(new Vector3f(60, 30, 0));
+            LayoutFixtures.layout(root, size);
+            assertEquals(new Vector3f(60, 30, 0), inner.getSize(), virtualized ? "virtual" : "flow");
+        }
+    }
+
+    /**
+     * Cambia varias veces el tamaño de hojas de un árbol con contenedores de
+     * tamaño fijo y compara cada pasada con un árbol recién construido (con
+     * el resolvedor recursivo) al que se aplican los mismos cambios antes de
+     * su primera pasada.
+     */
+    @Test
+    void fixedContainers() {
+        for (long seed = 0; seed < TREES / 5; seed++) {
+            Container edited = randomFixedTree(seed, true);
+            List<Panel> leaves = new ArrayList<>();
+            collectLeaves(edited, leaves);
+            Vector3f size = viewport(seed, edited);
+            LayoutFixtures.layout(edited, size);
+
+            Random rnd = new Random(~seed);
+            List<Integer> changed = new ArrayList<>();
+            List<Vector3f> prefs = new ArrayList<>();
+            for (int step = 0; step < 3; step++) {
+                int index = rnd.nextInt(leaves.size());
+                Vector3f pref = new Vector3f(8 + rnd.nextInt(120), 8 + rnd.nextInt(40), 0);
+                leaves.get(index).setPreferredSize(pref);
+                invalidateComponent(leaves.get(index));
+                changed.add(index);
+                prefs.add(pref);
+                LayoutFixtures.layout(edited, size);
+
+                Container reference = randomFixedTree(seed, false);
+                List<Panel> referenceLeaves = new ArrayList<>();
+                collectLeaves(reference, referenceLeaves);
+                for (int i = 0; i < changed.size(); i++) {
+                    referenceLeaves.get(changed.get(i)).setPreferredSize(prefs.get(i).clone());
+                }
+                LayoutFixtures.layout(reference, size);
+                check("seed " + seed + " (fixed containers) step " + step,
+                      LayoutSnapshot.capture(reference, size), LayoutSnapshot.capture(edited, size),
+                      LayoutSnapshot.Tolerance.EXACT);
+            }
+        }
+    }
+}
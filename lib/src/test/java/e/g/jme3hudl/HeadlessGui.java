@@ -0,0 +1,92 @@
+/* Copyright (c) 2009-2023 jMonkeyEngine.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package e.g.jme3hudl;
+
+import com.jme3.app.LegacyApplication;
+import com.jme3.system.JmeSystem;
+import com.jme3.system.NullContext;
+import com.simsilica.lemur.GuiGlobals;
+import com.simsilica.lemur.style.BaseStyles;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Inicializa Lemur sin ventana ni contexto OpenGL.
+ * <p>
+ * Lemur reconoce las aplicaciones con un contexto de tipo
+ * <code>Headless</code> y en ese caso solo prepara el gestor de recursos y
+ * los estilos, sin estados de entrada. Con ello se pueden crear etiquetas,
+ * botones y el resto de componentes con el estilo <code>glass</code> y medir
+ * sus tamaños reales (fuentes incluidas) en una máquina sin GPU.
+ * </p>
+ *
+ * @author wil
+ */
+final class HeadlessGui {
+
+    /** Estilo aplicado por defecto, el mismo que usa la aplicación de prueba. */
+    static final String STYLE = "glass";
+
+    private static boolean initialized;
+
+    private HeadlessGui() {
+    }
+
+    /**
+     * Aplicación mínima: solo un gestor de recursos y un contexto nulo.
+     */
+    private static final class HeadlessApplication extends LegacyApplication {
+        HeadlessApplication() {
+            assetManager = JmeSystem.newAssetManager(Thread.currentThread()
+                    .getContextClassLoader().getResource("com/jme3/asset/Desktop.cfg"));
+            context = new NullContext();
+        }
+    }
+
+    /**
+     * Inicializa <code>GuiGlobals</code> y carga el estilo por defecto. Las
+     * llamadas posteriores no hacen nada.
+     */
+    static synchronized void initialize() {
+        if (initialized) {
+            return;
+        }
+        // Los cargadores de modelos y audio no están en el classpath.
+        Logger.getLogger("com.jme3.asset.AssetConfig").setLevel(Level.SEVERE);
+
+        GuiGlobals.initialize(new HeadlessApplication());
+        BaseStyles.loadGlassStyle();
+        GuiGlobals.getInstance().getStyles().setDefaultStyle(STYLE);
+        initialized = true;
+    }
+}
@@ -0,0 +1,84 @@
+/* Copyright (c) 2009-2023 jMonkeyEngine.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package e.g.jme3hudl;
+
+import com.jme3.math.Vector3f;
+import com.simsilica.lemur.Container;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Diseña cada escena de {@link LayoutHarness} sin ventana ni GPU y comprueba
+ * que los límites resultantes son válidos y que se repiten al construir la
+ * escena de nuevo.
+ *
+ * @author wil
+ */
+class HeadlessLayoutTest {
+
+    private static List<LayoutHarness.Bounds> run(Supplier<Container> scene, Vector3f stretch) {
+        Container root = scene.get();
+        LayoutHarness.layout(root, null);
+        if (stretch != null) {
+            LayoutHarness.layout(root, root.getPreferredSize().add(stretch));
+        }
+        return LayoutHarness.capture(root);
+    }
+
+    private static void check(String name, List<LayoutHarness.Bounds> a, List<LayoutHarness.Bounds> b) {
+        assertEquals(a.size(), b.size(), name + ": number of components");
+        for (int i = 0; i < a.size(); i++) {
+            LayoutHarness.Bounds x = a.get(i);
+            assertTrue(Float.isFinite(x.x) && Float.isFinite(x.y) && Float.isFinite(x.z)
+                    && x.width >= 0 && x.height >= 0 && x.depth >= 0, name + ": invalid bounds " + x);
+            assertEquals(x.toString(), b.get(i).toString(), name);
+        }
+    }
+
+    @Test
+    void scenes() {
+        Vector3f stretch = new Vector3f(200, 100, 0);
+        for (Map.Entry<String, Supplier<Container>> e : LayoutHarness.scenes().entrySet()) {
+            List<LayoutHarness.Bounds> preferred = run(e.getValue(), null);
+            check(e.getKey(), preferred, run(e.getValue(), null));
+            List<LayoutHarness.Bounds> stretched = run(e.getValue(), stretch);
+            check(e.getKey() + " (stretched)", stretched, run(e.getValue(), stretch));
+        }
+    }
+}
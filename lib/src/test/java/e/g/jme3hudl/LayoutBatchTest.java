@@ -0,0 +1,252 @@
+/* Copyright (c) 2009-2023 jMonkeyEngine.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package e.g.jme3hudl;
+
+import com.jme3.math.Vector3f;
+import com.jme3.scene.Node;
+import com.simsilica.lemur.Container;
+import com.simsilica.lemur.core.AbstractGuiControlListener;
+import com.simsilica.lemur.core.GuiControl;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Cuenta las llamadas a <code>reshape</code> al construir un HUD de unos 500
+ * nodos, con y sin {@link LayoutBatch}, y comprueba que el lote no las
+ * aumenta.
+ * <p>
+ * Lemur ya agrupa las invalidaciones de un mismo fotograma: solo la raíz se
+ * revalida, en su <code>controlUpdate</code>. Por ello se miden dos casos:
+ * <ul>
+ * <li><b>un fotograma</b>: todo el HUD se construye antes de actualizar la
+ * escena.</li>
+ * <li><b>un panel por fotograma</b>: el HUD se rellena poco a poco mientras
+ * la escena se sigue actualizando; sin lote, cada fotograma vuelve a diseñar
+ * todo lo construido hasta el momento.</li>
+ * </ul>
+ * Al terminar se comprueba que el HUD queda igual con y sin lote.
+ * </p>
+ * <p>
+ * También se cuenta el coste de cambiar el tamaño de la ventana cuando, junto
+ * al HUD, hay un inventario que no depende del factor de escala: invalidando
+ * toda la interfaz, o avisando solo a los {@link ControlLayout} del
+ * {@link ControlLayout.RootPane}.
+ * </p>
+ *
+ * @author wil
+ */
+class LayoutBatchTest {
+
+    private static final int PANELS = 20;
+    private static final int LEAVES_PER_PANEL = 24;
+
+    /** Llamadas a reshape de cualquier control del HUD. */
+    private static int reshapes;
+
+    private static final AbstractGuiControlListener COUNTER = new AbstractGuiControlListener() {
+        @Override
+        public void reshape(GuiControl source, Vector3f pos, Vector3f size) {
+            reshapes++;
+        }
+    };
+
+    /**
+     * HUD en construcción: una raíz con {@link ControlLayout} a la que se van
+     * añadiendo paneles con {@link GroupLayout}, {@link FlowLayout} y
+     * {@link CardLayout}.
+     */
+    private static final class Hud {
+        final Node scene = new Node("gui");
+        final Container root;
+        final ControlLayout layout;
+        final List<Container> panels = new ArrayList<>();
+        final List<CardLayout> cards = new ArrayList<>();
+        int leaf;
+
+        Hud() {
+            root = new LayoutFixtures.BareContainer();
+            layout = new ControlLayout(ControlLayout.onCreateRootPane(
+                    new Vector3f(1280, 720, 1), new Vector3f(1024, 576, 1)));
+            root.setLayout(layout);
+            root.getControl(GuiControl.class).addListener(COUNTER);
+            scene.attachChild(root);
+        }
+
+        void addPanel() {
+            List<Node> leaves = new ArrayList<>();
+            for (int i = 0; i < LEAVES_PER_PANEL; i++) {
+                Node n = LayoutFixtures.leaf(leaf++);
+                n.getControl(GuiControl.class).addListener(COUNTER);
+                leaves.add(n);
+            }
+            int index = panels.size();
+            Container panel;
+            switch (index % 3) {
+                case 0:
+                    panel = LayoutFixtures.groupLayout(true, false).create(leaves);
+                    break;
+                case 1:
+                    panel = LayoutFixtures.flowLayout().create(leaves);
+                    break;
+                default:
+                    panel = LayoutFixtures.cardLayout().create(leaves);
+                    cards.add(LayoutFixtures.<CardLayout>layoutOf(panel));
+                    break;
+            }
+            panel.getControl(GuiControl.class).addListener(COUNTER);
+            panels.add(panel);
+
+            ControlLayout.Alignment[] alignments = ControlLayout.Alignment.values();
+            layout.addChild(panel, alignments[index % alignments.length], false);
+            layout.setAttribute(ControlLayout.POSITION, panel, new Vector3f(index * 3, index * 2, 0));
+            for (CardLayout card : cards) {
+                card.next();
+            }
+        }
+
+        void frame() {
+            scene.updateLogicalState(1 / 60f);
+        }
+    }
+
+    private static final class Result {
+        int reshapes;
+        Hud hud;
+    }
+
+    private static Result run(boolean batched, boolean perFrame) {
+        Result result = new Result();
+        reshapes = 0;
+        Hud hud = new Hud();
+        LayoutBatch batch = batched ? LayoutBatch.begin() : null;
+        for (int i = 0; i < PANELS; i++) {
+            hud.addPanel();
+            if (perFrame) {
+                hud.frame();
+            }
+        }
+        if (batch != null) {
+            batch.end();
+        }
+        hud.frame();
+        result.reshapes = reshapes;
+        result.hud = hud;
+        return result;
+    }
+
+    private static void compare(Hud a, Hud b) {
+        for (int i = 0; i < a.panels.size(); i++) {
+            Container pa = a.panels.get(i), pb = b.panels.get(i);
+            check(pa, pb);
+            for (int c = 0; c < pa.getQuantity(); c++) {
+                check(pa.getChild(c), pb.getChild(c));
+            }
+        }
+    }
+
+    private static void check(com.jme3.scene.Spatial a, com.jme3.scene.Spatial b) {
+        assertEquals(a.getControl(GuiControl.class).getSize(), b.getControl(GuiControl.class).getSize(),
+                "Batched layout differs: " + a);
+        assertEquals(a.getLocalTranslation(), b.getLocalTranslation(), "Batched layout differs: " + a);
+    }
+
+    private static void check(boolean perFrame) {
+        Result plain = run(false, perFrame);
+        Result batched = run(true, perFrame);
+        compare(plain.hud, batched.hud);
+        assertTrue(batched.reshapes <= plain.reshapes,
+                "batched " + batched.reshapes + " > " + plain.reshapes + " reshape calls");
+    }
+
+    /**
+     * Redimensiona la ventana de un HUD completo con un inventario al lado,
+     * invalidando todas las raíces o mediante 
+     * {@link ControlLayout.RootPane#setWindow(Vector3f)}.
+     */
+    private static Result resize(boolean broadcast) {
+        Result result = new Result();
+        Hud hud = new Hud();
+        for (int i = 0; i < PANELS; i++) {
+            hud.addPanel();
+        }
+        List<Node> tiles = new ArrayList<>();
+        for (int i = 0; i < PANELS * LEAVES_PER_PANEL; i++) {
+            Node n = LayoutFixtures.leaf(i);
+            n.getControl(GuiControl.class).addListener(COUNTER);
+            tiles.add(n);
+        }
+        Container inventory = LayoutFixtures.groupLayout(true, false).create(tiles);
+        inventory.getControl(GuiControl.class).addListener(COUNTER);
+        hud.scene.attachChild(inventory);
+        hud.frame();
+
+        reshapes = 0;
+        ControlLayout.RootPane rootPane = hud.layout.getRootPane();
+        Vector3f window = new Vector3f(1920, 1080, 1);
+        if (broadcast) {
+            rootPane.setWindow(window);
+        } else {
+            rootPane.getWindow().set(window);
+            hud.root.getControl(GuiControl.class).invalidate();
+            inventory.getControl(GuiControl.class).invalidate();
+        }
+        hud.frame();
+        result.reshapes = reshapes;
+        result.hud = hud;
+        return result;
+    }
+
+    @Test
+    void oneFrame() {
+        check(false);
+    }
+
+    @Test
+    void onePanelPerFrame() {
+        check(true);
+    }
+
+    @Test
+    void windowResize() {
+        Result plain = resize(false);
+        Result broadcast = resize(true);
+        compare(plain.hud, broadcast.hud);
+        assertTrue(broadcast.reshapes < plain.reshapes,
+                "RootPane listeners " + broadcast.reshapes + " >= " + plain.reshapes + " reshape calls");
+    }
+}
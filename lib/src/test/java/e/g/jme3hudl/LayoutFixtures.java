@@ -0,0 +1,271 @@
+/* Copyright (c) 2009-2023 jMonkeyEngine.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package e.g.jme3hudl;
+
+import com.jme3.math.Vector3f;
+import com.jme3.scene.Node;
+import com.simsilica.lemur.Container;
+import com.simsilica.lemur.Panel;
+import com.simsilica.lemur.core.GuiControl;
+import com.simsilica.lemur.core.GuiLayout;
+import com.simsilica.lemur.style.ElementId;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Fábrica de árboles de componentes Lemur para las pruebas y las pruebas de
+ * rendimiento.
+ * <p>
+ * Todos los contenedores se crean sin aplicar estilos, de modo que no es
+ * necesario inicializar <code>GuiGlobals</code> ni un contexto OpenGL.
+ * </p>
+ *
+ * @author wil
+ */
+final class LayoutFixtures {
+
+    /** Número de contenedores hijos por nivel en los árboles anidados. */
+    static final int FAN_OUT = 4;
+
+    private LayoutFixtures() {
+    }
+
+    /**
+     * Contenedor sin estilos.
+     */
+    static final class BareContainer extends Container {
+        BareContainer() {
+            super(new NullLayout(), false, new ElementId(Container.ELEMENT_ID), null);
+        }
+    }
+
+    /**
+     * Componente hoja sin estilos, con un tamaño preferido fijo.
+     */
+    static final class BarePanel extends Panel {
+        BarePanel(float width, float height) {
+            super(false, new ElementId(Panel.ELEMENT_ID), null);
+            setPreferredSize(new Vector3f(width, height, 0));
+        }
+    }
+
+    /**
+     * Crea un componente hoja cuyo tamaño varía según su índice, para que las
+     * filas y columnas no sean todas iguales.
+     *
+     * @param index índice del componente.
+     * @return panel.
+     */
+    static Panel leaf(int index) {
+        return new BarePanel(40 + (index * 7) % 60, 18 + (index * 3) % 12);
+    }
+
+    /**
+     * Ejecuta una pasada completa de diseño sobre el contenedor raíz, tal como
+     * lo haría <code>GuiControl.revalidate()</code>.
+     *
+     * @param root contenedor raíz.
+     * @param size tamaño que se le asigna a la raíz.
+     */
+    static void layout(Panel root, Vector3f size) {
+        GuiControl control = root.getControl(GuiControl.class);
+        control.getPreferredSize();
+        control.setSize(size);
+    }
+
+    /**
+     * Reparte <code>count</code> hojas entre <code>FAN_OUT</code>
+     * sub-contenedores por nivel hasta alcanzar la profundidad dada.
+     */
+    private static List<Node> children(int count, int depth, LayoutFactory factory, int[] seq) {
+        List<Node> nodes = new ArrayList<>();
+        if (depth <= 1 || count < FAN_OUT) {
+            for (int i = 0; i < count; i++) {
+                nodes.add(leaf(seq[0]++));
+            }
+        } else {
+            int per = count / FAN_OUT;
+            for (int i = 0; i < FAN_OUT; i++) {
+                int n = (i == FAN_OUT - 1) ? count - per * (FAN_OUT - 1) : per;
+                nodes.add(factory.create(children(n, depth - 1, factory, seq)));
+            }
+        }
+        return nodes;
+    }
+
+    /**
+     * Construye un árbol de contenedores.
+     *
+     * @param count número total de hojas.
+     * @param depth profundidad de anidamiento (1 = sin anidar).
+     * @param factory fábrica encargado de crear cada contenedor.
+     * @return contenedor raíz.
+     */
+    static Container tree(int count, int depth, LayoutFactory factory) {
+        return factory.create(children(count, depth, factory, new int[1]));
+    }
+
+    /**
+     * Fábrica de contenedores con un diseño concreto.
+     */
+    interface LayoutFactory {
+        Container create(List<Node> children);
+    }
+
+    /**
+     * Crea un formulario de dos columnas (etiqueta - campo) con
+     * {@link GroupLayout}.
+     *
+     * @param autopadding si se crean los huecos automáticos.
+     * @param linked si se enlazan los tamaños de la primera columna.
+     * @return fábrica.
+     */
+    static LayoutFactory groupLayout(boolean autopadding, boolean linked) {
+        return (List<Node> children) -> {
+            Container c = new BareContainer();
+            GroupLayout layout = new GroupLayout(c);
+            c.setLayout(layout);
+            layout.setAutoCreateGaps(autopadding);
+            layout.setAutoCreateContainerGaps(autopadding);
+
+            GroupLayout.ParallelGroup left  = layout.createParallelGroup(GroupLayout.Alignment.LEADING);
+            GroupLayout.ParallelGroup right = layout.createParallelGroup(GroupLayout.Alignment.LEADING);
+            GroupLayout.SequentialGroup rows = layout.createSequentialGroup();
+            List<Node> labels = new ArrayList<>();
+            for (int i = 0; i < children.size(); i += 2) {
+                Node label = children.get(i);
+                GroupLayout.ParallelGroup row = layout.createParallelGroup(GroupLayout.Alignment.CENTER);
+                left.addComponent(label);
+                row.addComponent(label);
+                labels.add(label);
+                if (i + 1 < children.size()) {
+                    Node field = children.get(i + 1);
+                    right.addComponent(field, GroupLayout.DEFAULT_SIZE, GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE);
+                    row.addComponent(field);
+                }
+                rows.addGroup(row);
+            }
+            layout.setHorizontalGroup(layout.createSequentialGroup()
+                    .addGroup(left)
+                    .addGroup(right));
+            layout.setVerticalGroup(rows);
+            if (linked && labels.size() > 1) {
+                layout.linkSize(Jme3HudlConstants.HORIZONTAL, labels.toArray(new Node[0]));
+            }
+            return c;
+        };
+    }
+
+    /**
+     * Crea contenedores con {@link FlowLayout}.
+     * @return fábrica.
+     */
+    static LayoutFactory flowLayout() {
+        return (List<Node> children) -> {
+            Container c = new BareContainer();
+            c.setLayout(new FlowLayout(FlowLayout.LEFT, new Vector3f(5, 5, 0)));
+            for (Node n : children) {
+                c.addChild(n);
+            }
+            return c;
+        };
+    }
+
+    /**
+     * Crea contenedores con {@link CardLayout}.
+     * @return fábrica.
+     */
+    static LayoutFactory cardLayout() {
+        return (List<Node> children) -> {
+            Container c = new BareContainer();
+            c.setLayout(new CardLayout());
+            for (int i = 0; i < children.size(); i++) {
+                c.addChild(children.get(i), "card" + i);
+            }
+            return c;
+        };
+    }
+
+    /**
+     * Crea contenedores con {@link ControlLayout}.
+     * @return fábrica.
+     */
+    static LayoutFactory controlLayout() {
+        final ControlLayout.Alignment[] alignments = ControlLayout.Alignment.values();
+        return (List<Node> children) -> {
+            Container c = new BareContainer();
+            ControlLayout layout = new ControlLayout(ControlLayout.onCreateRootPane(
+                    new Vector3f(1280, 720, 1), new Vector3f(1024, 576, 1)));
+            c.setLayout(layout);
+            for (int i = 0; i < children.size(); i++) {
+                Node n = c.addChild(children.get(i), alignments[i % alignments.length], (i & 1) == 0);
+                layout.setAttribute(ControlLayout.POSITION, n, new Vector3f(i % 11, i % 7, 0));
+            }
+            return c;
+        };
+    }
+
+    /**
+     * Alterna entre varias fábricas en cada contenedor creado, para obtener
+     * HUD con contenedores hermanos de distintos diseños.
+     *
+     * @param factories fábricas.
+     * @return fábrica.
+     */
+    static LayoutFactory mixed(LayoutFactory... factories) {
+        final int[] next = {0};
+        return (List<Node> children) -> factories[next[0]++ % factories.length].create(children);
+    }
+
+    /**
+     * Crea HUD con contenedores hermanos de todos los diseños de la
+     * librería, para {@link LayoutScheduler}.
+     * @return fábrica.
+     */
+    static LayoutFactory hud() {
+        return mixed(groupLayout(true, false), flowLayout(), groupLayout(false, true),
+                controlLayout(), cardLayout());
+    }
+
+    /**
+     * Devuelve el diseño de un contenedor.
+     *
+     * @param <T> tipo de diseño.
+     * @param c contenedor.
+     * @return diseño.
+     */
+    @SuppressWarnings("unchecked")
+    static <T extends GuiLayout> T layoutOf(Panel c) {
+        return (T) c.getControl(GuiControl.class).getLayout();
+    }
+}
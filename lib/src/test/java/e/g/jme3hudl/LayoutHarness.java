@@ -0,0 +1,300 @@
+/* Copyright (c) 2009-2023 jMonkeyEngine.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package e.g.jme3hudl;
+
+import com.jme3.math.Vector3f;
+import com.jme3.scene.Node;
+import com.jme3.scene.Spatial;
+import com.simsilica.lemur.Button;
+import com.simsilica.lemur.Checkbox;
+import com.simsilica.lemur.Container;
+import com.simsilica.lemur.Label;
+import com.simsilica.lemur.Panel;
+import com.simsilica.lemur.core.GuiControl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Escenas de prueba con componentes Lemur reales (etiquetas, botones,
+ * casillas) para cada diseño de la librería, y captura de los límites que
+ * resultan de una pasada de diseño.
+ * <p>
+ * Requiere {@link HeadlessGui#initialize()}, que se invoca al crear
+ * cualquier escena; no necesita ventana ni contexto OpenGL.
+ * </p>
+ *
+ * @author wil
+ */
+final class LayoutHarness {
+
+    /** Resolución de referencia de las escenas con {@link ControlLayout}. */
+    static final Vector3f REFERENCE = new Vector3f(1024, 576, 1);
+    
+    /** Resolución de la ventana simulada. */
+    static final Vector3f WINDOW = new Vector3f(1280, 720, 1);
+
+    private LayoutHarness() {
+    }
+
+    /**
+     * Límites de un componente tras una pasada de diseño, en coordenadas
+     * locales de su padre.
+     */
+    static final class Bounds {
+        /** Ruta del componente: índices de hijo y tipo, desde la raíz. */
+        final String path;
+        final float x, y, z;
+        final float width, height, depth;
+
+        Bounds(String path, Vector3f location, Vector3f size) {
+            this.path = path;
+            this.x = location.x;
+            this.y = location.y;
+            this.z = location.z;
+            this.width  = size.x;
+            this.height = size.y;
+            this.depth  = size.z;
+        }
+
+        @Override
+        public String toString() {
+            return path + " [" + x + ", " + y + ", " + z + " | "
+                    + width + " x " + height + " x " + depth + "]";
+        }
+    }
+
+    /**
+     * Devuelve las escenas disponibles, por nombre.
+     * @return fábricas de escenas.
+     */
+    static Map<String, Supplier<Container>> scenes() {
+        Map<String, Supplier<Container>> scenes = new LinkedHashMap<>();
+        scenes.put("group", LayoutHarness::groupForm);
+        scenes.put("flow", LayoutHarness::flowToolbar);
+        scenes.put("card", LayoutHarness::cardDeck);
+        scenes.put("control", LayoutHarness::controlHud);
+        scenes.put("null", LayoutHarness::nullCanvas);
+        scenes.put("hud", LayoutHarness::nestedHud);
+        return Collections.unmodifiableMap(scenes);
+    }
+
+    /**
+     * Formulario con {@link GroupLayout}, similar al de la aplicación de
+     * prueba: título, casillas de opciones y una fila de botones.
+     * @return contenedor.
+     */
+    static Container groupForm() {
+        HeadlessGui.initialize();
+        Container c = new Container();
+        GroupLayout layout = new GroupLayout(c);
+        c.setLayout(layout);
+
+        Label title = new Label("jMonkeyEngine");
+        Label version = new Label("v3.6.1-stable+");
+        Label platform = new Label("Platform");
+        Checkbox android = new Checkbox("Android");
+        Checkbox desktop = new Checkbox("Desktop");
+        Checkbox vr = new Checkbox("VR");
+        Button cancel = new Button("Cancel");
+        Button accept = new Button("Accept");
+
+        layout.setHorizontalGroup(layout.createParallelGroup(GroupLayout.Alignment.LEADING)
+                .addGroup(layout.createSequentialGroup()
+                        .addContainerGap()
+                        .addGroup(layout.createParallelGroup(GroupLayout.Alignment.LEADING)
+                                .addComponent(title, GroupLayout.DEFAULT_SIZE, GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE)
+                                .addComponent(version)
+                                .addComponent(platform)
+                                .addGroup(layout.createSequentialGroup()
+                                        .addGap(12)
+                                        .addGroup(layout.createParallelGroup(GroupLayout.Alignment.LEADING, false)
+                                                .addComponent(android, GroupLayout.DEFAULT_SIZE, GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE)
+                                                .addComponent(desktop, GroupLayout.DEFAULT_SIZE, GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE)
+                                                .addComponent(vr, GroupLayout.DEFAULT_SIZE, GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE)))
+                                .addGroup(GroupLayout.Alignment.TRAILING, layout.createSequentialGroup()
+                                        .addGap(0, 0, Short.MAX_VALUE)
+                                        .addComponent(cancel)
+                                        .addPreferredGap(LayoutStyle.ComponentPlacement.RELATED)
+                                        .addComponent(accept)))
+                        .addContainerGap()));
+        layout.setVerticalGroup(layout.createSequentialGroup()
+                .addContainerGap()
+                .addComponent(title)
+                .addPreferredGap(LayoutStyle.ComponentPlacement.RELATED)
+                .addComponent(version)
+                .addGap(18)
+                .addComponent(platform)
+                .addPreferredGap(LayoutStyle.ComponentPlacement.UNRELATED)
+                .addComponent(android)
+                .addPreferredGap(LayoutStyle.ComponentPlacement.RELATED)
+                .addComponent(desktop)
+                .addPreferredGap(LayoutStyle.ComponentPlacement.RELATED)
+                .addComponent(vr)
+                .addPreferredGap(LayoutStyle.ComponentPlacement.UNRELATED, GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE)
+                .addGroup(layout.createParallelGroup(GroupLayout.Alignment.BASELINE)
+                        .addComponent(cancel)
+                        .addComponent(accept))
+                .addContainerGap());
+        return c;
+    }
+
+    /**
+     * Barra de botones con {@link FlowLayout}.
+     * @return contenedor.
+     */
+    static Container flowToolbar() {
+        HeadlessGui.initialize();
+        Container c = new Container(new FlowLayout(FlowLayout.LEFT, new Vector3f(4, 4, 0)));
+        String[] names = {"New", "Open", "Save", "Save as...", "Close", "Undo", "Redo",
+                          "Cut", "Copy", "Paste", "Find", "Replace", "Preferences"};
+        for (String name : names) {
+            c.addChild(new Button(name));
+        }
+        return c;
+    }
+
+    /**
+     * Pila de tarjetas con {@link CardLayout}, mostrando la segunda.
+     * @return contenedor.
+     */
+    static Container cardDeck() {
+        HeadlessGui.initialize();
+        Container c = new Container(new CardLayout(new Vector3f(6, 6, 0)));
+        c.addChild(new Label("General settings"), "general");
+        Container display = new Container();
+        display.addChild(new Label("Resolution"));
+        display.addChild(new Checkbox("Fullscreen"));
+        display.addChild(new Checkbox("VSync"));
+        c.addChild(display, "display");
+        c.addChild(new Button("Reset audio"), "audio");
+        LayoutFixtures.<CardLayout>layoutOf(c).show("display");
+        return c;
+    }
+
+    /**
+     * HUD con {@link ControlLayout}: un componente por cada alineación.
+     * @return contenedor.
+     */
+    static Container controlHud() {
+        HeadlessGui.initialize();
+        Container c = new Container();
+        ControlLayout layout = new ControlLayout(ControlLayout.onCreateRootPane(WINDOW, REFERENCE));
+        c.setLayout(layout);
+        ControlLayout.Alignment[] alignments = ControlLayout.Alignment.values();
+        for (int i = 0; i < alignments.length; i++) {
+            Panel p = (i % 2 == 0) ? new Label(alignments[i].name()) : new Button(alignments[i].name());
+            c.addChild(p, alignments[i], i % 3 == 0);
+            layout.setAttribute(ControlLayout.POSITION, p, new Vector3f(8 + i, 6 + i, 0));
+        }
+        return c;
+    }
+
+    /**
+     * Lienzo con {@link NullLayout}: los hijos se colocan y dimensionan a
+     * mano.
+     * @return contenedor.
+     */
+    static Container nullCanvas() {
+        HeadlessGui.initialize();
+        Container c = new Container(new NullLayout());
+        c.setPreferredSize(new Vector3f(300, 200, 0));
+        for (int i = 0; i < 5; i++) {
+            Label label = new Label("Label " + i);
+            label.setLocalTranslation(10 + i * 40, -(10 + i * 30), 1);
+            label.setSize(label.getPreferredSize());
+            c.addChild(label);
+        }
+        return c;
+    }
+
+    /**
+     * HUD anidado: un {@link ControlLayout} raíz que contiene el formulario,
+     * la barra de botones y la pila de tarjetas.
+     * @return contenedor.
+     */
+    static Container nestedHud() {
+        HeadlessGui.initialize();
+        Container c = new Container();
+        ControlLayout layout = new ControlLayout(ControlLayout.onCreateRootPane(WINDOW, REFERENCE));
+        c.setLayout(layout);
+        c.addChild(groupForm(), ControlLayout.Alignment.LeftCenter, false);
+        c.addChild(flowToolbar(), ControlLayout.Alignment.CenterTop, true);
+        c.addChild(cardDeck(), ControlLayout.Alignment.RightBottom, false);
+        return c;
+    }
+
+    /**
+     * Ejecuta una pasada de diseño completa sobre la raíz.
+     * 
+     * @param root contenedor raíz.
+     * @param size tamaño de la raíz, o <code>null</code> para usar su tamaño
+     * preferido.
+     */
+    static void layout(Panel root, Vector3f size) {
+        GuiControl control = root.getControl(GuiControl.class);
+        Vector3f pref = control.getPreferredSize();
+        control.setSize(size == null ? pref : size);
+    }
+
+    /**
+     * Captura los límites de la raíz y de todos sus descendientes que sean
+     * elementos GUI, en recorrido en profundidad.
+     * 
+     * @param root contenedor raíz.
+     * @return límites, empezando por la raíz.
+     */
+    static List<Bounds> capture(Panel root) {
+        List<Bounds> bounds = new ArrayList<>();
+        capture(root, root.getClass().getSimpleName(), bounds);
+        return bounds;
+    }
+
+    private static void capture(Spatial spatial, String path, List<Bounds> bounds) {
+        GuiControl control = spatial.getControl(GuiControl.class);
+        bounds.add(new Bounds(path, spatial.getLocalTranslation(), control.getSize()));
+        if (!(spatial instanceof Node)) {
+            return;
+        }
+        List<Spatial> children = ((Node) spatial).getChildren();
+        for (int i = 0; i < children.size(); i++) {
+            Spatial child = children.get(i);
+            if (child.getControl(GuiControl.class) != null) {
+                capture(child, path + "/" + i + ":" + child.getClass().getSimpleName(), bounds);
+            }
+        }
+    }
+}
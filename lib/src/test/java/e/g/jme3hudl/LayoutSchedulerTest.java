@@ -0,0 +1,133 @@
+/* Copyright (c) 2009-2023 jMonkeyEngine.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package e.g.jme3hudl;
+
+import com.jme3.math.Vector3f;
+import com.jme3.scene.Node;
+import com.jme3.scene.Spatial;
+import com.simsilica.lemur.Container;
+import com.simsilica.lemur.core.GuiControl;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Comprueba que {@link LayoutScheduler} produce los mismos límites que una
+ * pasada de Lemur en un solo hilo, para las escenas con estilos de
+ * {@link LayoutHarness} y para HUD grandes con contenedores hermanos de
+ * distintos diseños, antes y después de invalidar sus
+ * {@link GroupLayout}.
+ *
+ * @author wil
+ */
+class LayoutSchedulerTest {
+
+    private static final Vector3f STRETCH = new Vector3f(200, 100, 0);
+
+    private static ForkJoinPool pool;
+    private static LayoutScheduler scheduler;
+
+    @BeforeAll
+    static void createScheduler() {
+        pool = new ForkJoinPool(4);
+        scheduler = new LayoutScheduler(pool);
+        scheduler.setForkThreshold(1);
+    }
+
+    @AfterAll
+    static void shutdown() {
+        pool.shutdown();
+    }
+
+    private static void invalidateGroups(Spatial s) {
+        GuiControl control = s.getControl(GuiControl.class);
+        if (control != null && control.getLayout() instanceof GroupLayout) {
+            ((GroupLayout) control.getLayout()).invalidate();
+        }
+        if (s instanceof Node) {
+            for (Spatial child : ((Node) s).getChildren()) {
+                invalidateGroups(child);
+            }
+        }
+    }
+
+    /*
+     * Tres pasadas: tamaño preferido, estirado y estirado tras invalidar los
+     * GroupLayout.
+     */
+    private static String run(Supplier<Container> scene, LayoutScheduler using) {
+        Container root = scene.get();
+        StringBuilder out = new StringBuilder();
+        for (int pass = 0; pass < 3; pass++) {
+            if (pass == 2) {
+                invalidateGroups(root);
+            }
+            Vector3f size = pass == 0 ? null : root.getPreferredSize().add(STRETCH);
+            if (using == null) {
+                LayoutHarness.layout(root, size);
+            } else {
+                using.layout(root, size);
+            }
+            List<LayoutHarness.Bounds> bounds = LayoutHarness.capture(root);
+            out.append(bounds).append('\n');
+        }
+        return out.toString();
+    }
+
+    private static void check(String name, Supplier<Container> scene) {
+        assertEquals(run(scene, null), run(scene, scheduler), name);
+    }
+
+    @Test
+    void scenes() {
+        for (Map.Entry<String, Supplier<Container>> e : LayoutHarness.scenes().entrySet()) {
+            check(e.getKey(), e.getValue());
+        }
+    }
+
+    @Test
+    void huds() {
+        for (int seed = 0; seed < 50; seed++) {
+            final int count = 50 + seed * 37;
+            final int depth = 2 + seed % 3;
+            check("hud " + seed, () -> LayoutFixtures.tree(count, depth, LayoutFixtures.hud()));
+        }
+    }
+}
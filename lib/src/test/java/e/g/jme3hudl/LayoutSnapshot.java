@@ -0,0 +1,332 @@
+/* Copyright (c) 2009-2023 jMonkeyEngine.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package e.g.jme3hudl;
+
+import com.jme3.math.Vector3f;
+import com.jme3.scene.Node;
+import com.jme3.scene.Spatial;
+import com.simsilica.lemur.Panel;
+import com.simsilica.lemur.core.GuiControl;
+
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Instantánea de los límites de un árbol de componentes tras una pasada de
+ * diseño: la traslación local y el tamaño de cada elemento GUI, en recorrido
+ * en profundidad, junto con el tamaño de la ventana usada.
+ * <p>
+ * La estructura del árbol se guarda como el índice del padre de cada nodo,
+ * de modo que dos instantáneas solo son comparables si sus árboles tienen la
+ * misma forma. Hay dos formatos:
+ * <ul>
+ * <li><b>binario</b>: cabecera, tamaño de la ventana y, por nodo, el índice
+ * del padre y seis <code>float</code> (28 bytes por nodo).</li>
+ * <li><b>texto</b>: una línea por nodo con el índice, el padre, la ruta y
+ * los seis valores; pensado para revisar diferencias.</li>
+ * </ul>
+ * </p>
+ *
+ * @author wil
+ */
+final class LayoutSnapshot {
+
+    /** Cabecera del formato binario: "HUDL". */
+    private static final int MAGIC = 0x4855444C;
+    private static final short VERSION = 1;
+
+    /** Valores por nodo: x, y, z, ancho, alto, fondo. */
+    static final int VALUES = 6;
+    private static final String[] NAMES = {"x", "y", "z", "width", "height", "depth"};
+
+    final Vector3f viewport;
+    final int count;
+    final int[] parent;
+    final float[] values;
+    
+    /** Rutas de los nodos; solo se conocen al capturar o leer texto. */
+    final String[] paths;
+
+    private LayoutSnapshot(Vector3f viewport, int count, int[] parent, float[] values, String[] paths) {
+        this.viewport = viewport;
+        this.count = count;
+        this.parent = parent;
+        this.values = values;
+        this.paths = paths;
+    }
+
+    /**
+     * Captura los límites de la raíz y de sus descendientes.
+     * 
+     * @param root contenedor raíz, ya diseñado.
+     * @param viewport tamaño asignado a la raíz.
+     * @return instantánea.
+     */
+    static LayoutSnapshot capture(Panel root, Vector3f viewport) {
+        List<Spatial> nodes = new ArrayList<>();
+        List<String> paths = new ArrayList<>();
+        int[] parent = new int[16];
+        parent = collect(root, -1, root.getClass().getSimpleName(), nodes, paths, parent);
+
+        int count = nodes.size();
+        float[] values = new float[count * VALUES];
+        for (int i = 0; i < count; i++) {
+            Spatial s = nodes.get(i);
+            Vector3f t = s.getLocalTranslation();
+            Vector3f size = s.getControl(GuiControl.class).getSize();
+            int k = i * VALUES;
+            values[k]     = t.x;
+            values[k + 1] = t.y;
+            values[k + 2] = t.z;
+            values[k + 3] = size.x;
+            values[k + 4] = size.y;
+            values[k + 5] = size.z;
+        }
+        return new LayoutSnapshot(viewport.clone(), count, Arrays.copyOf(parent, count),
+                values, paths.toArray(new String[0]));
+    }
+
+    private static int[] collect(Spatial spatial, int parentIndex, String path,
+                                 List<Spatial> nodes, List<String> paths, int[] parent) {
+        int index = nodes.size();
+        if (index == parent.length) {
+            parent = Arrays.copyOf(parent, index * 2);
+        }
+        parent[index] = parentIndex;
+        nodes.add(spatial);
+        paths.add(path);
+        if (spatial instanceof Node) {
+            List<Spatial> children = ((Node) spatial).getChildren();
+            for (int i = 0; i < children.size(); i++) {
+                Spatial child = children.get(i);
+                if (child.getControl(GuiControl.class) != null) {
+                    parent = collect(child, index, path + "/" + i + ":" + child.getClass().getSimpleName(),
+                                     nodes, paths, parent);
+                }
+            }
+        }
+        return parent;
+    }
+
+    /**
+     * Escribe la instantánea en formato binario.
+     * 
+     * @param out flujo de salida.
+     * @throws IOException si falla la escritura.
+     */
+    void write(OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(out);
+        data.writeInt(MAGIC);
+        data.writeShort(VERSION);
+        data.writeFloat(viewport.x);
+        data.writeFloat(viewport.y);
+        data.writeFloat(viewport.z);
+        data.writeInt(count);
+        for (int i = 0; i < count; i++) {
+            data.writeInt(parent[i]);
+            for (int k = 0; k < VALUES; k++) {
+                data.writeFloat(values[i * VALUES + k]);
+            }
+        }
+        data.flush();
+    }
+
+    /**
+     * Lee una instantánea en formato binario.
+     * 
+     * @param in flujo de entrada.
+     * @return instantánea, sin rutas.
+     * @throws IOException si falla la lectura o el formato no es válido.
+     */
+    static LayoutSnapshot read(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(in);
+        if (data.readInt() != MAGIC) {
+            throw new IOException("Not a layout snapshot");
+        }
+        short version = data.readShort();
+        if (version != VERSION) {
+            throw new IOException("Unsupported snapshot version " + version);
+        }
+        Vector3f viewport = new Vector3f(data.readFloat(), data.readFloat(), data.readFloat());
+        int count = data.readInt();
+        if (count < 0) {
+            throw new IOException("Invalid node count " + count);
+        }
+        int[] parent = new int[count];
+        float[] values = new float[count * VALUES];
+        for (int i = 0; i < count; i++) {
+            parent[i] = data.readInt();
+            for (int k = 0; k < VALUES; k++) {
+                values[i * VALUES + k] = data.readFloat();
+            }
+        }
+        return new LayoutSnapshot(viewport, count, parent, values, null);
+    }
+
+    /**
+     * Escribe la instantánea en formato texto.
+     * 
+     * @param out flujo de salida.
+     */
+    void writeText(PrintStream out) {
+        out.println("viewport " + viewport.x + " " + viewport.y + " " + viewport.z);
+        for (int i = 0; i < count; i++) {
+            StringBuilder line = new StringBuilder();
+            line.append(i).append(' ').append(parent[i]).append(' ').append(path(i));
+            for (int k = 0; k < VALUES; k++) {
+                line.append(' ').append(values[i * VALUES + k]);
+            }
+            out.println(line);
+        }
+    }
+
+    /**
+     * Lee una instantánea en formato texto.
+     * 
+     * @param in lector de entrada.
+     * @return instantánea.
+     * @throws IOException si falla la lectura o el formato no es válido.
+     */
+    static LayoutSnapshot readText(Reader in) throws IOException {
+        BufferedReader reader = new BufferedReader(in);
+        String line = reader.readLine();
+        if (line == null || !line.startsWith("viewport ")) {
+            throw new IOException("Not a layout snapshot");
+        }
+        String[] v = line.split(" ");
+        Vector3f viewport = new Vector3f(Float.parseFloat(v[1]), Float.parseFloat(v[2]), Float.parseFloat(v[3]));
+
+        List<String> lines = new ArrayList<>();
+        while ((line = reader.readLine()) != null) {
+            if (!line.isEmpty()) {
+                lines.add(line);
+            }
+        }
+        int count = lines.size();
+        int[] parent = new int[count];
+        float[] values = new float[count * VALUES];
+        String[] paths = new String[count];
+        for (int i = 0; i < count; i++) {
+            String[] f = lines.get(i).split(" ");
+            if (f.length != 3 + VALUES || Integer.parseInt(f[0]) != i) {
+                throw new IOException("Invalid snapshot line: " + lines.get(i));
+            }
+            parent[i] = Integer.parseInt(f[1]);
+            paths[i] = f[2];
+            for (int k = 0; k < VALUES; k++) {
+                values[i * VALUES + k] = Float.parseFloat(f[3 + k]);
+            }
+        }
+        return new LayoutSnapshot(viewport, count, parent, values, paths);
+    }
+
+    private String path(int index) {
+        return (paths == null) ? "#" + index : paths[index];
+    }
+
+    /**
+     * Tolerancias de comparación: dos valores son iguales si su diferencia
+     * no supera <code>absolute + relative * max(|a|, |b|)</code>.
+     */
+    static final class Tolerance {
+        /** Sin tolerancia: los valores deben ser idénticos. */
+        static final Tolerance EXACT = new Tolerance(0, 0, 0);
+
+        final float translation;
+        final float size;
+        final float relative;
+
+        /**
+         * @param translation tolerancia absoluta para la traslación.
+         * @param size tolerancia absoluta para el tamaño.
+         * @param relative tolerancia relativa para ambos.
+         */
+        Tolerance(float translation, float size, float relative) {
+            if (translation < 0 || size < 0 || relative < 0) {
+                throw new IllegalArgumentException("Tolerance must be non-negative");
+            }
+            this.translation = translation;
+            this.size = size;
+            this.relative = relative;
+        }
+
+        boolean accepts(int value, float a, float b) {
+            if (Float.floatToIntBits(a) == Float.floatToIntBits(b)) {
+                return true;
+            }
+            float absolute = (value < 3) ? translation : size;
+            return Math.abs(a - b) <= absolute + relative * Math.max(Math.abs(a), Math.abs(b));
+        }
+    }
+
+    /**
+     * Compara esta instantánea (la esperada) con otra.
+     * 
+     * @param actual instantánea obtenida.
+     * @param tolerance tolerancias.
+     * @param limit número máximo de diferencias a informar.
+     * @return diferencias encontradas; vacía si son equivalentes.
+     */
+    List<String> compare(LayoutSnapshot actual, Tolerance tolerance, int limit) {
+        List<String> diffs = new ArrayList<>();
+        if (count != actual.count) {
+            diffs.add("node count: expected " + count + ", got " + actual.count);
+            return diffs;
+        }
+        if (!viewport.equals(actual.viewport)) {
+            diffs.add("viewport: expected " + viewport + ", got " + actual.viewport);
+        }
+        for (int i = 0; i < count && diffs.size() < limit; i++) {
+            if (parent[i] != actual.parent[i]) {
+                diffs.add(path(i) + ": expected parent " + parent[i] + ", got " + actual.parent[i]);
+                return diffs;
+            }
+            for (int k = 0; k < VALUES && diffs.size() < limit; k++) {
+                float a = values[i * VALUES + k];
+                float b = actual.values[i * VALUES + k];
+                if (!tolerance.accepts(k, a, b)) {
+                    diffs.add(actual.path(i) + " " + NAMES[k] + ": expected " + a + ", got " + b);
+                }
+            }
+        }
+        return diffs;
+    }
+}
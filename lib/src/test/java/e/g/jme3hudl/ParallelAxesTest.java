@@ -0,0 +1,171 @@
+/* Copyright (c) 2009-2023 jMonkeyEngine.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package e.g.jme3hudl;
+
+import com.jme3.math.Vector3f;
+import com.jme3.scene.Node;
+import com.simsilica.lemur.Container;
+import com.simsilica.lemur.Panel;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Somete la resolución en paralelo de los ejes de {@link GroupLayout} (ver
+ * {@link GroupLayout#setAxisPool(ForkJoinPool)}) a muchas pasadas seguidas
+ * en un grupo de varios hilos, y comprueba que un fallo en el eje
+ * horizontal no deja el vertical en marcha.
+ *
+ * @author wil
+ */
+class ParallelAxesTest {
+
+    private static final int LEAVES = 400;
+    private static final int PASSES = 1_000;
+
+    private static Container form(ForkJoinPool pool, LayoutStyle style) {
+        Container c = LayoutFixtures.tree(LEAVES, 1, LayoutFixtures.groupLayout(true, false));
+        GroupLayout layout = LayoutFixtures.layoutOf(c);
+        layout.setFlattenedSolver(true);
+        layout.setAxisPool(pool);
+        layout.setParallelThreshold(0);
+        layout.setLayoutStyle(style);
+        return c;
+    }
+
+    private static void assertSameBounds(Container expected, Container actual, String message) {
+        for (int i = 0; i < LEAVES; i++) {
+            Panel e = (Panel) expected.getChild(i);
+            Panel a = (Panel) actual.getChild(i);
+            assertEquals(e.getLocalTranslation(), a.getLocalTranslation(), message + ", child " + i);
+            assertEquals(e.getSize(), a.getSize(), message + ", child " + i);
+        }
+    }
+
+    @Test
+    void manyPasses() {
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            Container expected = form(null, null);
+            Container actual = form(pool, null);
+            Random random = new Random(23);
+            for (int pass = 0; pass < PASSES; pass++) {
+                int index = random.nextInt(LEAVES);
+                Vector3f pref = new Vector3f(10 + random.nextInt(120), 10 + random.nextInt(40), 0);
+                boolean component = random.nextBoolean();
+                for (Container c : new Container[] {expected, actual}) {
+                    Panel leaf = (Panel) c.getChild(index);
+                    leaf.setPreferredSize(pref.clone());
+                    if (component) {
+                        LayoutFixtures.<GroupLayout>layoutOf(c).invalidateComponent(leaf);
+                    }
+                }
+                Vector3f size = expected.getPreferredSize().mult(0.75f + (pass % 5) * 0.125f);
+                LayoutFixtures.layout(expected, size);
+                LayoutFixtures.layout(actual, size);
+                assertSameBounds(expected, actual, "pass " + pass);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Estilo que falla en el eje horizontal, resuelto en el hilo que diseña,
+     * y tarda en responder en el vertical, resuelto en el grupo de hilos.
+     */
+    private static final class FailingStyle extends LayoutStyle {
+        final AtomicInteger running = new AtomicInteger();
+        volatile boolean failing = true;
+
+        private int gap(int position) {
+            if (!failing) {
+                return 6;
+            }
+            if (position == Jme3HudlConstants.EAST || position == Jme3HudlConstants.WEST) {
+                if (ForkJoinTask.inForkJoinPool()) {
+                    return 6;
+                }
+                throw new IllegalStateException("horizontal axis");
+            }
+            running.incrementAndGet();
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                running.decrementAndGet();
+            }
+            return 6;
+        }
+
+        @Override
+        public int getPreferredGap(Node component1, Node component2,
+                ComponentPlacement type, int position, Node parent) {
+            return gap(position);
+        }
+
+        @Override
+        public int getContainerGap(Node component, int position, Node parent) {
+            return gap(position);
+        }
+    }
+
+    @Test
+    void horizontalFailure() {
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            FailingStyle style = new FailingStyle();
+            Container c = form(pool, style);
+            assertThrows(IllegalStateException.class,
+                    () -> LayoutFixtures.layout(c, new Vector3f(400, 300, 0)));
+            assertEquals(0, style.running.get(), "vertical axis still running");
+
+            style.failing = false;
+            LayoutFixtures.<GroupLayout>layoutOf(c).invalidate();
+            Container expected = form(null, style);
+            Vector3f size = expected.getPreferredSize();
+            LayoutFixtures.layout(expected, size);
+            LayoutFixtures.layout(c, size);
+            assertSameBounds(expected, c, "after the failure");
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,112 @@
+/* Copyright (c) 2009-2023 jMonkeyEngine.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package e.g.jme3hudl;
+
+import com.jme3.math.Vector3f;
+import com.simsilica.lemur.Container;
+import com.simsilica.lemur.Panel;
+import com.simsilica.lemur.core.GuiControl;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Comprueba que un {@link ControlLayout.RootPane} propio, construido sobre
+ * {@link ControlLayout.AbstractRootPane}, vuelve a diseñar los
+ * {@link ControlLayout} conectados cuando cambia su factor de escala.
+ *
+ * @author wil
+ */
+class RootPaneTest {
+
+    /**
+     * Root-pane mínimo: el factor de escala es la ventana dividida entre la
+     * resolución.
+     */
+    private static final class ScaledPane extends ControlLayout.AbstractRootPane {
+        final Vector3f window = new Vector3f(1024, 576, 1);
+        final Vector3f resolution = new Vector3f(1024, 576, 1);
+        final Vector3f scale = new Vector3f(1, 1, 1);
+
+        @Override
+        public Vector3f getScaleFactor() {
+            return scale;
+        }
+
+        @Override
+        public Vector3f getWindow() {
+            return window;
+        }
+
+        @Override
+        public Vector3f getResolution() {
+            return resolution;
+        }
+
+        @Override
+        public void setWindow(Vector3f window) {
+            this.window.set(window);
+            scale.set(window.x / resolution.x, window.y / resolution.y, 1);
+            fireScaleChanged();
+        }
+
+        @Override
+        public void setResolution(Vector3f resolution) {
+            this.resolution.set(resolution);
+            setWindow(window);
+        }
+    }
+
+    @Test
+    void customRootPane() {
+        ScaledPane pane = new ScaledPane();
+        Container root = new LayoutFixtures.BareContainer();
+        root.setLayout(new ControlLayout(pane));
+        Panel leaf = new LayoutFixtures.BarePanel(100, 40);
+        root.addChild(leaf, ControlLayout.Alignment.Center);
+        LayoutFixtures.layout(root, new Vector3f(1024, 576, 1));
+        assertEquals(new Vector3f(100, 40, 0), leaf.getControl(GuiControl.class).getSize());
+
+        // Sin invalidar nada: el aviso del root-pane vuelve a diseñar.
+        pane.setWindow(new Vector3f(2048, 1152, 1));
+        assertEquals(new Vector3f(200, 80, 0), leaf.getControl(GuiControl.class).getSize());
+
+        // Tras desconectar el diseño ya no se le avisa.
+        root.setLayout(new NullLayout());
+        pane.setWindow(new Vector3f(1024, 576, 1));
+        assertEquals(new Vector3f(200, 80, 0), leaf.getControl(GuiControl.class).getSize());
+
+        assertThrows(IllegalArgumentException.class, () -> pane.addRootPaneListener(null));
+    }
+}
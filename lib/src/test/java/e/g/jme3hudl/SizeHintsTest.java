@@ -0,0 +1,210 @@
+/* Copyright (c) 2009-2023 jMonkeyEngine.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package e.g.jme3hudl;
+
+import com.jme3.math.Vector3f;
+import com.simsilica.lemur.Container;
+import com.simsilica.lemur.Panel;
+import com.simsilica.lemur.core.GuiControl;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Comprueba los tamaños mínimo y máximo de {@link SizeHints} a través de
+ * {@link GroupLayout}, {@link FlowLayout} y {@link CardLayout}: solo mínimo,
+ * solo máximo, ambos, y un mínimo mayor que el máximo.
+ * <p>
+ * Todos los casos usan una hoja de tamaño preferido 100x40 y diseños sin
+ * márgenes ni separaciones.
+ * </p>
+ *
+ * @author wil
+ */
+class SizeHintsTest {
+
+    private static final Vector3f PREFERRED = new Vector3f(100, 40, 0);
+
+    /**
+     * Crea una hoja con las sugerencias dadas; <code>null</code> no declara
+     * el límite.
+     */
+    private static Panel leaf(Vector3f min, Vector3f max) {
+        Panel leaf = new LayoutFixtures.BarePanel(PREFERRED.x, PREFERRED.y);
+        SizeHints.setMinimumSize(leaf, min);
+        SizeHints.setMaximumSize(leaf, max);
+        return leaf;
+    }
+
+    private static Container group(Panel leaf) {
+        Container c = new LayoutFixtures.BareContainer();
+        GroupLayout layout = new GroupLayout(c);
+        c.setLayout(layout);
+        layout.setHorizontalGroup(layout.createSequentialGroup().addComponent(leaf));
+        layout.setVerticalGroup(layout.createSequentialGroup().addComponent(leaf));
+        return c;
+    }
+
+    private static Container flow(Panel leaf) {
+        Container c = new LayoutFixtures.BareContainer();
+        c.setLayout(new FlowLayout(FlowLayout.LEFT, new Vector3f()));
+        c.addChild(leaf);
+        return c;
+    }
+
+    private static Container card(Panel leaf) {
+        Container c = new LayoutFixtures.BareContainer();
+        c.setLayout(new CardLayout(new Vector3f()));
+        c.addChild(leaf, "card");
+        return c;
+    }
+
+    /**
+     * Diseña el contenedor con el tamaño dado y devuelve el de la hoja.
+     */
+    private static Vector3f layout(Container c, Panel leaf, float width, float height) {
+        LayoutFixtures.layout(c, new Vector3f(width, height, 0));
+        return leaf.getControl(GuiControl.class).getSize();
+    }
+
+    private static Vector3f size(float width, float height) {
+        return new Vector3f(width, height, 0);
+    }
+
+    @Test
+    void minimumOnly() {
+        Vector3f min = size(60, 20);
+        SizeHints hints = new SizeHints(leaf(min, null)).update();
+        assertEquals(min, hints.getMinimumSize());
+        assertEquals(PREFERRED, hints.getPreferredSize());
+        assertEquals(PREFERRED, hints.getMaximumSize());
+
+        Panel leaf = leaf(min, null);
+        Container c = group(leaf);
+        assertEquals(size(100, 40), layout(c, leaf, 300, 200));
+        assertEquals(size(70, 30), layout(c, leaf, 70, 30));
+        assertEquals(size(60, 20), layout(c, leaf, 10, 10));
+
+        leaf = leaf(min, null);
+        c = flow(leaf);
+        assertEquals(size(100, 40), layout(c, leaf, 300, 200));
+        assertEquals(size(70, 40), layout(c, leaf, 70, 200));
+        assertEquals(size(60, 40), layout(c, leaf, 10, 200));
+
+        leaf = leaf(min, null);
+        c = card(leaf);
+        assertEquals(size(300, 200), layout(c, leaf, 300, 200));
+        assertEquals(size(60, 20), layout(c, leaf, 10, 10));
+    }
+
+    @Test
+    void maximumOnly() {
+        Vector3f max = size(50, 30);
+        SizeHints hints = new SizeHints(leaf(null, max)).update();
+        assertEquals(max, hints.getMinimumSize());
+        assertEquals(max, hints.getPreferredSize());
+        assertEquals(max, hints.getMaximumSize());
+
+        Panel leaf = leaf(null, max);
+        Container c = group(leaf);
+        assertEquals(size(50, 30), layout(c, leaf, 300, 200));
+        assertEquals(size(50, 30), layout(c, leaf, 10, 10));
+
+        leaf = leaf(null, max);
+        c = flow(leaf);
+        assertEquals(size(50, 30), layout(c, leaf, 300, 200));
+
+        leaf = leaf(null, max);
+        c = card(leaf);
+        assertEquals(size(50, 30), layout(c, leaf, 300, 200));
+        assertEquals(size(10, 10), layout(c, leaf, 10, 10));
+
+        // Un máximo mayor que el preferido permite crecer.
+        leaf = leaf(null, size(250, 120));
+        c = group(leaf);
+        assertEquals(size(200, 100), layout(c, leaf, 200, 100));
+        assertEquals(size(100, 40), layout(c, leaf, 10, 10));
+    }
+
+    @Test
+    void minimumAndMaximum() {
+        Vector3f min = size(60, 20);
+        Vector3f max = size(150, 50);
+        SizeHints hints = new SizeHints(leaf(min, max)).update();
+        assertEquals(min, hints.getMinimumSize());
+        assertEquals(PREFERRED, hints.getPreferredSize());
+        assertEquals(max, hints.getMaximumSize());
+
+        Panel leaf = leaf(min, max);
+        Container c = group(leaf);
+        assertEquals(size(150, 50), layout(c, leaf, 300, 200));
+        assertEquals(size(120, 45), layout(c, leaf, 120, 45));
+        assertEquals(size(60, 20), layout(c, leaf, 10, 10));
+
+        leaf = leaf(min, max);
+        c = flow(leaf);
+        assertEquals(size(100, 40), layout(c, leaf, 300, 200));
+        assertEquals(size(80, 40), layout(c, leaf, 80, 200));
+
+        leaf = leaf(min, max);
+        c = card(leaf);
+        assertEquals(size(150, 50), layout(c, leaf, 300, 200));
+        assertEquals(size(120, 45), layout(c, leaf, 120, 45));
+        assertEquals(size(60, 20), layout(c, leaf, 10, 10));
+    }
+
+    @Test
+    void minimumAboveMaximum() {
+        Vector3f min = size(120, 50);
+        Vector3f max = size(80, 30);
+        SizeHints hints = new SizeHints(leaf(min, max)).update();
+        assertEquals(min, hints.getMinimumSize());
+        assertEquals(min, hints.getPreferredSize());
+        assertEquals(min, hints.getMaximumSize());
+
+        Panel leaf = leaf(min, max);
+        Container c = group(leaf);
+        assertEquals(size(120, 50), layout(c, leaf, 300, 200));
+        assertEquals(size(120, 50), layout(c, leaf, 10, 10));
+
+        leaf = leaf(min, max);
+        c = flow(leaf);
+        assertEquals(size(120, 50), layout(c, leaf, 300, 200));
+        assertEquals(size(120, 50), layout(c, leaf, 10, 200));
+
+        leaf = leaf(min, max);
+        c = card(leaf);
+        assertEquals(size(120, 50), layout(c, leaf, 300, 200));
+        assertEquals(size(120, 50), layout(c, leaf, 10, 10));
+    }
+}
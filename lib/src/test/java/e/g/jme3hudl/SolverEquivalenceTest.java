@@ -0,0 +1,199 @@
+/* Copyright (c) 2009-2023 jMonkeyEngine.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package e.g.jme3hudl;
+
+import com.jme3.math.Vector3f;
+import com.simsilica.lemur.Container;
+import com.simsilica.lemur.Panel;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+/**
+ * Comprueba que el resolvedor aplanado de {@link GroupLayout} produce
+ * exactamente los mismos límites que el recorrido de objetos
+ * <code>Spring</code>.
+ * <p>
+ * Para cada semilla se genera un diseño aleatorio (grupos anidados,
+ * huecos, relleno automático, grupos de línea base y tamaños enlazados), se
+ * resuelve con ambos métodos a varios tamaños y se comparan bit a bit la
+ * posición y el tamaño de cada componente.
+ * </p>
+ *
+ * @author wil
+ */
+class SolverEquivalenceTest {
+
+    private static final int SEEDS = 5_000;
+
+    private static GroupLayout.Group group(GroupLayout layout, Random random, int depth,
+            boolean horizontal, List<Panel> leaves, int[] next) {
+        GroupLayout.Group group;
+        // BaselineGroup solo es válido en el eje vertical.
+        switch (random.nextInt(depth > 2 || horizontal ? 2 : 3)) {
+            case 0:
+                group = layout.createSequentialGroup();
+                break;
+            case 1:
+                group = layout.createParallelGroup(
+                        GroupLayout.Alignment.values()[random.nextInt(3)], random.nextBoolean());
+                break;
+            default:
+                group = layout.createBaselineGroup(random.nextBoolean(), random.nextBoolean());
+                break;
+        }
+        int count = 1 + random.nextInt(5);
+        for (int i = 0; i < count; i++) {
+            int type = random.nextInt(10);
+            if (type < 2 && depth < 4) {
+                group.addGroup(group(layout, random, depth + 1, horizontal, leaves, next));
+            } else if (type < 3) {
+                float min = random.nextInt(10);
+                float pref = min + random.nextInt(10);
+                group.addGap(min, pref, pref + random.nextInt(3) * 50);
+            } else if (type < 4 && group instanceof GroupLayout.SequentialGroup) {
+                ((GroupLayout.SequentialGroup) group).addPreferredGap(LayoutStyle.ComponentPlacement.RELATED);
+            } else if (next[0] < leaves.size()) {
+                Panel leaf = leaves.get(next[0]++);
+                switch (random.nextInt(4)) {
+                    case 0:
+                        group.addComponent(leaf);
+                        break;
+                    case 1:
+                        group.addComponent(leaf, GroupLayout.DEFAULT_SIZE, GroupLayout.DEFAULT_SIZE, Short.MAX_VALUE);
+                        break;
+                    case 2:
+                        group.addComponent(leaf, GroupLayout.PREFERRED_SIZE, GroupLayout.DEFAULT_SIZE, GroupLayout.PREFERRED_SIZE);
+                        break;
+                    default:
+                        group.addComponent(leaf, 5, 30 + random.nextInt(30), 200);
+                        break;
+                }
+            }
+        }
+        return group;
+    }
+
+    /**
+     * Construye el diseño de una semilla y devuelve los límites de todos los
+     * componentes tras cuatro pasadas: tamaño preferido, tamaño escalado,
+     * cambio de un hijo con invalidación completa y con
+     * {@link GroupLayout#invalidateComponent}.
+     */
+    private static float[] bounds(long seed, boolean flattened, ForkJoinPool pool) {
+        Random random = new Random(seed);
+        Container root = new LayoutFixtures.BareContainer();
+        GroupLayout layout = new GroupLayout(root);
+        root.setLayout(layout);
+        layout.setFlattenedSolver(flattened);
+        layout.setAxisPool(pool);
+        layout.setParallelThreshold(0);
+        layout.setAutoCreateGaps(random.nextBoolean());
+        layout.setAutoCreateContainerGaps(random.nextBoolean());
+
+        int count = 3 + random.nextInt(30);
+        List<Panel> leaves = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            leaves.add(LayoutFixtures.leaf(random.nextInt(100)));
+        }
+        int[] next = {0};
+        GroupLayout.Group horizontal = group(layout, random, 0, true, leaves, next);
+        while (next[0] < count) {
+            horizontal.addComponent(leaves.get(next[0]++));
+        }
+        List<Panel> shuffled = new ArrayList<>(leaves);
+        Collections.shuffle(shuffled, random);
+        next[0] = 0;
+        GroupLayout.Group vertical = group(layout, random, 0, false, shuffled, next);
+        while (next[0] < count) {
+            vertical.addComponent(shuffled.get(next[0]++));
+        }
+        layout.setHorizontalGroup(horizontal);
+        layout.setVerticalGroup(vertical);
+        if (random.nextBoolean()) {
+            layout.linkSize(Jme3HudlConstants.HORIZONTAL, leaves.get(0), leaves.get(1));
+        }
+
+        float scaleX = 0.5f + (seed % 7) * 0.25f;
+        float scaleY = 0.5f + (seed % 5) * 0.3f;
+        float[] result = new float[count * 4 * 4];
+        int offset = 0;
+        for (int pass = 0; pass < 4; pass++) {
+            Vector3f size = root.getPreferredSize();
+            if (pass > 0) {
+                size.set(size.x * scaleX, size.y * scaleY, 0);
+            }
+            root.setPreferredSize(size);
+            LayoutFixtures.layout(root, size);
+            for (Panel leaf : leaves) {
+                result[offset++] = leaf.getLocalTranslation().x;
+                result[offset++] = leaf.getLocalTranslation().y;
+                result[offset++] = leaf.getSize().x;
+                result[offset++] = leaf.getSize().y;
+            }
+            root.setPreferredSize(null);
+            if (pass == 1) {
+                leaves.get(0).setPreferredSize(new Vector3f(77, 33, 0));
+            } else if (pass == 2) {
+                leaves.get(1).setPreferredSize(new Vector3f(12, 90, 0));
+                layout.invalidateComponent(leaves.get(1));
+            }
+        }
+        return result;
+    }
+
+    @Test
+    void flattenedSolver() {
+        for (long seed = 0; seed < SEEDS; seed++) {
+            assertArrayEquals(bounds(seed, false, null), bounds(seed, true, null), "seed " + seed);
+        }
+    }
+
+    @Test
+    void parallelAxes() {
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            for (long seed = 0; seed < SEEDS; seed++) {
+                assertArrayEquals(bounds(seed, false, null), bounds(seed, true, pool), "seed " + seed);
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+}
@@ -0,0 +1,147 @@
+/* Copyright (c) 2009-2023 jMonkeyEngine.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, are permitted provided that the following conditions
+ * are met:
+ *
+ * 1. Redistributions of source code must retain the above copyright
+ *    notice, this list of conditions and the following disclaimer.
+ *
+ * 2. Redistributions in binary form must reproduce the above copyright
+ *    notice, this list of conditions and the following disclaimer in
+ *    the documentation and/or other materials provided with the
+ *    distribution.
+ *
+ * 3. Neither the name of the copyright holder nor the names of its
+ *    contributors may be used to endorse or promote products derived
+ *    from this software without specific prior written permission.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+ * "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+ * LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS
+ * FOR A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE
+ * COPYRIGHT HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT,
+ * INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES
+ * (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR
+ * SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS INTERRUPTION)
+ * HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN CONTRACT,
+ * STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED
+ * OF THE POSSIBILITY OF SUCH DAMAGE.
+ */
+package e.g.jme3hudl;
+
+import com.jme3.math.Vector3f;
+import com.jme3.scene.Node;
+import com.jme3.scene.Spatial;
+import com.simsilica.lemur.Container;
+import com.simsilica.lemur.core.GuiControl;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Comprueba el contrato de {@link TwoPhaseLayout#compute} en los cuatro
+ * diseños de la librería:
+ * <ul>
+ * <li>una llamada cuyo resultado se descarta, antes de la primera pasada o
+ * con otro tamaño, no cambia la siguiente pasada de diseño;</li>
+ * <li>tras una pasada, el resultado contiene exactamente los límites que
+ * aplicó <code>reshape</code> a cada hijo adjunto.</li>
+ * </ul>
+ *
+ * @author wil
+ */
+class TwoPhaseLayoutTest {
+
+    private static final int LEAVES = 40;
+    private static final Vector3f SIZE = new Vector3f(400, 300, 0);
+    private static final Vector3f OTHER = new Vector3f(170, 90, 0);
+
+    private static Map<String, Supplier<Container>> scenes() {
+        Map<String, Supplier<Container>> scenes = new LinkedHashMap<>();
+        scenes.put("group", () -> LayoutFixtures.tree(LEAVES, 1, LayoutFixtures.groupLayout(true, false)));
+        scenes.put("linked group", () -> LayoutFixtures.tree(LEAVES, 1, LayoutFixtures.groupLayout(false, true)));
+        scenes.put("flow", () -> LayoutFixtures.tree(LEAVES, 1, LayoutFixtures.flowLayout()));
+        scenes.put("virtual flow", () -> {
+            Container c = LayoutFixtures.tree(LEAVES, 1, LayoutFixtures.flowLayout());
+            LayoutFixtures.<FlowLayout>layoutOf(c).setViewport(20, 30, 250, 80);
+            return c;
+        });
+        scenes.put("card", () -> LayoutFixtures.tree(LEAVES, 1, LayoutFixtures.cardLayout()));
+        scenes.put("control", () -> LayoutFixtures.tree(LEAVES, 1, LayoutFixtures.controlLayout()));
+        scenes.put("hud", () -> LayoutFixtures.tree(LEAVES * 4, 3, LayoutFixtures.hud()));
+        return scenes;
+    }
+
+    /**
+     * Calcula los límites fuera de <code>reshape</code> y los descarta.
+     */
+    private static void discard(Container c, Vector3f size) {
+        TwoPhaseLayout layout = LayoutFixtures.layoutOf(c);
+        layout.compute(size, new LayoutResult());
+    }
+
+    private static void check(String name, LayoutSnapshot expected, LayoutSnapshot actual) {
+        List<String> diffs = expected.compare(actual, LayoutSnapshot.Tolerance.EXACT, 8);
+        assertTrue(diffs.isEmpty(), () -> name + ":\n  " + String.join("\n  ", diffs));
+    }
+
+    @Test
+    void discardedCompute() {
+        for (Map.Entry<String, Supplier<Container>> e : scenes().entrySet()) {
+            Container reference = e.getValue().get();
+            LayoutFixtures.layout(reference, SIZE);
+            LayoutSnapshot expected = LayoutSnapshot.capture(reference, SIZE);
+
+            Container c = e.getValue().get();
+            discard(c, SIZE);
+            LayoutFixtures.layout(c, SIZE);
+            check(e.getKey() + " (before the first pass)", expected, LayoutSnapshot.capture(c, SIZE));
+
+            discard(c, OTHER);
+            discard(c, SIZE);
+            discard(c, OTHER);
+            LayoutFixtures.layout(c, SIZE);
+            check(e.getKey() + " (after other sizes)", expected, LayoutSnapshot.capture(c, SIZE));
+        }
+    }
+
+    @Test
+    void computeMatchesReshape() {
+        for (Map.Entry<String, Supplier<Container>> e : scenes().entrySet()) {
+            Container c = e.getValue().get();
+            LayoutFixtures.layout(c, SIZE);
+            discard(c, OTHER);
+            TwoPhaseLayout layout = LayoutFixtures.layoutOf(c);
+            LayoutResult store = new LayoutResult();
+            layout.compute(SIZE, store);
+
+            int attached = 0;
+            for (Spatial child : c.getChildren()) {
+                if (child.getControl(GuiControl.class) != null) {
+                    attached++;
+                }
+            }
+            assertEquals(attached, store.size(), e.getKey() + ": children in the result");
+            for (int i = 0; i < store.size(); i++) {
+                GuiControl gc = store.getControl(i);
+                Node n = gc.getNode();
+                String name = e.getKey() + ": child " + c.getChildIndex(n);
+                assertSame(c, n.getParent(), name + " is not attached");
+                assertEquals(n.getLocalTranslation(),
+                        new Vector3f(store.getX(i), store.getY(i), store.getZ(i)), name);
+                assertEquals(gc.getSize(),
+                        new Vector3f(store.getWidth(i), store.getHeight(i), store.getDepth(i)), name);
+            }
+        }
+    }
+}